@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onosproject.floodlightpof.protocol.action.OFAction;
+import org.onosproject.floodlightpof.protocol.factory.BasicFactory;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionApplyActions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Action and instruction list parsing with one entry and with the maximum
+ * of six, in the legacy slot layout and in the compact layout.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionListBenchmark {
+    @Param({"1", "6"})
+    public int entries;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private BasicFactory factory;
+    private ChannelBuffer actions;
+    private ChannelBuffer instructions;
+
+    @Setup
+    public void setUp() {
+        factory = new BasicFactory();
+
+        actions = ChannelBuffers.dynamicBuffer();
+        for (OFAction action : PofBenchmarkMessages.actions(entries)) {
+            int start = actions.writerIndex();
+            action.writeTo(actions);
+            if (!compact) {
+                actions.writeZero(OFAction.MAXIMAL_LENGTH - (actions.writerIndex() - start));
+            }
+        }
+
+        instructions = ChannelBuffers.dynamicBuffer();
+        for (OFInstruction instruction : PofBenchmarkMessages.instructions(entries, entries)) {
+            if (instruction instanceof OFInstructionApplyActions) {
+                ((OFInstructionApplyActions) instruction).setCompact(compact);
+            }
+            int start = instructions.writerIndex();
+            instruction.writeTo(instructions);
+            if (!compact) {
+                instructions.writeZero(OFInstruction.MAXIMAL_LENGTH - (instructions.writerIndex() - start));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<OFAction> parseActions() {
+        actions.readerIndex(0);
+        return factory.parseActions(actions, actions.readableBytes(), entries, compact);
+    }
+
+    @Benchmark
+    public List<OFInstruction> parseInstructions() {
+        instructions.readerIndex(0);
+        return factory.parseInstructions(instructions, instructions.readableBytes(), entries, compact);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.protocol.factory.BasicFactory;
+import org.onosproject.floodlightpof.protocol.factory.MessageParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse throughput of a controller-side stream mixing PACKET_IN, FLOW_MOD and
+ * MULTIPART_REPLY messages, in the ratio 11:4:1 of a reactive deployment.
+ * Each operation parses {@link #STREAM_LENGTH} messages.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedStreamBenchmark {
+    public static final int STREAM_LENGTH = 64;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    @Param({"false", "true"})
+    public boolean recycling;
+
+    @Param({"false", "true"})
+    public boolean zeroCopy;
+
+    private BasicFactory factory;
+    private ChannelBuffer stream;
+
+    @Setup
+    public void setUp() {
+        factory = new BasicFactory(recycling);
+        factory.setZeroCopyPacketIn(zeroCopy);
+
+        List<OFMessage> messages = new ArrayList<OFMessage>(STREAM_LENGTH);
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            OFType type;
+            if (i % 16 == 15) {
+                type = OFType.MULTIPART_REPLY;
+            } else if (i % 4 == 3) {
+                type = OFType.FLOW_MOD;
+            } else {
+                type = OFType.PACKET_IN;
+            }
+            OFMessage message = PofBenchmarkMessages.sample(type, compact);
+            message.setXid(i + 1);
+            messages.add(message);
+        }
+        stream = PofBenchmarkMessages.encode(messages);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws MessageParseException {
+        stream.readerIndex(0);
+        List<OFMessage> messages = factory.parseOFMessage(stream);
+        for (int i = 0; i < messages.size(); i++) {
+            OFMessage message = messages.get(i);
+            blackhole.consume(message.getXid());
+            if (recycling) {
+                message.release();
+            }
+        }
+    }
+}
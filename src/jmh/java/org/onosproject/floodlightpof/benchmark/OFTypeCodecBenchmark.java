@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.protocol.factory.BasicFactory;
+import org.onosproject.floodlightpof.protocol.factory.MessageParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encode and decode throughput of a single message, for every {@link OFType}.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OFTypeCodecBenchmark {
+    @Param({"HELLO", "ERROR", "ECHO_REQUEST", "ECHO_REPLY", "EXPERIMENTER", "FEATURES_REQUEST",
+            "FEATURES_REPLY", "GET_CONFIG_REQUEST", "GET_CONFIG_REPLY", "SET_CONFIG", "PACKET_IN",
+            "FLOW_REMOVED", "PORT_STATUS", "RESOURCE_REPORT", "PACKET_OUT", "FLOW_MOD",
+            "GROUP_MOD", "PORT_MOD", "TABLE_MOD", "MULTIPART_REQUEST", "MULTIPART_REPLY",
+            "BARRIER_REQUEST", "BARRIER_REPLY", "QUEUE_GET_CONFIG_REQUEST",
+            "QUEUE_GET_CONFIG_REPLY", "ROLE_REQUEST", "ROLE_REPLY", "GET_ASYNC_REQUEST",
+            "GET_ASYNC_REPLY", "SET_ASYNC", "METER_MOD", "COUNTER_MOD", "COUNTER_REQUEST",
+            "COUNTER_REPLY"})
+    public String type;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private BasicFactory factory;
+    private OFMessage message;
+    private ChannelBuffer encoded;
+    private ChannelBuffer out;
+
+    @Setup
+    public void setUp() {
+        factory = new BasicFactory();
+        message = PofBenchmarkMessages.sample(OFType.valueOf(type), compact);
+        encoded = PofBenchmarkMessages.encode(Collections.singletonList(message));
+        out = ChannelBuffers.buffer(message.encodedLength());
+    }
+
+    @Benchmark
+    public ChannelBuffer encode() {
+        out.clear();
+        message.writeTo(out);
+        return out;
+    }
+
+    @Benchmark
+    public List<OFMessage> decode() throws MessageParseException {
+        encoded.readerIndex(0);
+        return factory.parseOFMessage(encoded);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onosproject.floodlightpof.protocol.OFCounter;
+import org.onosproject.floodlightpof.protocol.OFCounterMod;
+import org.onosproject.floodlightpof.protocol.OFCounterReply;
+import org.onosproject.floodlightpof.protocol.OFCounterRequest;
+import org.onosproject.floodlightpof.protocol.OFEchoRequest;
+import org.onosproject.floodlightpof.protocol.OFFeaturesReply;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.OFFlowRemoved;
+import org.onosproject.floodlightpof.protocol.OFMatch;
+import org.onosproject.floodlightpof.protocol.OFMatch20;
+import org.onosproject.floodlightpof.protocol.OFMatchX;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.OFMeterMod;
+import org.onosproject.floodlightpof.protocol.OFMultipartReply;
+import org.onosproject.floodlightpof.protocol.OFMultipartRequest;
+import org.onosproject.floodlightpof.protocol.OFPacketIn;
+import org.onosproject.floodlightpof.protocol.OFPacketOut;
+import org.onosproject.floodlightpof.protocol.OFPhysicalPort;
+import org.onosproject.floodlightpof.protocol.OFPortStatus;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.protocol.action.OFAction;
+import org.onosproject.floodlightpof.protocol.action.OFActionDrop;
+import org.onosproject.floodlightpof.protocol.action.OFActionOutput;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionApplyActions;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionGotoTable;
+import org.onosproject.floodlightpof.protocol.statistics.OFPortStatisticsReply;
+import org.onosproject.floodlightpof.protocol.statistics.OFPortStatisticsRequest;
+import org.onosproject.floodlightpof.protocol.statistics.OFStatistics;
+import org.onosproject.floodlightpof.protocol.statistics.OFStatisticsType;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTable;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTableResource;
+import org.onosproject.floodlightpof.protocol.table.OFTableMod;
+import org.onosproject.floodlightpof.protocol.table.OFTableResource;
+import org.onosproject.floodlightpof.protocol.table.OFTableType;
+
+/**
+ * Builds populated sample messages, actions and instructions for the
+ * benchmarks, so that every writeTo has all the fields it dereferences.
+ *
+ */
+public final class PofBenchmarkMessages {
+    public static final int PACKET_DATA_LENGTH = 128;
+
+    private PofBenchmarkMessages() {
+    }
+
+    /**
+     * Build a populated message of the given type.
+     * @param type message type
+     * @param compact whether padded layouts are encoded compactly
+     * @return the message, or null if the type has no encodable body
+     */
+    public static OFMessage sample(OFType type, boolean compact) {
+        OFMessage message;
+        switch (type) {
+        case ECHO_REQUEST:
+        case ECHO_REPLY:
+            OFEchoRequest echo = (OFEchoRequest) type.newInstance();
+            echo.setPayload(new byte[16]);
+            echo.setLengthU(echo.encodedLength());
+            message = echo;
+            break;
+        case FEATURES_REPLY:
+            OFFeaturesReply features = new OFFeaturesReply();
+            features.setDeviceId(1);
+            features.setExperimenterName("bench");
+            features.setDeviceForwardEngineName("bench");
+            features.setDeviceLookupEngineName("bench");
+            message = features;
+            break;
+        case PACKET_IN:
+            OFPacketIn packetIn = new OFPacketIn();
+            packetIn.setReason(OFPacketIn.OFPacketInReason.OFPR_NO_MATCH);
+            packetIn.setPacketData(packetData());
+            packetIn.setTotalLength((short) PACKET_DATA_LENGTH);
+            message = packetIn;
+            break;
+        case FLOW_REMOVED:
+            OFFlowRemoved flowRemoved = new OFFlowRemoved();
+            flowRemoved.setMatch(new OFMatch());
+            flowRemoved.setReason(OFFlowRemoved.OFFlowRemovedReason.OFPRR_IDLE_TIMEOUT);
+            message = flowRemoved;
+            break;
+        case PORT_STATUS:
+        case PORT_MOD:
+            OFPortStatus portStatus = (OFPortStatus) type.newInstance();
+            portStatus.setDesc(physicalPort());
+            message = portStatus;
+            break;
+        case RESOURCE_REPORT:
+            OFFlowTableResource resource = new OFFlowTableResource();
+            resource.setResourceType(OFFlowTableResource.OFResourceReportType.OFRRT_FLOW_TABLE);
+            Map<OFTableType, OFTableResource> tableResources = new EnumMap<OFTableType, OFTableResource>(
+                    OFTableType.class);
+            for (int i = 0; i < OFTableType.MAX_TABLE_TYPE; i++) {
+                OFTableResource tableResource = new OFTableResource();
+                tableResource.setTableType(OFTableType.values()[i]);
+                tableResources.put(OFTableType.values()[i], tableResource);
+            }
+            resource.setTableResourcesMap(tableResources);
+            message = resource;
+            break;
+        case PACKET_OUT:
+            OFPacketOut packetOut = new OFPacketOut();
+            packetOut.setBufferId(OFPacketOut.bufferIdNone);
+            packetOut.setActions(actions(1));
+            packetOut.setActionsLength((short) 1);
+            packetOut.setPacketData(packetData());
+            message = packetOut;
+            break;
+        case FLOW_MOD:
+            message = flowMod(1, 2);
+            break;
+        case TABLE_MOD:
+            OFTableMod tableMod = new OFTableMod();
+            tableMod.setFlowTable(flowTable());
+            message = tableMod;
+            break;
+        case MULTIPART_REQUEST:
+            OFMultipartRequest request = new OFMultipartRequest();
+            request.setStatisticType(OFStatisticsType.PORT);
+            request.setStatistics(Collections.<OFStatistics>singletonList(new OFPortStatisticsRequest()));
+            message = request;
+            break;
+        case MULTIPART_REPLY:
+            message = multipartReply(4);
+            break;
+        case METER_MOD:
+            OFMeterMod meterMod = new OFMeterMod();
+            meterMod.setCommand(OFMeterMod.OFMeterModCmd.OFPMC_ADD);
+            message = meterMod;
+            break;
+        case COUNTER_MOD:
+            OFCounterMod counterMod = new OFCounterMod();
+            counterMod.setCounter(counter());
+            message = counterMod;
+            break;
+        case COUNTER_REQUEST:
+            OFCounterRequest counterRequest = new OFCounterRequest();
+            counterRequest.setCounter(counter());
+            message = counterRequest;
+            break;
+        case COUNTER_REPLY:
+            OFCounterReply counterReply = new OFCounterReply();
+            counterReply.setCounter(counter());
+            message = counterReply;
+            break;
+        default:
+            message = type.newInstance();
+            break;
+        }
+        message.setXid(1);
+        message.setCompact(compact);
+        message.setLengthU(message.encodedLength());
+        return message;
+    }
+
+    /**
+     * Build a flow_mod with one exact match field and the given number of
+     * instructions, the first one applying actionNum actions.
+     * @param actionNum number of actions in the apply-actions instruction
+     * @param instructionNum number of instructions
+     * @return the flow_mod
+     */
+    public static OFFlowMod flowMod(int actionNum, int instructionNum) {
+        OFFlowMod flowMod = new OFFlowMod();
+        flowMod.setTableType(OFTableType.OF_MM_TABLE);
+        flowMod.setPriority((short) 1);
+        List<OFMatchX> matchList = new ArrayList<OFMatchX>();
+        matchList.add(new OFMatchX(field(), new byte[] {1, 2, 3, 4, 5, 6},
+                new byte[] {-1, -1, -1, -1, -1, -1}));
+        flowMod.setMatchList(matchList);
+        flowMod.setMatchFieldNum((byte) 1);
+        flowMod.setInstructionList(instructions(actionNum, instructionNum));
+        flowMod.setInstructionNum((byte) instructionNum);
+        return flowMod;
+    }
+
+    /**
+     * Build an apply-actions instruction followed by goto-table instructions.
+     * @param actionNum number of actions in the apply-actions instruction
+     * @param instructionNum number of instructions
+     * @return the instructions
+     */
+    public static List<OFInstruction> instructions(int actionNum, int instructionNum) {
+        List<OFInstruction> instructions = new ArrayList<OFInstruction>();
+        OFInstructionApplyActions applyActions = new OFInstructionApplyActions();
+        applyActions.setActionList(actions(actionNum));
+        applyActions.setActionNum((byte) actionNum);
+        instructions.add(applyActions);
+        for (int i = 1; i < instructionNum; i++) {
+            instructions.add(new OFInstructionGotoTable());
+        }
+        return instructions;
+    }
+
+    /**
+     * Build output actions, with a drop as the last one.
+     * @param actionNum number of actions
+     * @return the actions
+     */
+    public static List<OFAction> actions(int actionNum) {
+        List<OFAction> actions = new ArrayList<OFAction>();
+        for (int i = 0; i < actionNum - 1; i++) {
+            OFActionOutput output = new OFActionOutput();
+            output.setPortId(i + 1);
+            actions.add(output);
+        }
+        actions.add(new OFActionDrop());
+        return actions;
+    }
+
+    /**
+     * Build a multipart reply carrying port statistics.
+     * @param portNum number of port statistics
+     * @return the reply
+     */
+    public static OFMultipartReply multipartReply(int portNum) {
+        OFMultipartReply reply = new OFMultipartReply();
+        reply.setStatisticType(OFStatisticsType.PORT);
+        List<OFStatistics> statistics = new ArrayList<OFStatistics>();
+        for (int i = 0; i < portNum; i++) {
+            statistics.add(new OFPortStatisticsReply());
+        }
+        reply.setStatistics(statistics);
+        reply.setLengthU(reply.encodedLength());
+        return reply;
+    }
+
+    /**
+     * Encode messages back to back into one buffer.
+     * @param messages the messages
+     * @return a buffer holding the encoded stream
+     */
+    public static ChannelBuffer encode(List<OFMessage> messages) {
+        int size = 0;
+        for (OFMessage message : messages) {
+            size += message.encodedLength();
+        }
+        ChannelBuffer buffer = ChannelBuffers.buffer(size);
+        for (OFMessage message : messages) {
+            message.writeTo(buffer);
+        }
+        return buffer;
+    }
+
+    private static byte[] packetData() {
+        byte[] packetData = new byte[PACKET_DATA_LENGTH];
+        for (int i = 0; i < packetData.length; i++) {
+            packetData[i] = (byte) i;
+        }
+        return packetData;
+    }
+
+    private static OFMatch20 field() {
+        OFMatch20 field = new OFMatch20();
+        field.setFieldId((short) 1);
+        field.setOffset((short) 0);
+        field.setLength((short) 48);
+        return field;
+    }
+
+    private static OFPhysicalPort physicalPort() {
+        OFPhysicalPort port = new OFPhysicalPort();
+        port.setHardwareAddress(new byte[6]);
+        port.setName("bench");
+        return port;
+    }
+
+    private static OFFlowTable flowTable() {
+        OFFlowTable flowTable = new OFFlowTable();
+        flowTable.setCommand(OFTableMod.OFTableModCmd.OFPTC_ADD);
+        flowTable.setTableType(OFTableType.OF_MM_TABLE);
+        flowTable.setTableName("bench");
+        flowTable.setMatchFieldList(Collections.singletonList(field()));
+        flowTable.setMatchFieldNum((byte) 1);
+        return flowTable;
+    }
+
+    private static OFCounter counter() {
+        OFCounter counter = new OFCounter();
+        counter.setCommand(OFCounter.OFCounterModCmd.OFPCC_ADD);
+        return counter;
+    }
+}
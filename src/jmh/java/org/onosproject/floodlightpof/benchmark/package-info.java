@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * JMH benchmarks for the POF protocol codec, built by the benchmarks profile
+ * as test sources, so they are never packaged into the bundle.
+ * <p>
+ * Run {@code mvn -Pbenchmarks verify} to measure all of them with the GC
+ * profiler, and narrow the run with {@code -Djmh.include=<regexp>}. Results
+ * are written as JSON to {@code target/jmh-result.json}. A baseline is
+ * recorded on the reference machine with
+ * {@code -Djmh.resultFile=src/jmh/baseline.json} and committed, so that later
+ * runs can be compared against it.
+ * <p>
+ * No baseline has been recorded yet: the suite was added without access to
+ * the reference machine, so {@code src/jmh/baseline.json} does not exist
+ * until someone runs it there.
+ */
+package org.onosproject.floodlightpof.benchmark;
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.OFMatchX;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTable;
+import org.onosproject.floodlightpof.protocol.table.OFTableType;
+
+/**
+ * Base of the {@link PofTable} engines: capacity checks and latency
+ * counters around the engine specific operations.
+ *
+ */
+abstract class AbstractPofTable implements PofTable {
+    protected final OFTableType tableType;
+    protected final int capacity;
+    protected final KeyLayout layout;
+
+    private final LatencyCounter insertLatency = new LatencyCounter();
+    private final LatencyCounter deleteLatency = new LatencyCounter();
+    private final LatencyCounter lookupLatency = new LatencyCounter();
+
+    protected AbstractPofTable(OFFlowTable table) {
+        this.tableType = table.getTableType();
+        this.capacity = table.getTableSize() > 0 ? table.getTableSize() : Integer.MAX_VALUE;
+        this.layout = KeyLayout.forTable(table.getMatchFieldList());
+    }
+
+    @Override
+    public OFTableType getTableType() {
+        return tableType;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public final void insert(OFFlowMod flowMod) {
+        long start = System.nanoTime();
+        try {
+            if (size() >= capacity && get(flowMod.getIndex()) == null) {
+                throw new IllegalStateException(tableType + " table is full ("
+                        + capacity + " entries)");
+            }
+            doInsert(flowMod);
+        } finally {
+            insertLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public final OFFlowMod delete(int index) {
+        long start = System.nanoTime();
+        try {
+            return doDelete(index);
+        } finally {
+            deleteLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public final OFFlowMod lookup(ChannelBuffer packet, ChannelBuffer metadata) {
+        long start = System.nanoTime();
+        try {
+            return doLookup(packet, metadata);
+        } finally {
+            lookupLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public LatencyCounter getInsertLatency() {
+        return insertLatency;
+    }
+
+    @Override
+    public LatencyCounter getDeleteLatency() {
+        return deleteLatency;
+    }
+
+    @Override
+    public LatencyCounter getLookupLatency() {
+        return lookupLatency;
+    }
+
+    /**
+     * Get the matches of a flow mod as an array, in flow mod order. Flow
+     * mods decoded in the legacy layout list all match slots, only the
+     * first matchFieldNum are kept.
+     */
+    protected static OFMatchX[] matches(OFFlowMod flowMod) {
+        List<OFMatchX> matchList = flowMod.getMatchList();
+        if (matchList == null) {
+            return new OFMatchX[0];
+        }
+        int fieldNum = Math.min(matchList.size(), flowMod.getMatchFieldNum());
+        return matchList.subList(0, fieldNum).toArray(new OFMatchX[fieldNum]);
+    }
+
+    protected abstract void doInsert(OFFlowMod flowMod);
+
+    protected abstract OFFlowMod doDelete(int index);
+
+    protected abstract OFFlowMod doLookup(ChannelBuffer packet, ChannelBuffer metadata);
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [size=" + size() + ", capacity=" + capacity
+                + ", insert=" + insertLatency + ", delete=" + deleteLatency
+                + ", lookup=" + lookupLatency + "]";
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTable;
+
+/**
+ * OF_EM_TABLE engine: an open addressing hash over the packed key of the
+ * table's match fields. Entry masks are ignored, every key bit is exact,
+ * and no two entries may share a key.
+ *
+ */
+public class ExactMatchTable extends AbstractPofTable {
+    private final KeyTable<OFFlowMod> keys;
+    private final Map<Integer, long[]> keysByIndex = new HashMap<Integer, long[]>();
+    private final long[] probe;
+
+    public ExactMatchTable(OFFlowTable table) {
+        super(table);
+        this.keys = new KeyTable<OFFlowMod>(layout.getWords());
+        this.probe = new long[layout.getWords()];
+    }
+
+    @Override
+    public int size() {
+        return keysByIndex.size();
+    }
+
+    @Override
+    public OFFlowMod get(int index) {
+        long[] key = keysByIndex.get(index);
+        return key == null ? null : keys.get(key, KeyLayout.hash(key, key.length));
+    }
+
+    @Override
+    protected void doInsert(OFFlowMod flowMod) {
+        long[] key = layout.pack(matches(flowMod), false);
+        int hash = KeyLayout.hash(key, key.length);
+        OFFlowMod existing = keys.get(key, hash);
+        if (existing != null && existing.getIndex() != flowMod.getIndex()) {
+            throw new IllegalArgumentException("Exact match key of entry " + flowMod.getIndex()
+                    + " is already used by entry " + existing.getIndex());
+        }
+        doDelete(flowMod.getIndex());
+        keys.put(key, hash, flowMod);
+        keysByIndex.put(flowMod.getIndex(), key);
+    }
+
+    @Override
+    protected OFFlowMod doDelete(int index) {
+        long[] key = keysByIndex.remove(index);
+        return key == null ? null : keys.remove(key, KeyLayout.hash(key, key.length));
+    }
+
+    @Override
+    protected OFFlowMod doLookup(ChannelBuffer packet, ChannelBuffer metadata) {
+        if (!layout.extract(packet, metadata, probe)) {
+            return null;
+        }
+        return keys.get(probe, KeyLayout.hash(probe, probe.length));
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFMatch20;
+import org.onosproject.floodlightpof.protocol.OFMatchX;
+
+/**
+ * Layout of a lookup key: the packet and metadata bit ranges it is made of,
+ * each with the mask of the bits that take part in the match.
+ * <p>
+ * The masked bits of all fields are concatenated, most significant first,
+ * into {@code long} words, so a key of n bits takes (n + 63) / 64 words.
+ * Field offsets are bit offsets from the first readable byte of the packet,
+ * or of the metadata for fields with id {@link OFMatch20#METADATA_FIELD_ID}.
+ *
+ */
+final class KeyLayout {
+    private final Field[] fields;
+    private final int bits;
+    private final int words;
+    private final int hash;
+
+    private KeyLayout(Field[] fields) {
+        this.fields = fields;
+        int n = 0;
+        for (Field field : fields) {
+            n += field.length;
+        }
+        this.bits = n;
+        this.words = (n + 63) / 64;
+        this.hash = Arrays.hashCode(fields);
+    }
+
+    /**
+     * Layout of the fields and masks of a flow entry's matches, in the
+     * given order.
+     * @param matches
+     * @return the layout
+     */
+    static KeyLayout forMatches(OFMatchX[] matches) {
+        Field[] fields = new Field[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            OFMatchX match = matches[i];
+            fields[i] = new Field(isMetadata(match.getFieldId()), match.getOffset(),
+                                  match.getLength(), match.getMask());
+        }
+        return new KeyLayout(fields);
+    }
+
+    /**
+     * Layout of the match fields of a flow table, with every bit kept.
+     * @param matchFields
+     * @return the layout
+     */
+    static KeyLayout forTable(List<OFMatch20> matchFields) {
+        int fieldNum = matchFields == null ? 0 : matchFields.size();
+        Field[] fields = new Field[fieldNum];
+        for (int i = 0; i < fieldNum; i++) {
+            OFMatch20 field = matchFields.get(i);
+            fields[i] = new Field(isMetadata(field.getFieldId()), field.getOffset(),
+                                  field.getLength(), null);
+        }
+        return new KeyLayout(fields);
+    }
+
+    static boolean isMetadata(short fieldId) {
+        return fieldId == OFMatch20.METADATA_FIELD_ID;
+    }
+
+    /**
+     * Get the key length.
+     * @return key length in bits
+     */
+    int getBits() {
+        return bits;
+    }
+
+    /**
+     * Get the number of words of a key.
+     * @return key length in words
+     */
+    int getWords() {
+        return words;
+    }
+
+    /**
+     * Read the masked key of a packet.
+     * @param packet packet, from its reader index
+     * @param metadata metadata, from its reader index; may be null
+     * @param key receives the key, at least {@link #getWords()} long
+     * @return false if a masked bit lies past the end of its buffer
+     */
+    boolean extract(ChannelBuffer packet, ChannelBuffer metadata, long[] key) {
+        Arrays.fill(key, 0, words, 0L);
+        int cursor = 0;
+        for (Field field : fields) {
+            if (!field.extract(field.metadata ? metadata : packet, key, cursor)) {
+                return false;
+            }
+            cursor += field.length;
+        }
+        return true;
+    }
+
+    /**
+     * Pack the values, or the masks, of a flow entry's matches into a key.
+     * The matches must be in layout order and describe the same fields.
+     * @param matches
+     * @param packMask pack the match masks instead of the values
+     * @return the packed key
+     */
+    long[] pack(OFMatchX[] matches, boolean packMask) {
+        if (matches.length != fields.length) {
+            throw new IllegalArgumentException("Expected " + fields.length
+                    + " match fields but got " + matches.length);
+        }
+        long[] key = new long[words];
+        int cursor = 0;
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            OFMatchX match = matches[i];
+            if (match.getOffset() != field.offset || match.getLength() != field.length
+                    || isMetadata(match.getFieldId()) != field.metadata) {
+                throw new IllegalArgumentException("Match field " + i + " (offset "
+                        + match.getOffset() + ", length " + match.getLength()
+                        + ") does not match the key layout");
+            }
+            field.pack(packMask ? match.getMask() : match.getValue(), key, cursor);
+            cursor += field.length;
+        }
+        return key;
+    }
+
+    /**
+     * Hash the first length words of a key.
+     * @param key
+     * @param length
+     * @return the hash, well mixed in its low bits
+     */
+    static int hash(long[] key, int length) {
+        long h = length;
+        for (int i = 0; i < length; i++) {
+            h = Long.rotateLeft((h ^ key[i]) * 0x9e3779b97f4a7c15L, 31);
+        }
+        // murmur3 finalizer, hash tables use the low bits
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Append the low n bits of value to the key at the given bit cursor.
+     */
+    private static void append(long[] key, int cursor, int value, int n) {
+        int word = cursor >>> 6;
+        int shift = 64 - (cursor & 63) - n;
+        if (shift >= 0) {
+            key[word] |= (long) value << shift;
+        } else {
+            key[word] |= (long) value >>> -shift;
+            key[word + 1] |= (long) value << (64 + shift);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof KeyLayout && Arrays.equals(fields, ((KeyLayout) obj).fields);
+    }
+
+    /**
+     * One match field: where its bits are and which of them the mask keeps.
+     */
+    private static final class Field {
+        final boolean metadata;
+        final int offset;
+        final int length;
+        final byte[] mask;
+
+        Field(boolean metadata, int offset, int length, byte[] mask) {
+            if (offset < 0 || length <= 0) {
+                throw new IllegalArgumentException("Invalid match field: offset "
+                        + offset + ", length " + length);
+            }
+            this.metadata = metadata;
+            this.offset = offset;
+            this.length = length;
+            int bytes = (length + 7) / 8;
+            this.mask = new byte[bytes];
+            for (int i = 0; i < bytes; i++) {
+                if (mask == null) {
+                    this.mask[i] = (byte) 0xff;
+                } else if (i < mask.length) {
+                    this.mask[i] = mask[i];
+                }
+            }
+            // bits past the field length never take part in the match
+            if ((length & 7) != 0) {
+                this.mask[bytes - 1] &= (byte) (0xff << (8 - (length & 7)));
+            }
+        }
+
+        boolean extract(ChannelBuffer data, long[] key, int cursor) {
+            int base = data == null ? 0 : data.readerIndex();
+            int limit = data == null ? 0 : data.writerIndex();
+            for (int i = 0; i < mask.length; i++) {
+                int m = mask[i] & 0xff;
+                int n = Math.min(8, length - 8 * i);
+                if (m != 0) {
+                    int bit = offset + 8 * i;
+                    int index = base + (bit >>> 3);
+                    int shift = bit & 7;
+                    if (index + (shift + n + 7) / 8 > limit) {
+                        return false;
+                    }
+                    int b = data.getUnsignedByte(index);
+                    if (shift + n > 8) {
+                        b = (b << shift) | (data.getUnsignedByte(index + 1) >>> (8 - shift));
+                    } else {
+                        b <<= shift;
+                    }
+                    append(key, cursor + 8 * i, (b & m) >>> (8 - n), n);
+                }
+            }
+            return true;
+        }
+
+        void pack(byte[] bytes, long[] key, int cursor) {
+            for (int i = 0; i < mask.length; i++) {
+                int n = Math.min(8, length - 8 * i);
+                int b = bytes != null && i < bytes.length ? bytes[i] & mask[i] & 0xff : 0;
+                append(key, cursor + 8 * i, b >>> (8 - n), n);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return (((metadata ? 1 : 0) * 31 + offset) * 31 + length) * 31 + Arrays.hashCode(mask);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Field)) {
+                return false;
+            }
+            Field other = (Field) obj;
+            return metadata == other.metadata && offset == other.offset
+                    && length == other.length && Arrays.equals(mask, other.mask);
+        }
+    }
+}
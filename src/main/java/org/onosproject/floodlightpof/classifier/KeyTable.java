@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+/**
+ * Open addressing hash table from fixed width keys to values. Keys are
+ * stored inline, so a probe touches few cache lines and looking up a key
+ * held in a reused array does not allocate.
+ *
+ * @param <V> value type
+ */
+final class KeyTable<V> {
+    private final int stride;
+    private long[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+
+    /**
+     * @param stride key length in words
+     */
+    KeyTable(int stride) {
+        this.stride = stride;
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * stride];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    private int slot(long[] key, int hash) {
+        int mask = values.length - 1;
+        int slot = hash & mask;
+        while (values[slot] != null && !(hashes[slot] == hash && sameKey(slot, key))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean sameKey(int slot, long[] key) {
+        int base = slot * stride;
+        for (int i = 0; i < stride; i++) {
+            if (keys[base + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key
+     * @param hash {@link KeyLayout#hash(long[], int)} of the key
+     * @return the value, or null
+     */
+    @SuppressWarnings("unchecked")
+    V get(long[] key, int hash) {
+        return (V) values[slot(key, hash)];
+    }
+
+    /**
+     * Map the key to a non null value. The key words are copied.
+     */
+    void put(long[] key, int hash, V value) {
+        int slot = slot(key, hash);
+        if (values[slot] == null) {
+            if ((size + 1) * 2 > values.length) {
+                resize();
+                slot = slot(key, hash);
+            }
+            System.arraycopy(key, 0, keys, slot * stride, stride);
+            hashes[slot] = hash;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * @return the removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long[] key, int hash) {
+        int mask = values.length - 1;
+        int hole = slot(key, hash);
+        V old = (V) values[hole];
+        if (old == null) {
+            return null;
+        }
+        values[hole] = null;
+        size--;
+        // shift back later keys of the probe run so lookups never stop early
+        for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                System.arraycopy(keys, next * stride, keys, hole * stride, stride);
+                hashes[hole] = hashes[next];
+                values[hole] = values[next];
+                values[next] = null;
+                hole = next;
+            }
+        }
+        return old;
+    }
+
+    void clear() {
+        allocate(16);
+        size = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        allocate(oldValues.length * 2);
+        int mask = values.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int slot = oldHashes[i] & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            System.arraycopy(oldKeys, i * stride, keys, slot * stride, stride);
+            hashes[slot] = oldHashes[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTable;
+
+/**
+ * OF_LINEAR_TABLE engine: entries live at their index, and a lookup reads
+ * the table's key as an unsigned integer index. A table without match
+ * fields is only addressed through {@link #get(int)}.
+ *
+ */
+public class LinearTable extends AbstractPofTable {
+    private final OFFlowMod[] entries;
+    private final long[] probe;
+    private int size;
+
+    public LinearTable(OFFlowTable table) {
+        super(table);
+        if (table.getTableSize() <= 0) {
+            throw new IllegalArgumentException("Linear table needs a size, got " + table.getTableSize());
+        }
+        if (layout.getBits() > 31) {
+            throw new IllegalArgumentException("Linear table key is " + layout.getBits()
+                    + " bits, at most 31 are supported");
+        }
+        this.entries = new OFFlowMod[capacity];
+        this.probe = new long[layout.getWords()];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public OFFlowMod get(int index) {
+        return index >= 0 && index < entries.length ? entries[index] : null;
+    }
+
+    @Override
+    protected void doInsert(OFFlowMod flowMod) {
+        int index = flowMod.getIndex();
+        if (index < 0 || index >= entries.length) {
+            throw new IllegalArgumentException("Index " + index + " out of linear table range [0, "
+                    + entries.length + ")");
+        }
+        if (entries[index] == null) {
+            size++;
+        }
+        entries[index] = flowMod;
+    }
+
+    @Override
+    protected OFFlowMod doDelete(int index) {
+        OFFlowMod old = get(index);
+        if (old != null) {
+            entries[index] = null;
+            size--;
+        }
+        return old;
+    }
+
+    @Override
+    protected OFFlowMod doLookup(ChannelBuffer packet, ChannelBuffer metadata) {
+        if (layout.getBits() == 0 || !layout.extract(packet, metadata, probe)) {
+            return null;
+        }
+        return get((int) (probe[0] >>> (64 - layout.getBits())));
+    }
+}
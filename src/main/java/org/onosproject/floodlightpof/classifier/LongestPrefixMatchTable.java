@@ -0,0 +1,285 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTable;
+
+/**
+ * OF_LPM_TABLE engine: a multibit trie with 8 bit strides over the packed
+ * key of the table's match fields.
+ * <p>
+ * Each node covers one key byte. Prefixes ending inside a node are expanded
+ * over the 256 slots they cover (controlled prefix expansion), so a lookup
+ * reads one slot per key byte and keeps the last hit. Nodes allocate their
+ * slot arrays only once used and are pruned when emptied. The entry mask
+ * must be a prefix of the key; among equal prefixes the highest priority,
+ * then the lowest index, wins.
+ *
+ */
+public class LongestPrefixMatchTable extends AbstractPofTable {
+    private static final int FANOUT = 256;
+
+    private final Node root = new Node();
+    private final Map<Integer, Entry> entries = new HashMap<Integer, Entry>();
+    private final int levels;
+    private final long[] probe;
+    private Entry zeroLength;   // entries with a /0 prefix
+
+    public LongestPrefixMatchTable(OFFlowTable table) {
+        super(table);
+        this.levels = (layout.getBits() + 7) / 8;
+        this.probe = new long[layout.getWords()];
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public OFFlowMod get(int index) {
+        Entry entry = entries.get(index);
+        return entry == null ? null : entry.flowMod;
+    }
+
+    @Override
+    protected void doInsert(OFFlowMod flowMod) {
+        long[] key = layout.pack(matches(flowMod), false);
+        long[] mask = layout.pack(matches(flowMod), true);
+        int prefixLength = prefixLength(mask);
+        Entry entry = new Entry(flowMod, key, prefixLength);
+
+        doDelete(flowMod.getIndex());
+        entries.put(entry.index, entry);
+        if (prefixLength == 0) {
+            zeroLength = link(zeroLength, entry);
+            return;
+        }
+        int depth = (prefixLength - 1) / 8;
+        Node node = root;
+        for (int level = 0; level < depth; level++) {
+            node = node.child(keyByte(key, level), true);
+        }
+        node.add(entry, keyByte(key, depth), prefixLength - 8 * depth);
+    }
+
+    @Override
+    protected OFFlowMod doDelete(int index) {
+        Entry entry = entries.remove(index);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.prefixLength == 0) {
+            zeroLength = unlink(zeroLength, entry);
+            return entry.flowMod;
+        }
+        int depth = (entry.prefixLength - 1) / 8;
+        Node[] path = new Node[depth + 1];
+        path[0] = root;
+        for (int level = 0; level < depth; level++) {
+            path[level + 1] = path[level].child(keyByte(entry.key, level), false);
+        }
+        path[depth].remove(entry, keyByte(entry.key, depth), entry.prefixLength - 8 * depth);
+        for (int level = depth; level > 0 && path[level].isEmpty(); level--) {
+            path[level - 1].removeChild(keyByte(entry.key, level - 1));
+        }
+        return entry.flowMod;
+    }
+
+    @Override
+    protected OFFlowMod doLookup(ChannelBuffer packet, ChannelBuffer metadata) {
+        Entry best = zeroLength;
+        if (layout.extract(packet, metadata, probe)) {
+            Node node = root;
+            for (int level = 0; level < levels && node != null; level++) {
+                int b = keyByte(probe, level);
+                if (node.best != null && node.best[b] != null) {
+                    best = node.best[b];
+                }
+                node = node.children == null ? null : node.children[b];
+            }
+        }
+        return best == null ? null : best.flowMod;
+    }
+
+    private static int keyByte(long[] key, int level) {
+        return (int) (key[level >>> 3] >>> (56 - 8 * (level & 7))) & 0xff;
+    }
+
+    private int prefixLength(long[] mask) {
+        int length = 0;
+        for (long word : mask) {
+            length += Long.numberOfLeadingZeros(~word);
+            if (word != -1L) {
+                break;
+            }
+        }
+        length = Math.min(length, layout.getBits());
+        for (int i = 0; i < mask.length; i++) {
+            int from = 64 * i;
+            long expected = length >= from + 64 ? -1L : length <= from ? 0L : -1L << (64 - (length - from));
+            if (mask[i] != expected) {
+                throw new IllegalArgumentException("Longest prefix match entry mask is not a prefix");
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Insert an entry into a chain kept in priority order.
+     * @return the new chain head
+     */
+    private static Entry link(Entry head, Entry entry) {
+        if (head == null || entry.before(head)) {
+            entry.next = head;
+            return entry;
+        }
+        Entry prev = head;
+        while (prev.next != null && !entry.before(prev.next)) {
+            prev = prev.next;
+        }
+        entry.next = prev.next;
+        prev.next = entry;
+        return head;
+    }
+
+    /**
+     * Remove an entry from a chain.
+     * @return the new chain head
+     */
+    private static Entry unlink(Entry head, Entry entry) {
+        if (head == entry) {
+            Entry next = entry.next;
+            entry.next = null;
+            return next;
+        }
+        for (Entry prev = head; prev != null; prev = prev.next) {
+            if (prev.next == entry) {
+                prev.next = entry.next;
+                entry.next = null;
+                break;
+            }
+        }
+        return head;
+    }
+
+    private static final class Entry {
+        final OFFlowMod flowMod;
+        final long[] key;
+        final int prefixLength;
+        final int priority;
+        final int index;
+        Entry next;     // next entry with the same prefix, in priority order
+
+        Entry(OFFlowMod flowMod, long[] key, int prefixLength) {
+            this.flowMod = flowMod;
+            this.key = key;
+            this.prefixLength = prefixLength;
+            this.priority = flowMod.getPriority() & 0xffff;
+            this.index = flowMod.getIndex();
+        }
+
+        boolean before(Entry other) {
+            return priority > other.priority || (priority == other.priority && index < other.index);
+        }
+    }
+
+    /**
+     * One 8 bit stride of the trie.
+     */
+    private static final class Node {
+        Node[] children;
+        int childCount;
+        Entry[] best;                       // expanded best entry per slot
+        Map<Integer, Entry> prefixes;       // chains by (bits << 8 | prefix byte)
+
+        Node child(int b, boolean create) {
+            if (children == null) {
+                if (!create) {
+                    return null;
+                }
+                children = new Node[FANOUT];
+            }
+            Node child = children[b];
+            if (child == null && create) {
+                child = new Node();
+                children[b] = child;
+                childCount++;
+            }
+            return child;
+        }
+
+        void removeChild(int b) {
+            children[b] = null;
+            if (--childCount == 0) {
+                children = null;
+            }
+        }
+
+        boolean isEmpty() {
+            return childCount == 0 && prefixes == null;
+        }
+
+        void add(Entry entry, int b, int bits) {
+            if (prefixes == null) {
+                prefixes = new HashMap<Integer, Entry>();
+                best = new Entry[FANOUT];
+            }
+            int prefix = b & (0xff << (8 - bits)) & 0xff;
+            int slot = bits << 8 | prefix;
+            prefixes.put(slot, link(prefixes.get(slot), entry));
+            expand(prefix, bits);
+        }
+
+        void remove(Entry entry, int b, int bits) {
+            int prefix = b & (0xff << (8 - bits)) & 0xff;
+            int slot = bits << 8 | prefix;
+            Entry head = unlink(prefixes.get(slot), entry);
+            if (head == null) {
+                prefixes.remove(slot);
+            } else {
+                prefixes.put(slot, head);
+            }
+            if (prefixes.isEmpty()) {
+                prefixes = null;
+                best = null;
+            } else {
+                expand(prefix, bits);
+            }
+        }
+
+        /**
+         * Recompute the best entry of the slots a prefix covers.
+         */
+        private void expand(int prefix, int bits) {
+            int end = prefix + (1 << (8 - bits));
+            for (int s = prefix; s < end; s++) {
+                Entry found = null;
+                for (int r = 8; r > 0 && found == null; r--) {
+                    found = prefixes.get(r << 8 | (s & (0xff << (8 - r)) & 0xff));
+                }
+                best[s] = found;
+            }
+        }
+    }
+}
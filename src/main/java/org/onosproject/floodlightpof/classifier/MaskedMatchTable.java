@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTable;
+
+/**
+ * OF_MM_TABLE engine: entries are grouped in priority sorted mask tuple
+ * buckets by a {@link PofClassifier}.
+ *
+ */
+public class MaskedMatchTable extends AbstractPofTable {
+    private final PofClassifier classifier = new PofClassifier();
+
+    public MaskedMatchTable(OFFlowTable table) {
+        super(table);
+    }
+
+    @Override
+    public int size() {
+        return classifier.size();
+    }
+
+    @Override
+    public OFFlowMod get(int index) {
+        return classifier.get(index);
+    }
+
+    /**
+     * Get the number of mask tuples a lookup may probe.
+     * @return the tuple count
+     */
+    public int getTupleCount() {
+        return classifier.getTupleCount();
+    }
+
+    @Override
+    protected void doInsert(OFFlowMod flowMod) {
+        // entries must use the table's fields, their masks are free
+        layout.pack(matches(flowMod), false);
+        classifier.add(flowMod);
+    }
+
+    @Override
+    protected OFFlowMod doDelete(int index) {
+        return classifier.remove(index);
+    }
+
+    @Override
+    protected OFFlowMod doLookup(ChannelBuffer packet, ChannelBuffer metadata) {
+        return classifier.lookup(packet, metadata);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.OFMatch20;
+import org.onosproject.floodlightpof.protocol.OFMatchX;
+
+/**
+ * Shadow of one POF flow table that predicts which entry a packet hits.
+ * <p>
+ * Entries are grouped by mask tuple, the set of (field, offset, length, mask)
+ * they match on. Each tuple keeps a hash of the masked keys of its entries,
+ * so checking a tuple costs one hash probe. Tuples are probed in order of
+ * their highest entry priority and the search stops once no remaining tuple
+ * can beat the best hit (tuple space search).
+ * <p>
+ * Field offsets are bit offsets from the first readable byte of the packet,
+ * or of the metadata for fields with id {@link OFMatch20#METADATA_FIELD_ID}.
+ * Priorities compare unsigned; among equal priorities the lowest index wins.
+ * Entries are identified by their flow mod index, as on the switch.
+ * <p>
+ * The classifier keeps the flow mods it is given, they must not be modified
+ * or released to an object pool while installed. Not thread safe.
+ *
+ */
+public class PofClassifier {
+    private final Map<Integer, Entry> entries = new HashMap<Integer, Entry>();
+    private final Map<KeyLayout, Tuple> tuples = new HashMap<KeyLayout, Tuple>();
+    private Tuple[] probeOrder = new Tuple[0];
+    private boolean probeOrderValid = true;
+    private long[] probe = new long[4];
+
+    /**
+     * Apply an OFPFC_ADD, OFPFC_MODIFY(_STRICT) or OFPFC_DELETE(_STRICT)
+     * flow mod. Adding or modifying replaces the entry at the same index,
+     * deleting removes it.
+     * @param flowMod
+     */
+    public void apply(OFFlowMod flowMod) {
+        PofTables.apply(flowMod, this::add, this::remove);
+    }
+
+    /**
+     * Install a flow entry, replacing the entry at the same index.
+     * @param flowMod
+     */
+    public void add(OFFlowMod flowMod) {
+        List<OFMatchX> matchList = flowMod.getMatchList();
+        // flow mods decoded in the legacy layout carry all match slots, padding included
+        int fieldNum = matchList == null ? 0 : Math.min(matchList.size(), flowMod.getMatchFieldNum());
+        OFMatchX[] matches = new OFMatchX[fieldNum];
+        for (int i = 0; i < fieldNum; i++) {
+            matches[i] = matchList.get(i);
+        }
+        Arrays.sort(matches, FIELD_ORDER);
+
+        KeyLayout shape = KeyLayout.forMatches(matches);
+        long[] words = shape.pack(matches, false);
+
+        remove(flowMod.getIndex());
+        Tuple tuple = tuples.get(shape);
+        if (tuple == null) {
+            tuple = new Tuple(shape);
+            tuples.put(shape, tuple);
+        }
+        Entry entry = new Entry(flowMod, tuple, words);
+        tuple.add(entry);
+        entries.put(flowMod.getIndex(), entry);
+        probeOrderValid = false;
+    }
+
+    /**
+     * Remove the flow entry at the given index.
+     * @param index
+     * @return the removed flow mod, or null
+     */
+    public OFFlowMod remove(int index) {
+        Entry entry = entries.remove(index);
+        if (entry == null) {
+            return null;
+        }
+        Tuple tuple = entry.tuple;
+        tuple.remove(entry);
+        if (tuple.size == 0) {
+            tuples.remove(tuple.shape);
+        }
+        probeOrderValid = false;
+        return entry.flowMod;
+    }
+
+    /**
+     * Remove all flow entries.
+     */
+    public void clear() {
+        entries.clear();
+        tuples.clear();
+        probeOrder = new Tuple[0];
+        probeOrderValid = true;
+    }
+
+    /**
+     * Get the flow entry installed at the given index.
+     * @param index
+     * @return the flow mod, or null
+     */
+    public OFFlowMod get(int index) {
+        Entry entry = entries.get(index);
+        return entry == null ? null : entry.flowMod;
+    }
+
+    /**
+     * Find the highest priority entry matching a packet.
+     * @param packet packet, from its reader index to its writer index
+     * @param metadata metadata, from its reader index; may be null
+     * @return the matching flow mod, or null on a table miss
+     */
+    public OFFlowMod lookup(ChannelBuffer packet, ChannelBuffer metadata) {
+        Tuple[] order = probeOrder();
+        Entry best = null;
+        for (Tuple tuple : order) {
+            if (best != null && tuple.maxPriority() < best.priority) {
+                break;
+            }
+            KeyLayout shape = tuple.shape;
+            if (probe.length < shape.getWords()) {
+                probe = new long[shape.getWords()];
+            }
+            if (!shape.extract(packet, metadata, probe)) {
+                continue;
+            }
+            Entry hit = tuple.buckets.get(probe, KeyLayout.hash(probe, shape.getWords()));
+            if (hit != null && (best == null || hit.priority > best.priority
+                    || (hit.priority == best.priority && hit.index < best.index))) {
+                best = hit;
+            }
+        }
+        return best == null ? null : best.flowMod;
+    }
+
+    /**
+     * Get the number of installed flow entries.
+     * @return the entry count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of distinct mask tuples, the worst case number of hash
+     * probes per lookup.
+     * @return the tuple count
+     */
+    public int getTupleCount() {
+        return tuples.size();
+    }
+
+    private Tuple[] probeOrder() {
+        if (!probeOrderValid) {
+            Tuple[] order = tuples.values().toArray(new Tuple[tuples.size()]);
+            Arrays.sort(order, PROBE_ORDER);
+            probeOrder = order;
+            probeOrderValid = true;
+        }
+        return probeOrder;
+    }
+
+    private static final Comparator<OFMatchX> FIELD_ORDER = new Comparator<OFMatchX>() {
+        @Override
+        public int compare(OFMatchX a, OFMatchX b) {
+            int c = Boolean.compare(KeyLayout.isMetadata(a.getFieldId()),
+                                    KeyLayout.isMetadata(b.getFieldId()));
+            if (c == 0) {
+                c = Short.compare(a.getOffset(), b.getOffset());
+            }
+            if (c == 0) {
+                c = Short.compare(a.getLength(), b.getLength());
+            }
+            return c;
+        }
+    };
+
+    private static final Comparator<Tuple> PROBE_ORDER = new Comparator<Tuple>() {
+        @Override
+        public int compare(Tuple a, Tuple b) {
+            return Integer.compare(b.maxPriority(), a.maxPriority());
+        }
+    };
+
+    private static final class Entry {
+        final OFFlowMod flowMod;
+        final Tuple tuple;
+        final long[] key;
+        final int hash;
+        final int priority;
+        final int index;
+        Entry next;     // next entry with the same key, in probe order
+
+        Entry(OFFlowMod flowMod, Tuple tuple, long[] key) {
+            this.flowMod = flowMod;
+            this.tuple = tuple;
+            this.key = key;
+            this.hash = KeyLayout.hash(key, key.length);
+            this.priority = flowMod.getPriority() & 0xffff;
+            this.index = flowMod.getIndex();
+        }
+
+        boolean before(Entry other) {
+            return priority > other.priority || (priority == other.priority && index < other.index);
+        }
+    }
+
+    /**
+     * Entries sharing one mask tuple, hashed by key. Entries with equal keys
+     * are chained with the best one first.
+     */
+    private static final class Tuple {
+        final KeyLayout shape;
+        final KeyTable<Entry> buckets;
+        final TreeMap<Integer, Integer> priorities = new TreeMap<Integer, Integer>();
+        int size;
+
+        Tuple(KeyLayout shape) {
+            this.shape = shape;
+            this.buckets = new KeyTable<Entry>(shape.getWords());
+        }
+
+        int maxPriority() {
+            return priorities.isEmpty() ? -1 : priorities.lastKey();
+        }
+
+        void add(Entry entry) {
+            Entry head = buckets.get(entry.key, entry.hash);
+            if (head == null || entry.before(head)) {
+                entry.next = head;
+                buckets.put(entry.key, entry.hash, entry);
+            } else {
+                Entry prev = head;
+                while (prev.next != null && !entry.before(prev.next)) {
+                    prev = prev.next;
+                }
+                entry.next = prev.next;
+                prev.next = entry;
+            }
+            Integer count = priorities.get(entry.priority);
+            priorities.put(entry.priority, count == null ? 1 : count + 1);
+            size++;
+        }
+
+        void remove(Entry entry) {
+            Entry head = buckets.get(entry.key, entry.hash);
+            if (head == entry) {
+                if (entry.next == null) {
+                    buckets.remove(entry.key, entry.hash);
+                } else {
+                    buckets.put(entry.key, entry.hash, entry.next);
+                }
+            } else {
+                Entry prev = head;
+                while (prev != null && prev.next != entry) {
+                    prev = prev.next;
+                }
+                if (prev == null) {
+                    return;
+                }
+                prev.next = entry.next;
+            }
+            entry.next = null;
+            int count = priorities.get(entry.priority);
+            if (count == 1) {
+                priorities.remove(entry.priority);
+            } else {
+                priorities.put(entry.priority, count - 1);
+            }
+            size--;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.table.OFTableType;
+
+/**
+ * In-memory emulation of one switch flow table, with the lookup semantics
+ * of its {@link OFTableType}. Entries are identified by flow mod index.
+ * Create tables with {@link PofTables#create}.
+ *
+ */
+public interface PofTable {
+    /**
+     * Get the type of the emulated table.
+     * @return the table type
+     */
+    OFTableType getTableType();
+
+    /**
+     * Get the maximum number of entries.
+     * @return the capacity
+     */
+    int getCapacity();
+
+    /**
+     * Get the number of installed entries.
+     * @return the entry count
+     */
+    int size();
+
+    /**
+     * Install an entry, replacing the entry at the same index.
+     * @param flowMod
+     * @throws IllegalArgumentException if the entry does not fit the table
+     * @throws IllegalStateException if the table is full
+     */
+    void insert(OFFlowMod flowMod);
+
+    /**
+     * Remove the entry at the given index.
+     * @param index
+     * @return the removed flow mod, or null
+     */
+    OFFlowMod delete(int index);
+
+    /**
+     * Get the entry at the given index.
+     * @param index
+     * @return the flow mod, or null
+     */
+    OFFlowMod get(int index);
+
+    /**
+     * Find the entry a packet hits.
+     * @param packet packet, from its reader index
+     * @param metadata metadata, from its reader index; may be null
+     * @return the matching flow mod, or null on a table miss
+     */
+    OFFlowMod lookup(ChannelBuffer packet, ChannelBuffer metadata);
+
+    LatencyCounter getInsertLatency();
+
+    LatencyCounter getDeleteLatency();
+
+    LatencyCounter getLookupLatency();
+
+    /**
+     * Apply an OFPFC_ADD, OFPFC_MODIFY(_STRICT) or OFPFC_DELETE(_STRICT)
+     * flow mod.
+     * @param flowMod
+     */
+    default void apply(OFFlowMod flowMod) {
+        PofTables.apply(flowMod, this::insert, this::delete);
+    }
+}
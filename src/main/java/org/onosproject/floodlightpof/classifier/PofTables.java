@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.classifier;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.OFFlowMod.OFFlowEntryCmd;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTable;
+
+/**
+ * Creates the {@link PofTable} engine matching a flow table's type.
+ *
+ */
+public final class PofTables {
+
+    private PofTables() {
+    }
+
+    /**
+     * Create an empty table emulating the given flow table.
+     * @param table the table definition, as sent in an OFTableMod
+     * @return the table engine
+     */
+    public static PofTable create(OFFlowTable table) {
+        if (table.getTableType() == null) {
+            throw new IllegalArgumentException("Flow table " + table.getTableId() + " has no type");
+        }
+        switch (table.getTableType()) {
+            case OF_MM_TABLE:
+                return new MaskedMatchTable(table);
+            case OF_LPM_TABLE:
+                return new LongestPrefixMatchTable(table);
+            case OF_EM_TABLE:
+                return new ExactMatchTable(table);
+            case OF_LINEAR_TABLE:
+                return new LinearTable(table);
+            default:
+                throw new IllegalArgumentException("Unsupported table type: " + table.getTableType());
+        }
+    }
+
+    /**
+     * Dispatch a flow mod on its command: adds and modifies are inserted,
+     * deletes remove the entry at the flow mod's index.
+     * @param flowMod
+     * @param insert installs an entry
+     * @param delete removes the entry at an index
+     */
+    static void apply(OFFlowMod flowMod, Consumer<OFFlowMod> insert, IntConsumer delete) {
+        int command = flowMod.getCommand() & 0xff;
+        if (command >= OFFlowEntryCmd.values().length) {
+            throw new IllegalArgumentException("Unknown flow mod command: " + command);
+        }
+        switch (OFFlowEntryCmd.values()[command]) {
+            case OFPFC_ADD:
+            case OFPFC_MODIFY:
+            case OFPFC_MODIFY_STRICT:
+                insert.accept(flowMod);
+                break;
+            case OFPFC_DELETE:
+            case OFPFC_DELETE_STRICT:
+                delete.accept(flowMod.getIndex());
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onosproject.floodlightpof.protocol.action.OFAction;
+import org.onosproject.floodlightpof.protocol.action.OFActionType;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionApplyActions;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionType;
+import org.onosproject.floodlightpof.protocol.view.FlowModView;
+import org.onosproject.floodlightpof.util.U16;
+
+/**
+ * An {@link OFFlowMod} encoded once, from which flow mods differing in a few
+ * fields are produced by copying its bytes and patching them in place.
+ * <p>
+ * {@link #newMessage()} and {@link #appendTo} copy the encoded message with
+ * a fresh xid. The setters then patch one copy, given the buffer and the
+ * index the copy starts at: header fields, the value and mask of a match
+ * field, or the port of an output action. Offsets of other slots are
+ * available to patch them directly. Match fields and actions keep the
+ * slots, and so the lengths, of the flow mod the template was built from.
+ * <p>
+ * A template is immutable and may be shared between threads.
+ *
+ */
+public class FlowModTemplate {
+    // offset of the port id in an output action whose port is a value
+    private static final int OUTPUT_PORT_VALUE_TYPE = 4;
+    private static final int OUTPUT_PORT_ID = 12;
+
+    private final ChannelBuffer bytes;
+    private final int length;
+    private final int matchFieldNum;
+    private final short[] matchFieldLengths;
+    private final int[] instructionOffsets;
+    private final int[][] actionOffsets;
+
+    /**
+     * Encode a flow mod, in its own layout, as a template. The flow mod is
+     * not modified and not retained.
+     * @param flowMod
+     */
+    public FlowModTemplate(OFFlowMod flowMod) {
+        // writeTo updates lengths, compact flags and a missing xid, so encode a copy
+        OFFlowMod copy;
+        try {
+            copy = flowMod.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        // any non-zero xid keeps writeTo from drawing one from the allocator
+        copy.setXid(-1);
+        ChannelBuffer buffer = ChannelBuffers.buffer(copy.encodedLength());
+        copy.writeTo(buffer);
+        length = buffer.writerIndex();
+        // legacy messages may carry a stale header length
+        buffer.setShort(2, length);
+        buffer.setInt(4, 0);
+        bytes = ChannelBuffers.unmodifiableBuffer(buffer);
+
+        matchFieldNum = bytes.getByte(FlowModView.MATCH_FIELD_NUM);
+        matchFieldLengths = new short[matchFieldNum];
+        for (int i = 0; i < matchFieldNum; i++) {
+            matchFieldLengths[i] = bytes.getShort(matchFieldOffset(i) + 4);
+        }
+
+        boolean compact = copy.isCompact();
+        int instructionNum = bytes.getByte(FlowModView.INSTRUCTION_NUM);
+        instructionOffsets = new int[instructionNum];
+        actionOffsets = new int[instructionNum][];
+        int position = OFFlowMod.MINIMUM_LENGTH
+                + (compact ? matchFieldNum : OFGlobal.OFP_MAX_MATCH_FIELD_NUM) * OFMatchX.MINIMUM_LENGTH;
+        for (int i = 0; i < instructionNum; i++) {
+            instructionOffsets[i] = position;
+            actionOffsets[i] = new int[0];
+            if (bytes.getShort(position) == OFInstructionType.APPLY_ACTIONS.getTypeValue()) {
+                int actionNum = bytes.getByte(position + OFInstruction.MINIMUM_LENGTH);
+                actionOffsets[i] = new int[actionNum];
+                int action = position + OFInstructionApplyActions.MINIMUM_LENGTH;
+                for (int k = 0; k < actionNum; k++) {
+                    actionOffsets[i][k] = action;
+                    action += compact ? U16.f(bytes.getShort(action + 2)) : OFAction.MAXIMAL_LENGTH;
+                }
+            }
+            position += compact ? U16.f(bytes.getShort(position + 2)) : OFInstruction.MAXIMAL_LENGTH;
+        }
+    }
+
+    /**
+     * Get the length of every message produced.
+     * @return length in bytes
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Copy the template into a new buffer, with an xid from
+     * {@link OFMessage#getXidAllocator()}. The copy starts at index 0.
+     * @return the new message
+     */
+    public ChannelBuffer newMessage() {
+        ChannelBuffer buffer = ChannelBuffers.buffer(length);
+        appendTo(buffer);
+        return buffer;
+    }
+
+    /**
+     * Append a copy of the template, with an xid from
+     * {@link OFMessage#getXidAllocator()}.
+     * @param buffer
+     * @return the index the copy starts at
+     */
+    public int appendTo(ChannelBuffer buffer) {
+        int start = buffer.writerIndex();
+        buffer.writeBytes(bytes, 0, length);
+        buffer.setInt(start + 4, OFMessage.getXidAllocator().nextXid());
+        return start;
+    }
+
+    public void setXid(ChannelBuffer buffer, int start, int xid) {
+        buffer.setInt(start + 4, xid);
+    }
+
+    public void setCounterId(ChannelBuffer buffer, int start, int counterId) {
+        buffer.setInt(start + FlowModView.COUNTER_ID, counterId);
+    }
+
+    public void setCookie(ChannelBuffer buffer, int start, long cookie) {
+        buffer.setLong(start + FlowModView.COOKIE, cookie);
+    }
+
+    public void setIdleTimeout(ChannelBuffer buffer, int start, short idleTimeout) {
+        buffer.setShort(start + FlowModView.IDLE_TIMEOUT, idleTimeout);
+    }
+
+    public void setHardTimeout(ChannelBuffer buffer, int start, short hardTimeout) {
+        buffer.setShort(start + FlowModView.HARD_TIMEOUT, hardTimeout);
+    }
+
+    public void setPriority(ChannelBuffer buffer, int start, short priority) {
+        buffer.setShort(start + FlowModView.PRIORITY, priority);
+    }
+
+    public void setIndex(ChannelBuffer buffer, int start, int index) {
+        buffer.setInt(start + FlowModView.INDEX, index);
+    }
+
+    private int matchFieldOffset(int field) {
+        if (field < 0 || field >= matchFieldNum) {
+            throw new IndexOutOfBoundsException("match field " + field);
+        }
+        return OFFlowMod.MINIMUM_LENGTH + field * OFMatchX.MINIMUM_LENGTH;
+    }
+
+    /**
+     * Get the offset of the value of a match field in the message.
+     * @param field match field position
+     * @return offset from the start of the message
+     */
+    public int getMatchValueOffset(int field) {
+        return matchFieldOffset(field) + 8;
+    }
+
+    /**
+     * Get the offset of the mask of a match field in the message.
+     * @param field match field position
+     * @return offset from the start of the message
+     */
+    public int getMatchMaskOffset(int field) {
+        return matchFieldOffset(field) + 8 + OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE;
+    }
+
+    /**
+     * Overwrite the leading bytes of the value of a match field.
+     * @param buffer
+     * @param start
+     * @param field match field position
+     * @param value at most {@link OFGlobal#OFP_MAX_FIELD_LENGTH_IN_BYTE} bytes
+     */
+    public void setMatchValue(ChannelBuffer buffer, int start, int field, byte[] value) {
+        buffer.setBytes(start + getMatchValueOffset(field), checkFieldBytes(value));
+    }
+
+    /**
+     * Overwrite the leading bytes of the mask of a match field.
+     * @param buffer
+     * @param start
+     * @param field match field position
+     * @param mask at most {@link OFGlobal#OFP_MAX_FIELD_LENGTH_IN_BYTE} bytes
+     */
+    public void setMatchMask(ChannelBuffer buffer, int start, int field, byte[] mask) {
+        buffer.setBytes(start + getMatchMaskOffset(field), checkFieldBytes(mask));
+    }
+
+    /**
+     * Set the value of a match field of at most 64 bits, e.g. an address or
+     * a port, from the low order bits of a long, in network byte order.
+     * @param buffer
+     * @param start
+     * @param field match field position
+     * @param value
+     */
+    public void setMatchValue(ChannelBuffer buffer, int start, int field, long value) {
+        int offset = start + getMatchValueOffset(field);
+        int byteLength = (U16.f(matchFieldLengths[field]) + 7) / 8;
+        if (byteLength > 8) {
+            throw new IllegalArgumentException("Match field " + field + " is " + matchFieldLengths[field]
+                    + " bits long, wider than a long");
+        }
+        for (int i = byteLength - 1; i >= 0; i--) {
+            buffer.setByte(offset + i, (byte) value);
+            value >>>= 8;
+        }
+    }
+
+    private static byte[] checkFieldBytes(byte[] bytes) {
+        if (bytes.length > OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE) {
+            throw new IllegalArgumentException("Field of " + bytes.length + " bytes, at most "
+                    + OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE + " fit");
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the offset of an instruction in the message.
+     * @param instruction instruction position
+     * @return offset from the start of the message
+     */
+    public int getInstructionOffset(int instruction) {
+        if (instruction < 0 || instruction >= instructionOffsets.length) {
+            throw new IndexOutOfBoundsException("instruction " + instruction);
+        }
+        return instructionOffsets[instruction];
+    }
+
+    /**
+     * Get the offset of an action of an apply actions instruction.
+     * @param instruction instruction position
+     * @param action action position in the instruction
+     * @return offset from the start of the message
+     */
+    public int getActionOffset(int instruction, int action) {
+        getInstructionOffset(instruction);
+        int[] offsets = actionOffsets[instruction];
+        if (action < 0 || action >= offsets.length) {
+            throw new IndexOutOfBoundsException("action " + action + " of instruction " + instruction);
+        }
+        return offsets[action];
+    }
+
+    /**
+     * Set the port of an output action that outputs to a port id value.
+     * @param buffer
+     * @param start
+     * @param instruction instruction position
+     * @param action action position in the instruction
+     * @param portId
+     */
+    public void setOutputPort(ChannelBuffer buffer, int start, int instruction, int action, int portId) {
+        int offset = getActionOffset(instruction, action);
+        if (bytes.getShort(offset) != OFActionType.OUTPUT.getTypeValue()
+                || bytes.getByte(offset + OUTPUT_PORT_VALUE_TYPE) != 0) {
+            throw new IllegalArgumentException("Action " + action + " of instruction " + instruction
+                    + " is not an output to a port id value");
+        }
+        buffer.setInt(start + offset + OUTPUT_PORT_ID, portId);
+    }
+
+    @Override
+    public String toString() {
+        return "FlowModTemplate [length=" + length + ", matchFieldNum=" + matchFieldNum
+                + ", instructionNum=" + instructionOffsets.length + "]";
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+import org.onosproject.floodlightpof.protocol.statistics.OFStatistics;
+import org.onosproject.floodlightpof.protocol.statistics.OFStatisticsType;
+
+/**
+ * Reassembles multipart replies sent as several {@link OFMultipartReply}
+ * parts flagged {@code REPLY_MORE}.
+ * <p>
+ * A sequence is keyed by connection and xid. Each part's statistics are
+ * handed to the {@link MultipartHandler} as they arrive. If asked, they are
+ * also appended to one list per sequence, which is handed over once the last
+ * part arrives. Sequences that see no part for {@code timeoutMillis} are
+ * aborted, as is a sequence whose accumulated statistics would push its
+ * connection over {@code maxStatisticsPerConnection}. The remaining parts of
+ * an aborted sequence are dropped.
+ * <p>
+ * The connection type is left open, e.g. a Netty Channel or a switch id; it
+ * must implement equals and hashCode.
+ *
+ * @param <C> the connection type
+ */
+public class MultipartAssembler<C> {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+    public static final long DEFAULT_MAX_STATISTICS_PER_CONNECTION = 1 << 20;
+
+    /**
+     * Receives the statistics of one multipart sequence.
+     */
+    public interface MultipartHandler {
+        /**
+         * Called for every part, in arrival order.
+         * @param type statistics type of the sequence
+         * @param part the statistics of the part
+         */
+        void onPart(OFStatisticsType type, List<OFStatistics> part);
+
+        /**
+         * Called once the last part has arrived.
+         * @param type statistics type of the sequence
+         * @param statistics all statistics of the sequence, or null if the
+         *                   sequence was not accumulated
+         */
+        default void onComplete(OFStatisticsType type, List<OFStatistics> statistics) {
+        }
+
+        /**
+         * Called when the sequence is given up before its last part.
+         * @param reason why the sequence was aborted
+         */
+        default void onAbort(String reason) {
+        }
+    }
+
+    private final Timer timer;
+    private final long timeoutNanos;
+    private final long maxStatisticsPerConnection;
+    private final MultipartHandler defaultHandler;
+    private final boolean accumulateByDefault;
+
+    private final Map<Key<C>, Sequence> sequences = new ConcurrentHashMap<Key<C>, Sequence>();
+    private final Map<C, AtomicLong> pendingStatistics = new ConcurrentHashMap<C, AtomicLong>();
+
+    public MultipartAssembler(Timer timer) {
+        this(timer, DEFAULT_TIMEOUT_MILLIS, DEFAULT_MAX_STATISTICS_PER_CONNECTION, null, false);
+    }
+
+    /**
+     * @param timer timer used to expire abandoned sequences
+     * @param timeoutMillis idle time after which a sequence is aborted
+     * @param maxStatisticsPerConnection bound on the statistics accumulated
+     *                                   for one connection over all its sequences
+     * @param defaultHandler handler for sequences that were not announced
+     *                       with {@link #expect}, or null to ignore them
+     * @param accumulateByDefault whether sequences of the default handler
+     *                            are accumulated
+     */
+    public MultipartAssembler(Timer timer, long timeoutMillis, long maxStatisticsPerConnection,
+                              MultipartHandler defaultHandler, boolean accumulateByDefault) {
+        if (timer == null) {
+            throw new IllegalArgumentException("timer is null");
+        }
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeoutMillis must be positive: " + timeoutMillis);
+        }
+        if (maxStatisticsPerConnection <= 0) {
+            throw new IllegalArgumentException("maxStatisticsPerConnection must be positive: "
+                    + maxStatisticsPerConnection);
+        }
+        this.timer = timer;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.maxStatisticsPerConnection = maxStatisticsPerConnection;
+        this.defaultHandler = defaultHandler;
+        this.accumulateByDefault = accumulateByDefault;
+    }
+
+    /**
+     * Announce the reply to a multipart request, typically right after
+     * sending it. The timeout starts now.
+     * @param connection
+     * @param xid xid of the request
+     * @param handler receives the statistics
+     * @param accumulate whether to also collect all statistics into one list
+     * @throws IllegalStateException if a sequence is already pending for the xid
+     */
+    public void expect(C connection, int xid, MultipartHandler handler, boolean accumulate) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler is null");
+        }
+        Key<C> key = new Key<C>(connection, xid);
+        Sequence sequence = new Sequence(key, handler, accumulate);
+        if (sequences.putIfAbsent(key, sequence) != null) {
+            throw new IllegalStateException("Multipart sequence already pending for xid " + xid);
+        }
+        sequence.schedule(timeoutNanos);
+    }
+
+    /**
+     * Feed a received part.
+     * @param connection
+     * @param reply
+     * @return false if the part belongs to no announced sequence and there
+     *         is no default handler, true if it was consumed
+     */
+    public boolean receive(C connection, OFMultipartReply reply) {
+        Key<C> key = new Key<C>(connection, reply.getXid());
+        Sequence sequence = sequences.get(key);
+        if (sequence == null) {
+            if (defaultHandler == null) {
+                return false;
+            }
+            Sequence created = new Sequence(key, defaultHandler, accumulateByDefault);
+            sequence = sequences.putIfAbsent(key, created);
+            if (sequence == null) {
+                sequence = created;
+                sequence.schedule(timeoutNanos);
+            }
+        }
+        sequence.receive(reply);
+        return true;
+    }
+
+    /**
+     * Abort the sequence of an xid, e.g. when the request failed.
+     * @param connection
+     * @param xid
+     * @param reason passed to the handler
+     * @return true if a sequence was pending
+     */
+    public boolean cancel(C connection, int xid, String reason) {
+        Sequence sequence = sequences.get(new Key<C>(connection, xid));
+        return sequence != null && sequence.abort(reason, true);
+    }
+
+    /**
+     * Abort all sequences of a connection that went away.
+     * @param connection
+     */
+    public void connectionClosed(C connection) {
+        Iterator<Sequence> it = sequences.values().iterator();
+        while (it.hasNext()) {
+            Sequence sequence = it.next();
+            if (sequence.key.connection.equals(connection)) {
+                sequence.abort("connection closed", true);
+            }
+        }
+    }
+
+    /**
+     * Get the number of pending sequences, including aborted ones still
+     * dropping their parts.
+     * @return number of sequences
+     */
+    public int getPendingSequences() {
+        return sequences.size();
+    }
+
+    /**
+     * Get the number of statistics held for a connection.
+     * @param connection
+     * @return number of accumulated statistics
+     */
+    public long getPendingStatistics(C connection) {
+        AtomicLong count = pendingStatistics.get(connection);
+        return count == null ? 0 : count.get();
+    }
+
+    private boolean reserve(C connection, int count) {
+        AtomicLong pending = pendingStatistics.computeIfAbsent(connection, c -> new AtomicLong());
+        if (pending.addAndGet(count) > maxStatisticsPerConnection) {
+            release(connection, count);
+            return false;
+        }
+        return true;
+    }
+
+    private void release(C connection, int count) {
+        if (count > 0) {
+            pendingStatistics.computeIfPresent(connection, (c, pending) ->
+                    pending.addAndGet(-count) <= 0 ? null : pending);
+        }
+    }
+
+    private static final class Key<C> {
+        final C connection;
+        final int xid;
+
+        Key(C connection, int xid) {
+            this.connection = connection;
+            this.xid = xid;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * connection.hashCode() + xid;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key<?> other = (Key<?>) obj;
+            return xid == other.xid && connection.equals(other.connection);
+        }
+    }
+
+    private final class Sequence implements TimerTask {
+        final Key<C> key;
+        final MultipartHandler handler;
+        List<OFStatistics> statistics;
+        OFStatisticsType type;
+        boolean aborted;
+        volatile long lastActivity = System.nanoTime();
+        Timeout timeout;
+
+        Sequence(Key<C> key, MultipartHandler handler, boolean accumulate) {
+            this.key = key;
+            this.handler = handler;
+            this.statistics = accumulate ? new ArrayList<OFStatistics>() : null;
+        }
+
+        synchronized void schedule(long delayNanos) {
+            timeout = timer.newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        synchronized void receive(OFMultipartReply reply) {
+            lastActivity = System.nanoTime();
+            if (!reply.isReplyMore()) {
+                finish();
+            }
+            if (aborted) {
+                return;
+            }
+            List<OFStatistics> part = reply.getStatistics();
+            if (type == null) {
+                type = reply.getStatisticType();
+            } else if (type != reply.getStatisticType()) {
+                abort("statistics type changed from " + type + " to " + reply.getStatisticType(), false);
+                return;
+            }
+            if (part != null && !part.isEmpty()) {
+                if (statistics != null) {
+                    if (!reserve(key.connection, part.size())) {
+                        abort("more than " + maxStatisticsPerConnection + " statistics pending for "
+                                + key.connection, false);
+                        return;
+                    }
+                    statistics.addAll(part);
+                }
+                handler.onPart(type, part);
+            }
+            if (!reply.isReplyMore()) {
+                List<OFStatistics> all = statistics;
+                if (all != null) {
+                    release(key.connection, all.size());
+                }
+                statistics = null;
+                handler.onComplete(type, all);
+            }
+        }
+
+        /**
+         * Stop tracking the sequence.
+         */
+        private void finish() {
+            sequences.remove(key, this);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+        /**
+         * @param remove whether to forget the sequence right away, otherwise
+         *               it stays to drop its remaining parts until the last
+         *               one or the timeout
+         */
+        synchronized boolean abort(String reason, boolean remove) {
+            if (remove) {
+                finish();
+            }
+            if (aborted) {
+                return false;
+            }
+            aborted = true;
+            if (statistics != null) {
+                release(key.connection, statistics.size());
+                statistics = null;
+            }
+            handler.onAbort(reason);
+            return true;
+        }
+
+        @Override
+        public synchronized void run(Timeout fired) {
+            if (fired != timeout || fired.isCancelled()) {
+                return;
+            }
+            long idle = System.nanoTime() - lastActivity;
+            if (idle < timeoutNanos) {
+                schedule(timeoutNanos - idle);
+            } else {
+                abort("no part received for " + TimeUnit.NANOSECONDS.toMillis(idle) + " ms", true);
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ package org.onosproject.floodlightpof.protocol;
 
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.onosproject.floodlightpof.util.HexString;
+import org.onosproject.floodlightpof.util.U64;
 
 /**
  * OFCounter, used in OFCounterMod, OFCounterReply, OFCounterRequest.
@@ -65,18 +66,28 @@ public class OFCounter {
     }
 
     public String toBytesString() {
-        return HexString.toHex((byte) command.ordinal()) +
-                HexString.byteZeroEnd(3) +
-                HexString.toHex(counterId) +
-                HexString.toHex(counterValue) +
-                HexString.toHex(byteValue);
+        return appendBytesString(new StringBuilder()).toString();
+    }
+
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, (byte) command.ordinal());
+        HexString.appendByteZeroEnd(sb, 3);
+        HexString.appendHex(sb, counterId);
+        HexString.appendHex(sb, counterValue);
+        HexString.appendHex(sb, byteValue);
+        return sb;
     }
 
     public String toString() {
         return "cmd=" + command +
                 ";cid=" + counterId +
-                ";cvalue=" + counterValue +
-                ";bvalue=" + byteValue;
+                ";cvalue=" + U64.toString(counterValue) +
+                ";bvalue=" + U64.toString(byteValue);
     }
 
     public OFCounterModCmd getCommand() {
@@ -54,8 +54,11 @@ public class OFCounterMod extends OFMessage {
         counter.readFrom(data);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() + counter.toBytesString();
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        counter.appendBytesString(sb);
+        return sb;
     }
 
     public String toString() {
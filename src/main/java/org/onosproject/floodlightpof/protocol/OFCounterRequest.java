@@ -60,8 +60,11 @@ public class OFCounterRequest extends OFMessage {
         counter.writeTo(data);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() + counter.toBytesString();
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        counter.appendBytesString(sb);
+        return sb;
     }
 
     public String toString() {
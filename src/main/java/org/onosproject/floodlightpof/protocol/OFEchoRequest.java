@@ -61,6 +61,11 @@ public class OFEchoRequest extends OFMessage {
         this.payload = payload;
     }
 
+    @Override
+    public int encodedLength() {
+        return minimumLength + (payload == null ? 0 : payload.length);
+    }
+
     @Override
     public void writeTo(ChannelBuffer bb) {
         super.writeTo(bb);
@@ -465,11 +465,12 @@ public class OFError extends OFMessage implements OFMessageFactoryAware {
         if (offendingMsg == null) {
             super.setLengthU(minimumLength);
         } else {
-            this.error = new byte[offendingMsg.getLengthU()];
+            int offendingLength = offendingMsg.encodedLength();
+            this.error = new byte[offendingLength];
             ChannelBuffer data = ChannelBuffers.wrappedBuffer(this.error);
             data.writerIndex(0);
             offendingMsg.writeTo(data);
-            super.setLengthU(minimumLength + offendingMsg.getLengthU());
+            super.setLengthU(minimumLength + offendingLength);
         }
     }
 
@@ -536,6 +537,11 @@ public class OFError extends OFMessage implements OFMessageFactoryAware {
         data.readBytes(error);
     }
 
+    @Override
+    public int encodedLength() {
+        return maximalLength;
+    }
+
     @Override
     public void writeTo(ChannelBuffer data) {
         super.writeTo(data);
@@ -559,20 +565,21 @@ public class OFError extends OFMessage implements OFMessageFactoryAware {
         }
     }
 
-    public String toBytesString() {
-        String string = super.toBytesString();
-        string += HexString.toHex(errorType);
-        string += HexString.toHex(errorCode);
-        string += " ";
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, errorType);
+        HexString.appendHex(sb, errorCode);
+        sb.append(' ');
 
-        string += HexString.toHex(deviceId);
+        HexString.appendHex(sb, deviceId);
 
-        string += HexString.toHex(slotid);
-        string += HexString.byteZeroEnd(6);
+        HexString.appendHex(sb, slotid);
+        HexString.appendByteZeroEnd(sb, 6);
 
-        string += HexString.toHex(error);
+        HexString.appendHex(sb, error);
 
-        return string;
+        return sb;
     }
 
     public String toString() {
@@ -84,6 +84,11 @@ public class OFExperimenter extends OFMessage implements OFExperimenterDataFacto
                 data, super.getLengthU() - minimumLength);
     }
 
+    @Override
+    public int encodedLength() {
+        return minimumLength + (experimenterData == null ? 0 : experimenterData.getLength());
+    }
+
     @Override
     public void writeTo(ChannelBuffer data) {
         super.writeTo(data);
@@ -62,7 +62,8 @@ public class OFFeaturesReply extends OFMessage {
         OFPC_IP_REASM(1 << 5),
         OFPC_QUEUE_STATS(1 << 6),
         //OFPC_ARP_MATCH_IP   (1 << 7);
-        OFPC_PORT_BLOCKED(1 << 8);
+        OFPC_PORT_BLOCKED(1 << 8),
+        OFPC_COMPACT_ENCODING(1 << 9);      // accepts unpadded flow_mod, packet_in, packet_out
 
         protected int value;
 
@@ -110,6 +111,13 @@ public class OFFeaturesReply extends OFMessage {
         this.capabilities = capabilities;
     }
 
+    /**
+     * @return true if the switch accepts the compact (variable-length) encoding
+     */
+    public boolean supportsCompactEncoding() {
+        return (capabilities & OFCapabilities.OFPC_COMPACT_ENCODING.getValue()) != 0;
+    }
+
     public int getDeviceId() {
         return deviceId;
     }
@@ -198,25 +206,25 @@ public class OFFeaturesReply extends OFMessage {
         data.writeBytes(ParseString.nameStringToBytes(deviceLookupEngineName));
     }
 
-    public String toBytesString() {
-        String bytesString = super.toBytesString();
-
-        bytesString += HexString.toHex(deviceId);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
 
-        bytesString += HexString.toHex(slotid);
-        bytesString += HexString.toHex(portNum);
-        bytesString += " ";
+        HexString.appendHex(sb, deviceId);
 
-        bytesString += HexString.toHex(tableNum);
-        bytesString += HexString.byteZero(2);
-        bytesString += HexString.toHex(capabilities);
+        HexString.appendHex(sb, slotid);
+        HexString.appendHex(sb, portNum);
+        sb.append(' ');
 
-        bytesString += HexString.nameToHex(experimenterName);
-        bytesString += HexString.nameToHex(deviceForwardEngineName);
-        bytesString += HexString.nameToHex(deviceLookupEngineName);
+        HexString.appendHex(sb, tableNum);
+        HexString.appendByteZero(sb, 2);
+        HexString.appendHex(sb, capabilities);
 
+        HexString.appendNameHex(sb, experimenterName);
+        HexString.appendNameHex(sb, deviceForwardEngineName);
+        HexString.appendNameHex(sb, deviceLookupEngineName);
 
-        return bytesString;
+        return sb;
     }
 
     public String toString() {
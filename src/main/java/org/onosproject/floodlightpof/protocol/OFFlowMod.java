@@ -23,10 +23,13 @@ import java.util.List;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.onosproject.floodlightpof.protocol.factory.OFInstructionFactory;
 import org.onosproject.floodlightpof.protocol.factory.OFInstructionFactoryAware;
+import org.onosproject.floodlightpof.protocol.factory.OFObjectPool;
 import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionApplyActions;
 import org.onosproject.floodlightpof.protocol.table.OFTableType;
 import org.onosproject.floodlightpof.util.HexString;
 import org.onosproject.floodlightpof.util.U16;
+import org.onosproject.floodlightpof.util.U64;
 
 /**
  * Modified by Song Jian (jack.songjian@huawei.com), Huawei Technologies Co., Ltd.
@@ -94,9 +97,49 @@ public class OFFlowMod extends OFMessage implements OFInstructionFactoryAware, C
     }
 
     public int getLengthU() {
+        if (compact) {
+            return getCompactLength();
+        }
         return MAXIMAL_LENGTH;
     }
 
+    /**
+     * Get the length of this message in the compact layout.
+     * @return compact length
+     */
+    public int getCompactLength() {
+        checkEntryNum();
+
+        int compactLength = MINIMUM_LENGTH + matchFieldNum * OFMatchX.MINIMUM_LENGTH;
+        OFInstruction instruction;
+        for (int i = 0; i < instructionNum; i++) {
+            instruction = instructionList.get(i);
+            if (instruction == null) {
+                throw new RuntimeException("instruction " + i + " is null");
+            }
+            if (instruction instanceof OFInstructionApplyActions) {
+                compactLength += ((OFInstructionApplyActions) instruction).getCompactLength();
+            } else {
+                compactLength += instruction.encodedLength();
+            }
+        }
+        return compactLength;
+    }
+
+    private void checkEntryNum() {
+        if (matchFieldNum > OFGlobal.OFP_MAX_MATCH_FIELD_NUM
+                || matchFieldNum > (matchList == null ? 0 : matchList.size())) {
+            throw new RuntimeException("matchFieldNum " + matchFieldNum + " > matchList.size()"
+                    + (matchList == null ? 0 : matchList.size()));
+        }
+        if (instructionNum > OFGlobal.OFP_MAX_INSTRUCTION_NUM
+                || instructionNum > (instructionList == null ? 0 : instructionList.size())) {
+            throw new RuntimeException("instructionNum " + instructionNum + " > instructionList.size()"
+                    + (instructionList == null ? 0 : instructionList.size()));
+        }
+    }
+
+
     /**
      * Get cookie.
      * @return cookie
@@ -282,27 +325,52 @@ public class OFFlowMod extends OFMessage implements OFInstructionFactoryAware, C
         this.index = data.readInt();
         data.readBytes(4);
 
+        // a fully populated compact message is byte-identical to the legacy one
+        int lengthU = U16.f(this.length);
+        this.compact = lengthU < MAXIMAL_LENGTH;
+
         if (this.matchList == null) {
             this.matchList = new ArrayList<OFMatchX>();
-        } else {
-            this.matchList.clear();
         }
+        int matchNum = compact ? matchFieldNum : OFGlobal.OFP_MAX_MATCH_FIELD_NUM;
         OFMatchX matchX;
-        for (int i = 0; i < OFGlobal.OFP_MAX_MATCH_FIELD_NUM; i++) {
-            matchX = new OFMatchX();
-            matchX.readFrom(data);
-            this.matchList.add(matchX);
+        for (int i = 0; i < matchNum; i++) {
+            // reuse the entries of a recycled message
+            if (i < this.matchList.size() && this.matchList.get(i) != null) {
+                this.matchList.get(i).readFrom(data);
+            } else {
+                matchX = new OFMatchX();
+                matchX.readFrom(data);
+                if (i < this.matchList.size()) {
+                    this.matchList.set(i, matchX);
+                } else {
+                    this.matchList.add(matchX);
+                }
+            }
+        }
+        while (this.matchList.size() > matchNum) {
+            this.matchList.remove(this.matchList.size() - 1);
         }
 
         if (this.instructionFactory == null) {
             throw new RuntimeException("OFInstructionFactory not set");
         }
-        this.instructionList = this.instructionFactory.parseInstructions(data, OFGlobal
-                .OFP_MAX_INSTRUCTION_NUM * OFInstruction.MAXIMAL_LENGTH);
+        if (compact) {
+            this.instructionList = this.instructionFactory.parseInstructions(data,
+                    lengthU - MINIMUM_LENGTH - matchNum * OFMatchX.MINIMUM_LENGTH, instructionNum, true);
+        } else {
+            this.instructionList = this.instructionFactory.parseInstructions(data, OFGlobal
+                    .OFP_MAX_INSTRUCTION_NUM * OFInstruction.MAXIMAL_LENGTH, instructionNum, false);
+        }
     }
 
     @Override
     public void writeTo(ChannelBuffer data) {
+        if (compact) {
+            writeCompactTo(data);
+            return;
+        }
+
         super.writeTo(data);
 
         data.writeByte(this.command);
@@ -362,9 +430,15 @@ public class OFFlowMod extends OFMessage implements OFInstructionFactoryAware, C
                 if (instruction == null) {
                     data.writeZero(OFInstruction.MAXIMAL_LENGTH);
                 } else {
-                    instruction.writeTo(data);
-                    if (instruction.getLength() < OFInstruction.MAXIMAL_LENGTH) {
-                        data.writeZero(OFInstruction.MAXIMAL_LENGTH - instruction.getLength());
+                    int start = data.writerIndex();
+                    if (instruction instanceof OFInstructionApplyActions) {
+                        ((OFInstructionApplyActions) instruction).writeTo(data, false);
+                    } else {
+                        instruction.writeTo(data);
+                    }
+                    int written = data.writerIndex() - start;
+                    if (written < OFInstruction.MAXIMAL_LENGTH) {
+                        data.writeZero(OFInstruction.MAXIMAL_LENGTH - written);
                     }
                 }
             }
@@ -374,36 +448,108 @@ public class OFFlowMod extends OFMessage implements OFInstructionFactoryAware, C
         }
     }
 
+    /**
+     * Write only the populated match fields and instructions, each with its
+     * true length, and write the header length accordingly. The length of
+     * this message is not changed.
+     * @param data
+     */
+    protected void writeCompactTo(ChannelBuffer data) {
+        int start = data.writerIndex();
+        super.writeTo(data);
+        data.setShort(start + 2, getCompactLength());
+
+        data.writeByte(this.command);
+        data.writeByte(this.matchFieldNum);
+        data.writeByte(this.instructionNum);
+        data.writeZero(1);
+        data.writeInt(this.counterId);
+
+        data.writeLong(this.cookie);
+        data.writeLong(this.cookieMask);
+
+        data.writeByte(this.tableId);
+        data.writeByte(this.tableType.getValue());
+        data.writeShort(idleTimeout);
+        data.writeShort(hardTimeout);
+        data.writeShort(priority);
+
+        data.writeInt(index);
+        data.writeZero(4);
+
+        OFMatchX matchX;
+        for (int i = 0; i < matchFieldNum; i++) {
+            matchX = matchList.get(i);
+            if (matchX == null) {
+                data.writeZero(OFMatchX.MINIMUM_LENGTH);
+            } else {
+                matchX.writeTo(data);
+            }
+        }
+
+        OFInstruction instruction;
+        for (int i = 0; i < instructionNum; i++) {
+            instruction = instructionList.get(i);
+            if (instruction instanceof OFInstructionApplyActions) {
+                ((OFInstructionApplyActions) instruction).writeTo(data, true);
+            } else {
+                instruction.writeTo(data);
+            }
+        }
+    }
+
     @Override
-    public String toBytesString() {
-        String string = super.toBytesString();
+    protected void releaseChildren(OFObjectPool pool) {
+        pool.recycleInstructions(instructionList);
+        this.instructionList = null;
+    }
+
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+
+        HexString.appendHex(sb, command);
+        HexString.appendHex(sb, matchFieldNum);
+        HexString.appendHex(sb, instructionNum);
+        HexString.appendByteZeroEnd(sb, 1);
 
-        string += HexString.toHex(command);
-        string += HexString.toHex(matchFieldNum);
-        string += HexString.toHex(instructionNum);
-        string += HexString.byteZeroEnd(1);
+        HexString.appendHex(sb, counterId);
 
-        string += HexString.toHex(counterId);
+        HexString.appendHex(sb, cookie);
 
-        string += HexString.toHex(cookie);
+        HexString.appendHex(sb, cookieMask);
 
-        string += HexString.toHex(cookieMask);
+        HexString.appendHex(sb, tableId);
+        HexString.appendHex(sb, tableType.getValue());
+        HexString.appendHex(sb, idleTimeout);
+        sb.append(' ');
 
-        string += HexString.toHex(tableId);
-        string += HexString.toHex(tableType.getValue());
-        string += HexString.toHex(idleTimeout);
-        string += " ";
+        HexString.appendHex(sb, hardTimeout);
+        HexString.appendHex(sb, priority);
+        sb.append(' ');
 
-        string += HexString.toHex(hardTimeout);
-        string += HexString.toHex(priority);
-        string += " ";
+        HexString.appendHex(sb, index);
 
-        string += HexString.toHex(index);
+        HexString.appendByteZeroEnd(sb, 4);
 
-        string += HexString.byteZeroEnd(4);
+        if (compact) {
+            checkEntryNum();
+            for (int i = 0; i < matchFieldNum; i++) {
+                OFMatchX matchX = matchList.get(i);
+                if (matchX == null) {
+                    HexString.appendByteZeroEnd(sb, OFMatchX.MINIMUM_LENGTH);
+                } else {
+                    matchX.appendBytesString(sb);
+                }
+            }
+            for (int i = 0; i < instructionNum; i++) {
+                instructionList.get(i).appendBytesString(sb);
+            }
+            return sb;
+        }
 
         if (this.matchList == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_MATCH_FIELD_NUM * OFMatchX.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_MATCH_FIELD_NUM * OFMatchX.MINIMUM_LENGTH);
         } else {
             OFMatchX matchX;
 
@@ -415,18 +561,18 @@ public class OFFlowMod extends OFMessage implements OFInstructionFactoryAware, C
             for (; i < matchFieldNum && i < OFGlobal.OFP_MAX_MATCH_FIELD_NUM; i++) {
                 matchX = matchList.get(i);
                 if (matchX == null) {
-                    string += HexString.byteZeroEnd(OFMatchX.MINIMUM_LENGTH);
+                    HexString.appendByteZeroEnd(sb, OFMatchX.MINIMUM_LENGTH);
                 } else {
-                    string += matchX.toBytesString();
+                    matchX.appendBytesString(sb);
                 }
             }
             if (i < OFGlobal.OFP_MAX_MATCH_FIELD_NUM) {
-                string += HexString.byteZeroEnd((OFGlobal.OFP_MAX_MATCH_FIELD_NUM - i) * OFMatchX.MINIMUM_LENGTH);
+                HexString.appendByteZeroEnd(sb, (OFGlobal.OFP_MAX_MATCH_FIELD_NUM - i) * OFMatchX.MINIMUM_LENGTH);
             }
         }
 
         if (this.instructionList == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_INSTRUCTION_NUM * OFInstruction.MAXIMAL_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_INSTRUCTION_NUM * OFInstruction.MAXIMAL_LENGTH);
         } else {
             OFInstruction instruction;
 
@@ -439,21 +585,20 @@ public class OFFlowMod extends OFMessage implements OFInstructionFactoryAware, C
             for (; (i < instructionNum) && (i < OFGlobal.OFP_MAX_INSTRUCTION_NUM); i++) {
                 instruction = instructionList.get(i);
                 if (instruction == null) {
-                    string += HexString.byteZeroEnd(OFInstruction.MAXIMAL_LENGTH);
+                    HexString.appendByteZeroEnd(sb, OFInstruction.MAXIMAL_LENGTH);
                 } else {
-                    string += instruction.toBytesString();
+                    instruction.appendBytesString(sb);
                     if (instruction.getLength() < OFInstruction.MAXIMAL_LENGTH) {
-                        string += HexString.byteZeroEnd(OFInstruction.MAXIMAL_LENGTH - instruction.getLength());
+                        HexString.appendByteZeroEnd(sb, OFInstruction.MAXIMAL_LENGTH - instruction.getLength());
                     }
                 }
             }
             if (i < OFGlobal.OFP_MAX_INSTRUCTION_NUM) {
-                string += HexString.byteZeroEnd((OFGlobal.OFP_MAX_INSTRUCTION_NUM - i) * OFInstruction.MAXIMAL_LENGTH);
+                HexString.appendByteZeroEnd(sb, (OFGlobal.OFP_MAX_INSTRUCTION_NUM - i) * OFInstruction.MAXIMAL_LENGTH);
             }
         }
 
-        return string;
-
+        return sb;
     }
 
     @Override
@@ -464,8 +609,8 @@ public class OFFlowMod extends OFMessage implements OFInstructionFactoryAware, C
                     ";mfn=" + matchFieldNum +
                     ";isn=" + instructionNum +
                     ";cid=" + counterId +
-                    ";ck=" + cookie +
-                    ";ckm=" + cookieMask +
+                    ";ck=" + U64.toString(cookie) +
+                    ";ckm=" + U64.toString(cookieMask) +
                     ";tid=" + tableId +
                     ";tt=" + tableType +
                     ";it=" + idleTimeout +
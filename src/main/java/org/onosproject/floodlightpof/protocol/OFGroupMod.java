@@ -32,6 +32,7 @@ import org.jboss.netty.buffer.ChannelBuffer;
 import org.onosproject.floodlightpof.protocol.action.OFAction;
 import org.onosproject.floodlightpof.protocol.factory.OFActionFactory;
 import org.onosproject.floodlightpof.protocol.factory.OFActionFactoryAware;
+import org.onosproject.floodlightpof.protocol.factory.OFObjectPool;
 import org.onosproject.floodlightpof.util.HexString;
 import org.onosproject.floodlightpof.util.U16;
 
@@ -136,18 +137,25 @@ public class OFGroupMod extends OFMessage implements OFActionFactoryAware, Clone
         }
     }
 
-    public String toBytesString() {
-        String string = super.toString();
-        string += HexString.toHex(command) +
-                    HexString.toHex(groupType) +
-                    HexString.toHex(actionNum) +
-                    HexString.byteZeroEnd(1) +
-                    HexString.toHex(groupId) +
-                    HexString.toHex(counterId) +
-                    HexString.byteZeroEnd(4);
+    @Override
+    protected void releaseChildren(OFObjectPool pool) {
+        pool.recycleActions(actionList);
+        this.actionList = null;
+    }
+
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, command);
+        HexString.appendHex(sb, groupType);
+        HexString.appendHex(sb, actionNum);
+        HexString.appendByteZeroEnd(sb, 1);
+        HexString.appendHex(sb, groupId);
+        HexString.appendHex(sb, counterId);
+        HexString.appendByteZeroEnd(sb, 4);
 
         if (actionList == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_ACTION_NUMBER_PER_GROUP * OFAction.MAXIMAL_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_ACTION_NUMBER_PER_GROUP * OFAction.MAXIMAL_LENGTH);
         } else {
             OFAction action;
 
@@ -159,21 +167,21 @@ public class OFGroupMod extends OFMessage implements OFActionFactoryAware, Clone
             for (i = 0; i < actionNum && i < OFGlobal.OFP_MAX_ACTION_NUMBER_PER_GROUP; i++) {
                 action = actionList.get(i);
                 if (action == null) {
-                    string += HexString.byteZeroEnd(OFAction.MAXIMAL_LENGTH);
+                    HexString.appendByteZeroEnd(sb, OFAction.MAXIMAL_LENGTH);
                 } else {
-                    string += action.toBytesString();
+                    action.appendBytesString(sb);
                     if (action.getLength() < OFAction.MAXIMAL_LENGTH) {
-                        string += HexString.byteZeroEnd(OFAction.MAXIMAL_LENGTH - action.getLength());
+                        HexString.appendByteZeroEnd(sb, OFAction.MAXIMAL_LENGTH - action.getLength());
                     }
                 }
             }
             if (i < OFGlobal.OFP_MAX_ACTION_NUMBER_PER_GROUP) {
-                string += HexString.byteZeroEnd((OFGlobal
+                HexString.appendByteZeroEnd(sb, (OFGlobal
                         .OFP_MAX_ACTION_NUMBER_PER_GROUP - i) * OFAction.MAXIMAL_LENGTH);
             }
         }
 
-        return string;
+        return sb;
     }
 
     public String toString() {
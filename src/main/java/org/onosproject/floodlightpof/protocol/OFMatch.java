@@ -106,6 +106,20 @@ public class OFMatch implements Cloneable, Serializable {
     protected short transportSource;
     protected short transportDestination;
 
+    /* Extracted by loadFromPacket only; not carried in the ofp_match wire format. */
+    protected short dataLayerInnerVirtualLan;
+    protected byte dataLayerInnerVirtualLanPriorityCodePoint;
+    protected int mplsLabel;
+    protected byte mplsTrafficClass;
+    protected byte mplsStackDepth;
+    protected long networkSourceV6High;
+    protected long networkSourceV6Low;
+    protected long networkDestinationV6High;
+    protected long networkDestinationV6Low;
+    protected int networkFlowLabel;
+
+    private static final int MAX_IPV6_EXTENSION_HEADERS = 8;
+
     /**
      * By default, create a OFMatch that matches everything.
      *
@@ -125,6 +139,7 @@ public class OFMatch implements Cloneable, Serializable {
         this.networkDestination = 0;
         this.transportDestination = 0;
         this.transportSource = 0;
+        this.dataLayerInnerVirtualLan = -1;
     }
 
     /**
@@ -445,6 +460,226 @@ public class OFMatch implements Cloneable, Serializable {
         return this;
     }
 
+    /**
+     * Get the inner (customer) VLAN id of a QinQ tagged packet.
+     *
+     * Only set by loadFromPacket; not part of the ofp_match wire format.
+     *
+     * @return the inner vlan id, or 0xffff if the packet had no inner tag
+     */
+    public short getDataLayerInnerVirtualLan() {
+        return this.dataLayerInnerVirtualLan;
+    }
+
+    /**
+     * Set the inner (customer) VLAN id.
+     *
+     * @param dataLayerInnerVirtualLan
+     */
+    public OFMatch setDataLayerInnerVirtualLan(short dataLayerInnerVirtualLan) {
+        this.dataLayerInnerVirtualLan = dataLayerInnerVirtualLan;
+        return this;
+    }
+
+    /**
+     * Get the inner (customer) VLAN priority of a QinQ tagged packet.
+     *
+     * @return the inner vlan pcp
+     */
+    public byte getDataLayerInnerVirtualLanPriorityCodePoint() {
+        return this.dataLayerInnerVirtualLanPriorityCodePoint;
+    }
+
+    /**
+     * Set the inner (customer) VLAN priority.
+     *
+     * @param pcp
+     */
+    public OFMatch setDataLayerInnerVirtualLanPriorityCodePoint(byte pcp) {
+        this.dataLayerInnerVirtualLanPriorityCodePoint = pcp;
+        return this;
+    }
+
+    /**
+     * Get the label of the outermost MPLS label stack entry.
+     *
+     * Only set by loadFromPacket; not part of the ofp_match wire format.
+     *
+     * @return the 20 bit mpls label
+     */
+    public int getMplsLabel() {
+        return this.mplsLabel;
+    }
+
+    /**
+     * Set the outermost MPLS label.
+     *
+     * @param mplsLabel
+     */
+    public OFMatch setMplsLabel(int mplsLabel) {
+        this.mplsLabel = mplsLabel;
+        return this;
+    }
+
+    /**
+     * Get the traffic class of the outermost MPLS label stack entry.
+     *
+     * @return the 3 bit mpls traffic class
+     */
+    public byte getMplsTrafficClass() {
+        return this.mplsTrafficClass;
+    }
+
+    /**
+     * Set the outermost MPLS traffic class.
+     *
+     * @param mplsTrafficClass
+     */
+    public OFMatch setMplsTrafficClass(byte mplsTrafficClass) {
+        this.mplsTrafficClass = mplsTrafficClass;
+        return this;
+    }
+
+    /**
+     * Get the number of MPLS label stack entries seen in the packet.
+     *
+     * @return the mpls label stack depth
+     */
+    public byte getMplsStackDepth() {
+        return this.mplsStackDepth;
+    }
+
+    /**
+     * Set the number of MPLS label stack entries.
+     *
+     * @param mplsStackDepth
+     */
+    public OFMatch setMplsStackDepth(byte mplsStackDepth) {
+        this.mplsStackDepth = mplsStackDepth;
+        return this;
+    }
+
+    /**
+     * Get the upper 64 bits of the IPv6 source address.
+     *
+     * Only set by loadFromPacket; not part of the ofp_match wire format.
+     *
+     * @return the upper half of the ipv6 source
+     */
+    public long getNetworkSourceV6High() {
+        return this.networkSourceV6High;
+    }
+
+    /**
+     * Get the lower 64 bits of the IPv6 source address.
+     *
+     * @return the lower half of the ipv6 source
+     */
+    public long getNetworkSourceV6Low() {
+        return this.networkSourceV6Low;
+    }
+
+    /**
+     * Set the IPv6 source address.
+     *
+     * @param high the upper 64 bits
+     * @param low the lower 64 bits
+     */
+    public OFMatch setNetworkSourceV6(long high, long low) {
+        this.networkSourceV6High = high;
+        this.networkSourceV6Low = low;
+        return this;
+    }
+
+    /**
+     * Set the upper 64 bits of the IPv6 source address.
+     *
+     * @param high the upper 64 bits
+     */
+    public OFMatch setNetworkSourceV6High(long high) {
+        this.networkSourceV6High = high;
+        return this;
+    }
+
+    /**
+     * Set the lower 64 bits of the IPv6 source address.
+     *
+     * @param low the lower 64 bits
+     */
+    public OFMatch setNetworkSourceV6Low(long low) {
+        this.networkSourceV6Low = low;
+        return this;
+    }
+
+    /**
+     * Get the upper 64 bits of the IPv6 destination address.
+     *
+     * @return the upper half of the ipv6 destination
+     */
+    public long getNetworkDestinationV6High() {
+        return this.networkDestinationV6High;
+    }
+
+    /**
+     * Get the lower 64 bits of the IPv6 destination address.
+     *
+     * @return the lower half of the ipv6 destination
+     */
+    public long getNetworkDestinationV6Low() {
+        return this.networkDestinationV6Low;
+    }
+
+    /**
+     * Set the IPv6 destination address.
+     *
+     * @param high the upper 64 bits
+     * @param low the lower 64 bits
+     */
+    public OFMatch setNetworkDestinationV6(long high, long low) {
+        this.networkDestinationV6High = high;
+        this.networkDestinationV6Low = low;
+        return this;
+    }
+
+    /**
+     * Set the upper 64 bits of the IPv6 destination address.
+     *
+     * @param high the upper 64 bits
+     */
+    public OFMatch setNetworkDestinationV6High(long high) {
+        this.networkDestinationV6High = high;
+        return this;
+    }
+
+    /**
+     * Set the lower 64 bits of the IPv6 destination address.
+     *
+     * @param low the lower 64 bits
+     */
+    public OFMatch setNetworkDestinationV6Low(long low) {
+        this.networkDestinationV6Low = low;
+        return this;
+    }
+
+    /**
+     * Get the IPv6 flow label.
+     *
+     * @return the 20 bit flow label
+     */
+    public int getNetworkFlowLabel() {
+        return this.networkFlowLabel;
+    }
+
+    /**
+     * Set the IPv6 flow label.
+     *
+     * @param networkFlowLabel
+     */
+    public OFMatch setNetworkFlowLabel(int networkFlowLabel) {
+        this.networkFlowLabel = networkFlowLabel;
+        return this;
+    }
+
     /**
      * Initializes this OFMatch structure with the corresponding data from the
      * specified packet.
@@ -461,10 +696,53 @@ public class OFMatch implements Cloneable, Serializable {
      *            the port the packet arrived on
      */
     public OFMatch loadFromPacket(byte[] packetData, short inPutPort) {
+        return loadFromPacket(ARRAY_ACCESSOR, packetData, 0, packetData.length, inPutPort);
+    }
+
+    /**
+     * Initializes this OFMatch structure from the packet found at
+     * [offset, offset + length) of the specified buffer, without moving its
+     * reader index. The MAC address arrays already held by this OFMatch are
+     * overwritten in place, so the call does not allocate.
+     *
+     * @param packetData
+     *            buffer holding the packet
+     * @param offset
+     *            absolute index of the first byte of the ethernet header
+     * @param length
+     *            number of packet bytes available
+     * @param inPutPort
+     *            the port the packet arrived on
+     */
+    public OFMatch loadFromPacket(ChannelBuffer packetData, int offset, int length, short inPutPort) {
+        return loadFromPacket(CHANNEL_BUFFER_ACCESSOR, packetData, offset, length, inPutPort);
+    }
+
+    /**
+     * Initializes this OFMatch structure from the packet found at
+     * [offset, offset + length) of the specified buffer, without moving its
+     * position. The MAC address arrays already held by this OFMatch are
+     * overwritten in place, so the call does not allocate.
+     *
+     * @param packetData
+     *            buffer holding the packet
+     * @param offset
+     *            absolute index of the first byte of the ethernet header
+     * @param length
+     *            number of packet bytes available
+     * @param inPutPort
+     *            the port the packet arrived on
+     */
+    public OFMatch loadFromPacket(ByteBuffer packetData, int offset, int length, short inPutPort) {
+        return loadFromPacket(BYTE_BUFFER_ACCESSOR, packetData, offset, length, inPutPort);
+    }
+
+    private OFMatch loadFromPacket(PacketAccessor in, Object packetData, int offset, int length,
+                                   short inPutPort) {
+        int limit = offset + length;
+        int pos = offset;
+        int transportOffset = -1;
         short scratch;
-        int transportOffset = 34;
-        ByteBuffer packetDataBB = ByteBuffer.wrap(packetData);
-        int limit = packetDataBB.limit();
 
         this.wildcards = 0; // all fields have explicit entries
 
@@ -474,105 +752,293 @@ public class OFMatch implements Cloneable, Serializable {
             this.wildcards |= OFPFW_IN_PORT;
         }
 
-        assert (limit >= 14);
+        this.dataLayerVirtualLan = (short) 0xffff;
+        this.dataLayerVirtualLanPriorityCodePoint = 0;
+        this.dataLayerInnerVirtualLan = (short) 0xffff;
+        this.dataLayerInnerVirtualLanPriorityCodePoint = 0;
+        this.dataLayerType = 0;
+        this.networkTypeOfService = 0;
+        this.networkProtocol = 0;
+        this.networkSource = 0;
+        this.networkDestination = 0;
+        this.networkSourceV6High = 0;
+        this.networkSourceV6Low = 0;
+        this.networkDestinationV6High = 0;
+        this.networkDestinationV6Low = 0;
+        this.networkFlowLabel = 0;
+        this.mplsLabel = 0;
+        this.mplsTrafficClass = 0;
+        this.mplsStackDepth = 0;
+        this.transportSource = 0;
+        this.transportDestination = 0;
+
+        if (this.dataLayerDestination == null || this.dataLayerDestination.length != 6) {
+            this.dataLayerDestination = new byte[6];
+        }
+        if (this.dataLayerSource == null || this.dataLayerSource.length != 6) {
+            this.dataLayerSource = new byte[6];
+        }
+        if (limit - pos < 14) {
+            Arrays.fill(this.dataLayerDestination, (byte) 0);
+            Arrays.fill(this.dataLayerSource, (byte) 0);
+            return this;
+        }
         // dl dst
-        this.dataLayerDestination = new byte[6];
-        packetDataBB.get(this.dataLayerDestination);
+        for (int i = 0; i < 6; i++) {
+            this.dataLayerDestination[i] = in.get(packetData, pos + i);
+        }
         // dl src
-        this.dataLayerSource = new byte[6];
-        packetDataBB.get(this.dataLayerSource);
+        for (int i = 0; i < 6; i++) {
+            this.dataLayerSource[i] = in.get(packetData, pos + 6 + i);
+        }
         // dl type
-        this.dataLayerType = packetDataBB.getShort();
-
-        if (getDataLayerType() != (short) 0x8100) { // need cast to avoid signed
-            // bug
-            setDataLayerVirtualLan((short) 0xffff);
-            setDataLayerVirtualLanPriorityCodePoint((byte) 0);
-        } else {
-            // has vlan tag
-            scratch = packetDataBB.getShort();
-            setDataLayerVirtualLan((short) (0xfff & scratch));
-            setDataLayerVirtualLanPriorityCodePoint((byte) ((0xe000 & scratch) >> 13));
-            this.dataLayerType = packetDataBB.getShort();
+        this.dataLayerType = in.getShort(packetData, pos + 12);
+        pos += 14;
+
+        // outer (service or customer) tag; its vid is the one matched as dl_vlan
+        if (isVlanType(this.dataLayerType) && limit - pos >= 4) {
+            scratch = in.getShort(packetData, pos);
+            this.dataLayerVirtualLan = (short) (0xfff & scratch);
+            this.dataLayerVirtualLanPriorityCodePoint = (byte) ((0xe000 & scratch) >> 13);
+            this.dataLayerType = in.getShort(packetData, pos + 2);
+            pos += 4;
+            // QinQ inner (customer) tag
+            if (this.dataLayerType == (short) 0x8100 && limit - pos >= 4) {
+                scratch = in.getShort(packetData, pos);
+                this.dataLayerInnerVirtualLan = (short) (0xfff & scratch);
+                this.dataLayerInnerVirtualLanPriorityCodePoint = (byte) ((0xe000 & scratch) >> 13);
+                this.dataLayerType = in.getShort(packetData, pos + 2);
+                pos += 4;
+            }
         }
 
-        switch (getDataLayerType()) {
+        switch (this.dataLayerType) {
         case 0x0800:
             // ipv4
-            // check packet length
-            scratch = packetDataBB.get();
-            scratch = (short) (0xf & scratch);
-            transportOffset = (packetDataBB.position() - 1) + (scratch * 4);
+            if (limit - pos < 20) {
+                break;
+            }
+            scratch = in.get(packetData, pos);
+            transportOffset = pos + (0xf & scratch) * 4;
             // nw tos (dscp)
-            scratch = packetDataBB.get();
+            scratch = in.get(packetData, pos + 1);
             setNetworkTypeOfService((byte) ((0xfc & scratch) >> 2));
             // nw protocol
-            packetDataBB.position(packetDataBB.position() + 7);
-            this.networkProtocol = packetDataBB.get();
+            this.networkProtocol = in.get(packetData, pos + 9);
             // nw src
-            packetDataBB.position(packetDataBB.position() + 2);
-            this.networkSource = packetDataBB.getInt();
+            this.networkSource = in.getInt(packetData, pos + 12);
             // nw dst
-            this.networkDestination = packetDataBB.getInt();
-            packetDataBB.position(transportOffset);
+            this.networkDestination = in.getInt(packetData, pos + 16);
+            break;
+        case (short) 0x86dd:
+            // ipv6
+            if (limit - pos < 40) {
+                break;
+            }
+            int versionClassLabel = in.getInt(packetData, pos);
+            // nw tos (dscp of the traffic class)
+            setNetworkTypeOfService((byte) ((versionClassLabel >>> 22) & 0x3f));
+            this.networkFlowLabel = versionClassLabel & 0xfffff;
+            this.networkSourceV6High = in.getLong(packetData, pos + 8);
+            this.networkSourceV6Low = in.getLong(packetData, pos + 16);
+            this.networkDestinationV6High = in.getLong(packetData, pos + 24);
+            this.networkDestinationV6Low = in.getLong(packetData, pos + 32);
+            transportOffset = skipIpv6ExtensionHeaders(in, packetData, pos + 40, limit,
+                                                       in.get(packetData, pos + 6));
             break;
         case 0x0806:
             // arp
-            int arpPos = packetDataBB.position();
+            if (limit - pos < 28) {
+                break;
+            }
             // opcode
-            scratch = packetDataBB.getShort(arpPos + 6);
-            setNetworkProtocol((byte) (0xff & scratch));
+            scratch = in.getShort(packetData, pos + 6);
+            this.networkProtocol = (byte) (0xff & scratch);
 
-            scratch = packetDataBB.getShort(arpPos + 2);
+            scratch = in.getShort(packetData, pos + 2);
             // if ipv4 and addr len is 4
-            if (scratch == 0x800 && packetDataBB.get(arpPos + 5) == 4) {
+            if (scratch == 0x800 && in.get(packetData, pos + 5) == 4) {
                 // nw src
-                this.networkSource = packetDataBB.getInt(arpPos + 14);
+                this.networkSource = in.getInt(packetData, pos + 14);
                 // nw dst
-                this.networkDestination = packetDataBB.getInt(arpPos + 24);
-            } else {
-                setNetworkSource(0);
-                setNetworkDestination(0);
+                this.networkDestination = in.getInt(packetData, pos + 24);
             }
             break;
+        case (short) 0x8847:
+        case (short) 0x8848:
+            // mpls unicast/multicast; the outermost entry is the one matched
+            if (limit - pos < 4) {
+                break;
+            }
+            int entry = in.getInt(packetData, pos);
+            this.mplsLabel = entry >>> 12;
+            this.mplsTrafficClass = (byte) ((entry >> 9) & 0x7);
+            byte depth = 1;
+            while ((entry & 0x100) == 0 && limit - pos >= 8 && depth < Byte.MAX_VALUE) {
+                pos += 4;
+                entry = in.getInt(packetData, pos);
+                depth++;
+            }
+            this.mplsStackDepth = depth;
+            break;
         default:
-            setNetworkTypeOfService((byte) 0);
-            setNetworkProtocol((byte) 0);
-            setNetworkSource(0);
-            setNetworkDestination(0);
             break;
         }
 
-        switch (getNetworkProtocol()) {
+        if (transportOffset < 0) {
+            return this;
+        }
+        switch (this.networkProtocol) {
         case 0x01:
-            // icmp
-            // type
-            this.transportSource = U8.f(packetDataBB.get());
-            // code
-            this.transportDestination = U8.f(packetDataBB.get());
+        case 0x3a:
+            // icmp / icmpv6
+            if (limit - transportOffset >= 2) {
+                // type
+                this.transportSource = U8.f(in.get(packetData, transportOffset));
+                // code
+                this.transportDestination = U8.f(in.get(packetData, transportOffset + 1));
+            }
             break;
         case 0x06:
-            // tcp
-            // tcp src
-            this.transportSource = packetDataBB.getShort();
-            // tcp dest
-            this.transportDestination = packetDataBB.getShort();
-            break;
         case 0x11:
-            // udp
-            // udp src
-            this.transportSource = packetDataBB.getShort();
-            // udp dest
-            this.transportDestination = packetDataBB.getShort();
+            // tcp / udp
+            if (limit - transportOffset >= 4) {
+                // src port
+                this.transportSource = in.getShort(packetData, transportOffset);
+                // dst port
+                this.transportDestination = in.getShort(packetData, transportOffset + 2);
+            }
             break;
         default:
-            setTransportDestination((short) 0);
-            setTransportSource((short) 0);
             break;
         }
         return this;
     }
 
+    private static boolean isVlanType(short etherType) {
+        return etherType == (short) 0x8100 || etherType == (short) 0x88a8
+                || etherType == (short) 0x9100;
+    }
+
+    /**
+     * Walks the IPv6 extension header chain starting at pos and leaves the
+     * upper layer protocol in networkProtocol.
+     *
+     * @return offset of the upper layer header, or -1 if it is not reachable
+     *         (truncated packet or non-first fragment)
+     */
+    private int skipIpv6ExtensionHeaders(PacketAccessor in, Object packetData, int pos, int limit,
+                                         byte nextHeader) {
+        for (int i = 0; i < MAX_IPV6_EXTENSION_HEADERS; i++) {
+            switch (nextHeader) {
+            case 0:     // hop-by-hop options
+            case 43:    // routing
+            case 60:    // destination options
+                if (limit - pos < 8) {
+                    return -1;
+                }
+                int optionsLength = (U8.f(in.get(packetData, pos + 1)) + 1) * 8;
+                nextHeader = in.get(packetData, pos);
+                pos += optionsLength;
+                break;
+            case 44:    // fragment
+                if (limit - pos < 8) {
+                    return -1;
+                }
+                nextHeader = in.get(packetData, pos);
+                this.networkProtocol = nextHeader;
+                if ((in.getShort(packetData, pos + 2) & 0xfff8) != 0) {
+                    return -1;
+                }
+                pos += 8;
+                break;
+            case 51:    // authentication header
+                if (limit - pos < 8) {
+                    return -1;
+                }
+                int authLength = (U8.f(in.get(packetData, pos + 1)) + 2) * 4;
+                nextHeader = in.get(packetData, pos);
+                pos += authLength;
+                break;
+            default:
+                this.networkProtocol = nextHeader;
+                return pos;
+            }
+        }
+        this.networkProtocol = nextHeader;
+        return -1;
+    }
+
+    /**
+     * Absolute network order reads over the supported packet holders, so
+     * loadFromPacket parses every one of them with the same code and
+     * without wrapping the packet first.
+     */
+    private abstract static class PacketAccessor {
+        abstract byte get(Object data, int index);
+
+        short getShort(Object data, int index) {
+            return (short) ((get(data, index) << 8) | (get(data, index + 1) & 0xff));
+        }
+
+        int getInt(Object data, int index) {
+            return (getShort(data, index) << 16) | (getShort(data, index + 2) & 0xffff);
+        }
+
+        long getLong(Object data, int index) {
+            return ((long) getInt(data, index) << 32) | (getInt(data, index + 4) & 0xffffffffL);
+        }
+    }
+
+    private static final PacketAccessor ARRAY_ACCESSOR = new PacketAccessor() {
+        @Override
+        byte get(Object data, int index) {
+            return ((byte[]) data)[index];
+        }
+
+        @Override
+        short getShort(Object data, int index) {
+            byte[] b = (byte[]) data;
+            return (short) ((b[index] << 8) | (b[index + 1] & 0xff));
+        }
+
+        @Override
+        int getInt(Object data, int index) {
+            byte[] b = (byte[]) data;
+            return (b[index] << 24) | ((b[index + 1] & 0xff) << 16)
+                    | ((b[index + 2] & 0xff) << 8) | (b[index + 3] & 0xff);
+        }
+    };
+
+    private static final PacketAccessor CHANNEL_BUFFER_ACCESSOR = new PacketAccessor() {
+        @Override
+        byte get(Object data, int index) {
+            return ((ChannelBuffer) data).getByte(index);
+        }
+
+        @Override
+        short getShort(Object data, int index) {
+            return ((ChannelBuffer) data).getShort(index);
+        }
+
+        @Override
+        int getInt(Object data, int index) {
+            return ((ChannelBuffer) data).getInt(index);
+        }
+
+        @Override
+        long getLong(Object data, int index) {
+            return ((ChannelBuffer) data).getLong(index);
+        }
+    };
+
+    private static final PacketAccessor BYTE_BUFFER_ACCESSOR = new PacketAccessor() {
+        @Override
+        byte get(Object data, int index) {
+            return ((ByteBuffer) data).get(index);
+        }
+    };
+
     /**
      * Read this message off the wire from the specified ByteBuffer.
      *
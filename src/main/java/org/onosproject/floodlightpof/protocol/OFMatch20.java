@@ -66,10 +66,20 @@ public class OFMatch20 implements Cloneable {
     }
 
     public String toBytesString() {
-        return HexString.toHex(fieldId) +
-                HexString.toHex(offset) +
-                HexString.toHex(length) +
-                HexString.byteZeroEnd(2);
+        return appendBytesString(new StringBuilder()).toString();
+    }
+
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, fieldId);
+        HexString.appendHex(sb, offset);
+        HexString.appendHex(sb, length);
+        HexString.appendByteZeroEnd(sb, 2);
+        return sb;
     }
 
     public String toString() {
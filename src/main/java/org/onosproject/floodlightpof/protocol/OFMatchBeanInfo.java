@@ -38,9 +38,20 @@ import java.util.List;
  */
 
 public class OFMatchBeanInfo extends SimpleBeanInfo {
+    // the descriptors only depend on the OFMatch class, build them once
+    private static volatile PropertyDescriptor[] descriptors;
 
     @Override
     public PropertyDescriptor[] getPropertyDescriptors() {
+        PropertyDescriptor[] descs = descriptors;
+        if (descs == null) {
+            descs = buildPropertyDescriptors();
+            descriptors = descs;
+        }
+        return descs.clone();
+    }
+
+    private PropertyDescriptor[] buildPropertyDescriptors() {
         List<PropertyDescriptor> descs = new LinkedList<PropertyDescriptor>();
         Field[] fields = OFMatch.class.getDeclaredFields();
         String name;
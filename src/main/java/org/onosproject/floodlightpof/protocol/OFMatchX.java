@@ -66,18 +66,33 @@ public class OFMatchX implements Cloneable {
     }
 
     public void readFrom(ChannelBuffer data) {
+        this.fieldName = null;
         this.fieldId = data.readShort();
         this.offset  = data.readShort();
         this.length  = data.readShort();
         data.readShort();
 
-        value = new byte[OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE];
+        // keep the arrays of a recycled match
+        if (value == null || value.length != OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE) {
+            value = new byte[OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE];
+        }
         data.readBytes(value);
 
-        mask = new byte[OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE];
+        if (mask == null || mask.length != OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE) {
+            mask = new byte[OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE];
+        }
         data.readBytes(mask);
     }
 
+    /**
+     * Get the number of bytes writeTo writes, value and mask always take
+     * {@link OFGlobal#OFP_MAX_FIELD_LENGTH_IN_BYTE} bytes each.
+     * @return encoded length in bytes
+     */
+    public int encodedLength() {
+        return MINIMUM_LENGTH;
+    }
+
     public void writeTo(ChannelBuffer data) {
         data.writeShort(fieldId);
         data.writeShort(offset);
@@ -110,42 +125,45 @@ public class OFMatchX implements Cloneable {
     }
 
     public String toBytesString() {
-        String string = HexString.toHex(fieldId) +
-                        HexString.toHex(offset) +
-                        HexString.toHex(length) +
-                        HexString.byteZeroEnd(2);
+        return appendBytesString(new StringBuilder()).toString();
+    }
 
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, fieldId);
+        HexString.appendHex(sb, offset);
+        HexString.appendHex(sb, length);
+        HexString.appendByteZeroEnd(sb, 2);
 
         if (value == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
         } else {
             if (value.length > OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE) {
-                string += HexString.toHex(value, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
-                string += HexString.zeroEnd(0);
+                HexString.appendHex(sb, value, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+                HexString.appendZeroEnd(sb, 0);
             } else {
-                //string += HexString.ZeroEnd(0);
-                string += HexString.toHex(value);
-                //string += HexString.ZeroEnd(0);
-                string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - value.length);
+                HexString.appendHex(sb, value);
+                HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - value.length);
             }
         }
 
         if (mask == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
         } else {
             if (mask.length > OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE) {
-                string += HexString.toHex(mask, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
-                string += HexString.zeroEnd(0);
+                HexString.appendHex(sb, mask, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+                HexString.appendZeroEnd(sb, 0);
             } else {
-                //string += HexString.ZeroEnd(0);
-                string += HexString.toHex(mask);
-                //string += HexString.ZeroEnd(0);
-                string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - mask.length);
+                HexString.appendHex(sb, mask);
+                HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - mask.length);
             }
         }
 
-        return string;
-
+        return sb;
     }
 
     public String toString() {
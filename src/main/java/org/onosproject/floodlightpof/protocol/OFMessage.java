@@ -18,6 +18,7 @@
 package org.onosproject.floodlightpof.protocol;
 
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.factory.OFObjectPool;
 import org.onosproject.floodlightpof.util.HexString;
 import org.onosproject.floodlightpof.util.U16;
 import org.onosproject.floodlightpof.util.U32;
@@ -36,18 +37,32 @@ import java.util.concurrent.ConcurrentHashMap;
  * equivalent of the ofp_header which is present in all OpenFlow messages.
  *
  */
-public class OFMessage {
+public class OFMessage implements Cloneable {
     public static final byte OFP_VERSION = 0x04;
     public static final int MINIMUM_LENGTH = 8;
 
+    /**
+     * @deprecated no longer updated, xids come from {@link #getXidAllocator()}
+     */
+    @Deprecated
     public static int autoXID = 0;
     public static final int HASHCODE_PRIME = 97;
 
+    private static volatile XidAllocator xidAllocator = new XidAllocator();
+
     protected byte version;
     protected OFType type;
     protected short length;
     protected int xid;
 
+    /**
+     * If true, messages with a padded legacy layout (FLOW_MOD, PACKET_IN,
+     * PACKET_OUT) are encoded with their true lengths instead. Only use it
+     * towards switches advertising
+     * {@link OFFeaturesReply.OFCapabilities#OFPC_COMPACT_ENCODING}.
+     */
+    protected boolean compact;
+
     private ConcurrentHashMap<String, Object> storage;
 
     public OFMessage() {
@@ -80,6 +95,17 @@ public class OFMessage {
         return U16.f(length);
     }
 
+    /**
+     * Get the number of bytes {@link #writeTo(ChannelBuffer)} writes for this
+     * message, computed without serializing it. Unlike the header length this
+     * includes any fixed-size padding of the wire layout.
+     *
+     * @return encoded length in bytes
+     */
+    public int encodedLength() {
+        return getLengthU();
+    }
+
     /**
      * Set the length of this message.
      *
@@ -154,6 +180,64 @@ public class OFMessage {
         this.xid = xid;
     }
 
+    /**
+     * Get whether this message is encoded in the compact layout.
+     *
+     * @return compact
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Set whether this message is encoded in the compact layout.
+     *
+     * @param compact
+     */
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    /**
+     * Get a copy of this message that shares its body (matches,
+     * instructions, actions, payload) with it. writeTo only changes the
+     * header fields of the message it is called on, so encoding the copy
+     * leaves this message as it is.
+     *
+     * @return shallow copy without message store
+     */
+    public OFMessage shallowCopy() {
+        OFMessage copy;
+        try {
+            copy = (OFMessage) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.storage = null;
+        return copy;
+    }
+
+    /**
+     * Get the allocator used for messages written without an xid.
+     *
+     * @return xidAllocator
+     */
+    public static XidAllocator getXidAllocator() {
+        return xidAllocator;
+    }
+
+    /**
+     * Set the allocator used for messages written without an xid.
+     *
+     * @param allocator
+     */
+    public static void setXidAllocator(XidAllocator allocator) {
+        if (allocator == null) {
+            throw new IllegalArgumentException("xid allocator must not be null");
+        }
+        xidAllocator = allocator;
+    }
+
     /**
      * Read this message off the wire from the specified ByteBuffer.
      * @param data
@@ -167,30 +251,63 @@ public class OFMessage {
 
     /**
      * Write this message's binary format to the specified ByteBuffer.
+     * A caller supplied xid is kept, an xid of 0 is replaced by one from
+     * the xid allocator.
      * @param data
      */
     public void writeTo(ChannelBuffer data) {
         data.writeByte(version);
         data.writeByte(type.getTypeValue());
         data.writeShort(length);
-        xid = autoXID;
-        autoXID++;
+        if (xid == 0) {
+            xid = xidAllocator.nextXid();
+        }
         data.writeInt(xid);
     }
 
+    /**
+     * Return this message to the object pool of the calling thread, so that
+     * a later decode in recycling mode may reuse it. The caller must not use
+     * the message, nor anything obtained from it, after releasing it, and must
+     * release it at most once. Without a pool on the calling thread this is a no-op.
+     */
+    public void release() {
+        OFObjectPool pool = OFObjectPool.current();
+        if (pool != null) {
+            storage = null;
+            releaseChildren(pool);
+            pool.recycle(this);
+        }
+    }
+
+    /**
+     * Return the pooled sub-structures (instructions, actions) of this message.
+     * @param pool
+     */
+    protected void releaseChildren(OFObjectPool pool) {
+    }
+
     /**
      * @return this message's hex format string
      */
     public String toBytesString() {
-        String bytesString;
-        bytesString = HexString.toHex(version);
-        bytesString += HexString.toHex(type.getTypeValue());
-        bytesString += HexString.toHex(length);
-        bytesString += " ";
+        return appendBytesString(new StringBuilder()).toString();
+    }
+
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, version);
+        HexString.appendHex(sb, type.getTypeValue());
+        HexString.appendHex(sb, length);
+        sb.append(' ');
 
-        bytesString += HexString.toHex(xid);
+        HexString.appendHex(sb, xid);
 
-        return bytesString;
+        return sb;
     }
 
     /**
@@ -72,12 +72,14 @@ public class OFMeterMod extends OFMessage {
         data.writeInt(meterId);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                HexString.toHex((byte) command.ordinal()) +
-                HexString.byteZeroEnd(1) +
-                HexString.toHex(rate) +
-                HexString.toHex(meterId);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, (byte) command.ordinal());
+        HexString.appendByteZeroEnd(sb, 1);
+        HexString.appendHex(sb, rate);
+        HexString.appendHex(sb, meterId);
+        return sb;
     }
 
     public String toString() {
@@ -42,4 +42,12 @@ public class OFMultipartReply extends OFStatisticsMessageBase {
         this.type = OFType.MULTIPART_REPLY;
         this.length = U16.t(OFStatisticsMessageBase.minimumLength);
     }
+
+    /**
+     * Whether more parts of this reply follow.
+     * @return true if REPLY_MORE is set
+     */
+    public boolean isReplyMore() {
+        return (flags & OFStatisticsReplyFlags.REPLY_MORE.getTypeValue()) != 0;
+    }
 }
@@ -17,12 +17,13 @@
 
 package org.onosproject.floodlightpof.protocol;
 
-import java.util.Arrays;
-
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onosproject.floodlightpof.protocol.factory.OFObjectPool;
 import org.onosproject.floodlightpof.util.HexString;
 import org.onosproject.floodlightpof.util.U16;
 import org.onosproject.floodlightpof.util.U32;
+import org.onosproject.floodlightpof.util.U64;
 import org.onosproject.floodlightpof.util.U8;
 
 /**
@@ -38,6 +39,18 @@ import org.onosproject.floodlightpof.util.U8;
 
 /**
  * Represents an ofp_packet_in.
+ * <p>
+ * In zero-copy mode (see {@link #setZeroCopy(boolean)}) the payload is kept as a
+ * read-only slice of the buffer the message was decoded from, and is only copied
+ * into a byte[] when {@link #getPacketData()} is called. The slice aliases the
+ * decoder's inbound buffer, so it is only valid while the message is being
+ * dispatched. Call {@link #retainPacketData()} before keeping the message, or
+ * its payload buffer, beyond that point.
+ * <p>
+ * In compact mode (see {@link OFMessage#setCompact(boolean)}) the payload is
+ * written with its true length instead of being zero-padded to
+ * {@link OFGlobal#OFP_PACKET_IN_MAX_LENGTH}, and the header length is computed
+ * from it. readFrom accepts both layouts.
  *
  */
 public class OFPacketIn extends OFMessage {
@@ -62,6 +75,9 @@ public class OFPacketIn extends OFMessage {
     protected int slotPortId;
 
     protected byte[] packetData;
+    protected ChannelBuffer packetDataBuffer;
+
+    protected boolean zeroCopy;
 
     public OFPacketIn() {
         super();
@@ -87,10 +103,14 @@ public class OFPacketIn extends OFMessage {
     }
 
     /**
-     * Returns the packet data.
+     * Returns the packet data, copying it out of the payload buffer on first use.
      * @return packetData
      */
     public byte[] getPacketData() {
+        if (this.packetData == null && this.packetDataBuffer != null) {
+            this.packetData = new byte[packetDataBuffer.readableBytes()];
+            packetDataBuffer.getBytes(packetDataBuffer.readerIndex(), this.packetData);
+        }
         return this.packetData;
     }
 
@@ -100,10 +120,49 @@ public class OFPacketIn extends OFMessage {
      */
     public OFPacketIn setPacketData(byte[] pacKetData) {
         this.packetData = pacKetData;
+        this.packetDataBuffer = null;
         this.length = U16.t(OFPacketIn.minimumLength + packetData.length);
         return this;
     }
 
+    /**
+     * Returns the packet data as a read-only buffer without copying it.
+     * In zero-copy mode the buffer aliases the decoder's inbound buffer, see
+     * the class comment for its lifetime.
+     * @return packetDataBuffer, or null if there is no packet data
+     */
+    public ChannelBuffer getPacketDataBuffer() {
+        if (this.packetDataBuffer == null && this.packetData != null) {
+            this.packetDataBuffer = ChannelBuffers.unmodifiableBuffer(ChannelBuffers.wrappedBuffer(packetData));
+        }
+        return this.packetDataBuffer;
+    }
+
+    /**
+     * Copy the packet data into storage owned by this message, so that the
+     * message stays valid after the decoder's inbound buffer is reused.
+     * @return this
+     */
+    public OFPacketIn retainPacketData() {
+        if (getPacketData() != null) {
+            this.packetDataBuffer = null;
+        }
+        return this;
+    }
+
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    /**
+     * If true, readFrom keeps the payload as a slice of the decoded buffer
+     * instead of copying it.
+     * @param zeroCopy
+     */
+    public void setZeroCopy(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+    }
+
 //    /**
 //     * Get in_port
 //     * @return
@@ -216,13 +275,33 @@ public class OFPacketIn extends OFMessage {
         this.deviceId = data.readInt();
         this.slotPortId = data.readInt();
 
-        this.packetData = new byte[totalLength];
+        // a compact frame ends with the payload, which may be shorter than total_len
+        int dataLength = U16.f(totalLength);
+        this.compact = getLengthU() < maximalLength;
+        if (compact) {
+            dataLength = Math.min(dataLength, Math.max(0, getLengthU() - minimumLength));
+        }
+
+        if (zeroCopy) {
+            this.packetData = null;
+            this.packetDataBuffer = ChannelBuffers.unmodifiableBuffer(data.readSlice(dataLength));
+            return;
+        }
+
+        // keep the array of a recycled message when the size matches
+        if (this.packetData == null || this.packetData.length != dataLength) {
+            this.packetData = new byte[dataLength];
+        }
+        this.packetDataBuffer = null;
         //this.packetData = new byte[OFGlobal.OFP_PACKET_IN_MAX_LENGTH];
         data.readBytes(this.packetData);
     }
 
     @Override
     public void writeTo(ChannelBuffer data) {
+        if (compact) {
+            this.length = U16.t(minimumLength + getPacketDataLength());
+        }
         super.writeTo(data);
 
         data.writeInt(bufferId);
@@ -235,51 +314,92 @@ public class OFPacketIn extends OFMessage {
         data.writeInt(deviceId);
         data.writeInt(slotPortId);
 
-        if (null != packetData) {
+        if (compact) {
+            if (null != packetData) {
+                data.writeBytes(this.packetData, 0, getPacketDataLength());
+            } else if (null != packetDataBuffer) {
+                data.writeBytes(packetDataBuffer, packetDataBuffer.readerIndex(), getPacketDataLength());
+            }
+        } else if (null != packetData) {
             if (packetData.length < OFGlobal.OFP_PACKET_IN_MAX_LENGTH) {
                 data.writeBytes(this.packetData);
                 data.writeZero(OFGlobal.OFP_PACKET_IN_MAX_LENGTH - packetData.length);
             } else {
                 data.writeBytes(this.packetData, 0, OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
             }
+        } else if (null != packetDataBuffer) {
+            int dataLength = Math.min(packetDataBuffer.readableBytes(), OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
+            data.writeBytes(packetDataBuffer, packetDataBuffer.readerIndex(), dataLength);
+            data.writeZero(OFGlobal.OFP_PACKET_IN_MAX_LENGTH - dataLength);
         } else {
             data.writeZero(OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
         }
 
     }
 
+    @Override
+    public int encodedLength() {
+        return compact ? minimumLength + getPacketDataLength() : maximalLength;
+    }
+
+    /**
+     * Returns the number of payload bytes written, capped at
+     * {@link OFGlobal#OFP_PACKET_IN_MAX_LENGTH}.
+     * @return packet data length
+     */
+    protected int getPacketDataLength() {
+        int dataLength = 0;
+        if (null != packetData) {
+            dataLength = packetData.length;
+        } else if (null != packetDataBuffer) {
+            dataLength = packetDataBuffer.readableBytes();
+        }
+        return Math.min(dataLength, OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
+    }
+
+    @Override
+    protected void releaseChildren(OFObjectPool pool) {
+        this.packetDataBuffer = null;
+    }
+
 
-    public String toBytesString() {
-        String string = super.toBytesString();
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        byte[] packetData = getPacketData();
 
-        string += HexString.toHex(bufferId);
+        HexString.appendHex(sb, bufferId);
 
-        string += HexString.toHex(totalLength);
-        string += HexString.toHex((byte) reason.ordinal());
-        string += HexString.toHex(tableId);
-        string += " ";
+        HexString.appendHex(sb, totalLength);
+        HexString.appendHex(sb, (byte) reason.ordinal());
+        HexString.appendHex(sb, tableId);
+        sb.append(' ');
 
-        string += HexString.toHex(cookie);
+        HexString.appendHex(sb, cookie);
 
-        string += HexString.toHex(deviceId);
-        string += HexString.toHex(slotPortId);
+        HexString.appendHex(sb, deviceId);
+        HexString.appendHex(sb, slotPortId);
 
-        string += HexString.byteZeroEnd(4);
+        HexString.appendByteZeroEnd(sb, 4);
 
-        string += HexString.toHex(packetData);
+        HexString.appendHex(sb, packetData);
 
-        if (null != packetData) {
+        if (compact) {
+            if (null != packetData) {
+                HexString.appendHex(sb, packetData, 0, getPacketDataLength());
+            }
+        } else if (null != packetData) {
             if (packetData.length < OFGlobal.OFP_PACKET_IN_MAX_LENGTH) {
-                string += HexString.toHex(packetData);
-                string += HexString.byteZero(OFGlobal.OFP_PACKET_IN_MAX_LENGTH - packetData.length);
+                HexString.appendHex(sb, packetData);
+                HexString.appendByteZero(sb, OFGlobal.OFP_PACKET_IN_MAX_LENGTH - packetData.length);
             } else {
-                string += HexString.toHex(packetData, 0, OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
+                HexString.appendHex(sb, packetData, 0, OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
             }
         } else {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_PACKET_IN_MAX_LENGTH);
         }
 
-        return string;
+        return sb;
     }
 
     public String toString() {
@@ -290,10 +410,21 @@ public class OFPacketIn extends OFMessage {
                 ";tl=" + totalLength +
                 ";rz=" + reason +
                 ";tid=" + tableId +
-                ";ck=" + cookie +
+                ";ck=" + U64.toString(cookie) +
                 ";did=" + deviceId +
                 ";pid=" + HexString.toHex(slotPortId) +
-                ";data=" + HexString.toHex(packetData);
+                ";data=" + HexString.toHex(getPacketData());
+    }
+
+    /**
+     * Returns the packet data as a buffer, wrapping rather than copying it,
+     * so that hashing and comparing a zero-copy payload does not copy it.
+     */
+    private ChannelBuffer packetDataView() {
+        if (this.packetData != null) {
+            return ChannelBuffers.wrappedBuffer(this.packetData);
+        }
+        return this.packetDataBuffer;
     }
 
     @Override
@@ -303,7 +434,8 @@ public class OFPacketIn extends OFMessage {
         result = prime * result + bufferId;
         result = prime * result + (int) (cookie ^ (cookie >>> 32));
         result = prime * result + deviceId;
-        result = prime * result + Arrays.hashCode(packetData);
+        ChannelBuffer data = packetDataView();
+        result = prime * result + ((data == null) ? 0 : data.hashCode());
         result = prime * result + ((reason == null) ? 0 : reason.hashCode());
         result = prime * result + slotPortId;
         result = prime * result + tableId;
@@ -332,7 +464,13 @@ public class OFPacketIn extends OFMessage {
         if (deviceId != other.deviceId) {
             return false;
         }
-        if (!Arrays.equals(packetData, other.packetData)) {
+        ChannelBuffer data = packetDataView();
+        ChannelBuffer otherData = other.packetDataView();
+        if (data == null) {
+            if (otherData != null) {
+                return false;
+            }
+        } else if (!data.equals(otherData)) {
             return false;
         }
         if (reason != other.reason) {
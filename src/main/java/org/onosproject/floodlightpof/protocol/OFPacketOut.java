@@ -21,13 +21,22 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.onosproject.floodlightpof.protocol.action.OFAction;
 import org.onosproject.floodlightpof.protocol.factory.OFActionFactory;
 import org.onosproject.floodlightpof.protocol.factory.OFActionFactoryAware;
+import org.onosproject.floodlightpof.protocol.factory.OFObjectPool;
 import org.onosproject.floodlightpof.util.U16;
+import org.onosproject.floodlightpof.util.U8;
 
 /**
  * Represents an ofp_packet_out message.
+ * <p>
+ * The legacy layout pads every action to {@link OFAction#MAXIMAL_LENGTH}, adds
+ * empty slots up to six actions and zero-pads the payload to 2048 bytes. In
+ * compact mode (see {@link OFMessage#setCompact(boolean)}) actions and payload
+ * are written with their true lengths and the header length is computed from
+ * them.
  *
  */
 public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
@@ -40,9 +49,13 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
     protected short actionsLength;
     protected List<OFAction> actions;
     protected byte[] packetData;
+    protected ChannelBuffer packetDataBuffer;
     private static final int OFPMAXACTION_PERINSTRUCTION = 6;
     private static final int OFPPACKETIN_MAXLENGTH = 2048;
     private static final byte[] PADDING = new byte[128];
+    private static final int FIXED_LENGTH = OFMessage.MINIMUM_LENGTH + 16;
+    public static final int MAXIMAL_LENGTH = FIXED_LENGTH
+            + OFPMAXACTION_PERINSTRUCTION * OFAction.MAXIMAL_LENGTH + OFPPACKETIN_MAXLENGTH; //2360
     public OFPacketOut() {
         super();
         this.type = OFType.PACKET_OUT;
@@ -67,10 +80,14 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
     }
 
     /**
-     * Returns the packet data.
+     * Returns the packet data, copying it out of the payload buffer on first use.
      * @return packetData
      */
     public byte[] getPacketData() {
+        if (this.packetData == null && this.packetDataBuffer != null) {
+            this.packetData = new byte[packetDataBuffer.readableBytes()];
+            packetDataBuffer.getBytes(packetDataBuffer.readerIndex(), this.packetData);
+        }
         return this.packetData;
     }
 
@@ -80,9 +97,45 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
      */
     public OFPacketOut setPacketData(byte[] pacKetData) {
         this.packetData = pacKetData;
+        this.packetDataBuffer = null;
+        return this;
+    }
+
+    /**
+     * Returns the packet data buffer set by {@link #setPacketDataBuffer(ChannelBuffer)}.
+     * @return packetDataBuffer
+     */
+    public ChannelBuffer getPacketDataBuffer() {
+        return this.packetDataBuffer;
+    }
+
+    /**
+     * Sets the packet data without copying it, e.g. to re-emit the payload of
+     * {@link OFPacketIn#getPacketDataBuffer()}. The readable bytes of the buffer
+     * are written straight into the outgoing buffer, so a buffer aliasing the
+     * decoder's inbound buffer must be written before that one is reused.
+     * @param pacKetDataBuffer
+     */
+    public OFPacketOut setPacketDataBuffer(ChannelBuffer pacKetDataBuffer) {
+        this.packetDataBuffer = pacKetDataBuffer;
+        this.packetData = null;
         return this;
     }
 
+    /**
+     * Get the length of the packet data.
+     * @return length in bytes
+     */
+    public int getPacketDataLength() {
+        if (this.packetData != null) {
+            return this.packetData.length;
+        }
+        if (this.packetDataBuffer != null) {
+            return this.packetDataBuffer.readableBytes();
+        }
+        return 0;
+    }
+
     /**
      * Get in_port.
      * @return inPort
@@ -151,6 +204,35 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
         return this;
     }
 
+    public int getLengthU() {
+        if (compact) {
+            return getCompactLength();
+        }
+        return super.getLengthU();
+    }
+
+    /**
+     * Get the length of this message in the compact layout.
+     * @return compact length
+     */
+    public int getCompactLength() {
+        int compactLength = FIXED_LENGTH + getPacketDataLength();
+        if (actions != null) {
+            for (OFAction action : actions) {
+                if (action == null) {
+                    throw new RuntimeException("action is null");
+                }
+                compactLength += action.encodedLength();
+            }
+        }
+        return compactLength;
+    }
+
+    @Override
+    public int encodedLength() {
+        return compact ? getCompactLength() : MAXIMAL_LENGTH;
+    }
+
     @Override
     public void setActionFactory(OFActionFactory actionFactory) {
         this.actionFactory = actionFactory;
@@ -160,24 +242,58 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
     public void readFrom(ChannelBuffer data) {
         super.readFrom(data);
         this.bufferId = data.readInt();
-        this.inPort = data.readShort();
-        this.actionsLength = data.readShort();
+        this.inPort = data.readInt();
+        this.actionsLength = U8.f(data.readByte());
+        data.skipBytes(3);
+        int packetDataLength = data.readInt();
         if (this.actionFactory == null) {
             throw new RuntimeException("ActionFactory not set");
         }
-        this.actions = this.actionFactory.parseActions(data, getActionsLengthU());
-        this.packetData = new byte[getLengthU() - minimumLength - getActionsLengthU()];
+
+        int lengthU = U16.f(this.length);
+        this.compact = lengthU < MAXIMAL_LENGTH;
+        if (compact) {
+            int actionRegion = lengthU - FIXED_LENGTH - packetDataLength;
+            if (actionRegion < 0) {
+                throw new RuntimeException("packet_out length " + lengthU
+                        + " is shorter than its packet data " + packetDataLength);
+            }
+            this.actions = this.actionFactory.parseActions(data, actionRegion, actionsLength, true);
+        } else {
+            this.actions = this.actionFactory.parseActions(data,
+                    OFPMAXACTION_PERINSTRUCTION * OFAction.MAXIMAL_LENGTH, actionsLength, false);
+        }
+        this.packetDataBuffer = null;
+        this.packetData = new byte[Math.min(packetDataLength, OFPPACKETIN_MAXLENGTH)];
         data.readBytes(this.packetData);
+        if (!compact) {
+            data.skipBytes(OFPPACKETIN_MAXLENGTH - packetData.length);
+        }
     }
 
     @Override
     public void writeTo(ChannelBuffer data) {
+        if (compact) {
+            this.length = U16.t(getCompactLength());
+        }
         super.writeTo(data);
         data.writeInt(this.bufferId);
         data.writeInt(this.inPort);
         data.writeByte(this.actionsLength);
         data.writeBytes(PADDING, 0, 3);
-        data.writeInt(this.packetData.length);
+        int packetDataLength = getPacketDataLength();
+        data.writeInt(packetDataLength);
+        if (compact) {
+            for (OFAction action : actions) {
+                action.writeTo(data);
+            }
+            if (this.packetData != null) {
+                data.writeBytes(this.packetData);
+            } else if (this.packetDataBuffer != null) {
+                data.writeBytes(packetDataBuffer, packetDataBuffer.readerIndex(), packetDataLength);
+            }
+            return;
+        }
         for (OFAction action : actions) {
             action.writeTo(data);
             if (action.getLength() < 48) {
@@ -190,8 +306,10 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
 
         if (this.packetData != null) {
             data.writeBytes(this.packetData);
+        } else if (this.packetDataBuffer != null) {
+            data.writeBytes(packetDataBuffer, packetDataBuffer.readerIndex(), packetDataLength);
         }
-        int blank = OFPPACKETIN_MAXLENGTH - this.packetData.length;
+        int blank = OFPPACKETIN_MAXLENGTH - packetDataLength;
         for (int i = 0; i < blank; i += 128) {
             if (blank - i >= 128) {
                 data.writeBytes(PADDING, 0, 128);
@@ -202,6 +320,17 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
 
     }
 
+    /**
+     * Returns the packet data as a buffer, wrapping rather than copying it,
+     * so that hashing and comparing a zero-copy payload does not copy it.
+     */
+    private ChannelBuffer packetDataView() {
+        if (this.packetData != null) {
+            return ChannelBuffers.wrappedBuffer(this.packetData);
+        }
+        return this.packetDataBuffer;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 293;
@@ -210,7 +339,8 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
         result = prime * result + actionsLength;
         result = prime * result + bufferId;
         result = prime * result + inPort;
-        result = prime * result + Arrays.hashCode(packetData);
+        ChannelBuffer data = packetDataView();
+        result = prime * result + ((data == null) ? 0 : data.hashCode());
         return result;
     }
 
@@ -242,12 +372,25 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
         if (inPort != other.inPort) {
             return false;
         }
-        if (!Arrays.equals(packetData, other.packetData)) {
+        ChannelBuffer data = packetDataView();
+        ChannelBuffer otherData = other.packetDataView();
+        if (data == null) {
+            if (otherData != null) {
+                return false;
+            }
+        } else if (!data.equals(otherData)) {
             return false;
         }
         return true;
     }
 
+    @Override
+    protected void releaseChildren(OFObjectPool pool) {
+        pool.recycleActions(actions);
+        this.actions = null;
+        this.packetDataBuffer = null;
+    }
+
     /* (non-Javadoc)
      * @see java.lang.Object#toString()
      */
@@ -256,6 +399,6 @@ public class OFPacketOut extends OFMessage implements OFActionFactoryAware {
         return "OFPacketOut [actionFactory=" + actionFactory + ", actions="
                 + actions + ", actionsLength=" + actionsLength + ", bufferId=0x"
                 + Integer.toHexString(bufferId) + ", inPort=" + inPort + ", packetData="
-                + Arrays.toString(packetData) + "]";
+                + Arrays.toString(getPacketData()) + "]";
     }
 }
@@ -52,7 +52,7 @@ import org.onosproject.floodlightpof.util.ParseString;
  */
 @JsonSerialize(using = OFPhysicalPortJsonSerializer.class)
 public class OFPhysicalPort {
-    public static int minimumLength = 88;
+    public static int minimumLength = 16 + OFGlobal.OFP_NAME_MAX_LENGTH + 40; //120
     public static int ofpEthAlen = 6;
 
     public enum OFPortConfig {
@@ -545,36 +545,44 @@ public class OFPhysicalPort {
     }
 
     public String toBytesString() {
-        String bytesString = HexString.toHex(slotPortId);
+        return appendBytesString(new StringBuilder()).toString();
+    }
 
-        bytesString += HexString.toHex(deviceId);
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, slotPortId);
 
-        bytesString += HexString.toHex(hardwareAddress);
-        bytesString += HexString.byteZeroEnd(2);
+        HexString.appendHex(sb, deviceId);
 
-        bytesString += HexString.nameToHex(name);
+        HexString.appendHex(sb, hardwareAddress);
+        HexString.appendByteZeroEnd(sb, 2);
 
-        bytesString += HexString.toHex(config);
+        HexString.appendNameHex(sb, name);
 
-        bytesString += HexString.toHex(state);
+        HexString.appendHex(sb, config);
 
-        bytesString += HexString.toHex(currentFeatures);
+        HexString.appendHex(sb, state);
 
-        bytesString += HexString.toHex(advertisedFeatures);
+        HexString.appendHex(sb, currentFeatures);
 
-        bytesString += HexString.toHex(supportedFeatures);
+        HexString.appendHex(sb, advertisedFeatures);
 
-        bytesString += HexString.toHex(peerFeatures);
+        HexString.appendHex(sb, supportedFeatures);
 
-        bytesString += HexString.toHex(currentSpeed);
+        HexString.appendHex(sb, peerFeatures);
 
-        bytesString += HexString.toHex(maxSpeed);
+        HexString.appendHex(sb, currentSpeed);
 
-        bytesString += HexString.toHex(openflowEnable);
-        bytesString += HexString.byteZeroEnd(7);
+        HexString.appendHex(sb, maxSpeed);
 
-        return bytesString;
+        HexString.appendHex(sb, openflowEnable);
+        HexString.appendByteZeroEnd(sb, 7);
 
+        return sb;
     }
 
     public String toString() {
@@ -92,11 +92,12 @@ public class OFPortStatus extends OFMessage {
     }
 
     @Override
-    public String toBytesString() {
-        return super.toBytesString()
-                + HexString.toHex(reason)
-                + HexString.byteZeroEnd(7)
-                + desc.toBytesString();
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, reason);
+        HexString.appendByteZeroEnd(sb, 7);
+        desc.appendBytesString(sb);
+        return sb;
     }
 
     @Override
@@ -26,7 +26,11 @@
 package org.onosproject.floodlightpof.protocol;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Represents an OFProtocol.
@@ -34,6 +38,9 @@ import java.util.List;
  * OFProtocol is formed by several fields,
  * e.g. Ethernet protocol is formed by three field: DesMac, SrcMac, EthType
  *
+ * Field lookups go through an immutable index that is built on first use and
+ * dropped by setFieldList. Change the fields through setFieldList; the index
+ * only notices in-place edits of the list that change its size.
  *
  */
 public class OFProtocol implements Cloneable {
@@ -45,30 +52,40 @@ public class OFProtocol implements Cloneable {
     protected short totalLength;        //bit
     protected List<OFMatch20> fieldList;
 
+    private volatile FieldIndex fieldIndex;
+
     public OFProtocol() {
         super();
     }
 
     public OFMatch20 getField(short fieldId) {
-        if (null != fieldList) {
-            for (OFMatch20 field : fieldList) {
-                if (field.getFieldId() == fieldId) {
-                    return field;
-                }
-            }
-        }
-        return null;
+        FieldIndex index = getFieldIndex();
+        return index == null ? null : index.get(fieldId);
     }
 
     public OFMatch20 getField(String fieldName) {
-        if (null != fieldList && fieldName != null) {
-            for (OFMatch20 field : fieldList) {
-                if (field.getFieldName().equalsIgnoreCase(fieldName)) {
-                    return field;
-                }
-            }
+        FieldIndex index = getFieldIndex();
+        if (index == null || fieldName == null) {
+            return null;
+        }
+        OFMatch20 field = index.byName.get(fieldName);
+        if (field == null) {
+            field = index.byName.get(fieldName.toLowerCase(Locale.ROOT));
         }
-        return null;
+        return field;
+    }
+
+    private FieldIndex getFieldIndex() {
+        List<OFMatch20> fields = fieldList;
+        if (fields == null) {
+            return null;
+        }
+        FieldIndex index = fieldIndex;
+        if (index == null || index.fields != fields || index.size != fields.size()) {
+            index = new FieldIndex(fields);
+            fieldIndex = index;
+        }
+        return index;
     }
 
     public List<OFMatch20> getAllField() {
@@ -76,6 +93,7 @@ public class OFProtocol implements Cloneable {
     }
     public void setFieldList(List<OFMatch20> fieldList) {
         this.fieldList = fieldList;
+        this.fieldIndex = null;
     }
     public String getProtocolName() {
         return protocolName;
@@ -165,6 +183,85 @@ public class OFProtocol implements Cloneable {
         return true;
     }
 
+    /**
+     * Immutable lookup tables over a field list. The first field wins when ids
+     * or names repeat, as with a linear scan.
+     */
+    private static final class FieldIndex {
+        /** Widest id range that is still indexed by a direct array. */
+        private static final int MAX_DENSE_RANGE = 1024;
+
+        private final List<OFMatch20> fields;
+        private final int size;
+        private final Map<String, OFMatch20> byName;
+        private final int minId;
+        private final OFMatch20[] byId;     // dense: slot fieldId - minId
+        private final short[] sortedIds;    // sparse: binary searched
+        private final OFMatch20[] sortedFields;
+
+        FieldIndex(List<OFMatch20> fields) {
+            this.fields = fields;
+            this.size = fields.size();
+            this.byName = new HashMap<String, OFMatch20>(size * 4);
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            List<OFMatch20> unique = new ArrayList<OFMatch20>(size);
+            for (OFMatch20 field : fields) {
+                if (field == null) {
+                    continue;
+                }
+                String name = field.getFieldName();
+                if (name != null) {
+                    byName.putIfAbsent(name, field);
+                    byName.putIfAbsent(name.toLowerCase(Locale.ROOT), field);
+                }
+                min = Math.min(min, field.getFieldId());
+                max = Math.max(max, field.getFieldId());
+                unique.add(field);
+            }
+
+            if (unique.isEmpty() || max - min >= MAX_DENSE_RANGE) {
+                this.minId = 0;
+                this.byId = null;
+                OFMatch20[] sorted = unique.toArray(new OFMatch20[0]);
+                // stable, so the first of equal ids stays first
+                Arrays.sort(sorted, (a, b) -> Short.compare(a.getFieldId(), b.getFieldId()));
+                int n = 0;
+                for (int i = 0; i < sorted.length; i++) {
+                    if (n == 0 || sorted[n - 1].getFieldId() != sorted[i].getFieldId()) {
+                        sorted[n++] = sorted[i];
+                    }
+                }
+                this.sortedFields = Arrays.copyOf(sorted, n);
+                this.sortedIds = new short[n];
+                for (int i = 0; i < n; i++) {
+                    sortedIds[i] = sortedFields[i].getFieldId();
+                }
+            } else {
+                this.minId = min;
+                this.byId = new OFMatch20[max - min + 1];
+                for (OFMatch20 field : unique) {
+                    int slot = field.getFieldId() - min;
+                    if (byId[slot] == null) {
+                        byId[slot] = field;
+                    }
+                }
+                this.sortedIds = null;
+                this.sortedFields = null;
+            }
+        }
+
+        OFMatch20 get(short fieldId) {
+            if (byId != null) {
+                int slot = fieldId - minId;
+                return slot >= 0 && slot < byId.length ? byId[slot] : null;
+            }
+            int i = Arrays.binarySearch(sortedIds, fieldId);
+            return i >= 0 ? sortedFields[i] : null;
+        }
+    }
+
     @Override
     public OFProtocol clone() throws CloneNotSupportedException {
         OFProtocol protocol = (OFProtocol) super.clone();
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global registry of the loaded {@link OFProtocol}s.
+ * <p>
+ * Protocols are kept in an array indexed by protocol id, so
+ * {@link #getField(short, short)} resolves a field of any loaded protocol
+ * with two array lookups. Reads take no lock; registration copies the array.
+ *
+ */
+public final class OFProtocolRegistry {
+    private static volatile OFProtocol[] protocols = new OFProtocol[0];
+    private static final Map<String, OFProtocol> PROTOCOLS_BY_NAME = new ConcurrentHashMap<String, OFProtocol>();
+
+    private OFProtocolRegistry() {
+    }
+
+    /**
+     * Register a protocol, replacing any protocol with the same id.
+     * @param protocol
+     */
+    public static synchronized void register(OFProtocol protocol) {
+        if (protocol == null) {
+            throw new IllegalArgumentException("protocol is null");
+        }
+        int slot = protocol.getProtocolId() & 0xffff;
+        OFProtocol[] current = protocols;
+        OFProtocol[] updated = Arrays.copyOf(current, Math.max(current.length, slot + 1));
+        OFProtocol old = updated[slot];
+        updated[slot] = protocol;
+        protocols = updated;
+
+        if (old != null && old.getProtocolName() != null) {
+            PROTOCOLS_BY_NAME.remove(old.getProtocolName().toLowerCase(Locale.ROOT), old);
+        }
+        if (protocol.getProtocolName() != null) {
+            PROTOCOLS_BY_NAME.put(protocol.getProtocolName().toLowerCase(Locale.ROOT), protocol);
+        }
+    }
+
+    /**
+     * Remove the protocol with the given id.
+     * @param protocolId
+     * @return the removed protocol, or null
+     */
+    public static synchronized OFProtocol unregister(short protocolId) {
+        int slot = protocolId & 0xffff;
+        OFProtocol[] current = protocols;
+        if (slot >= current.length || current[slot] == null) {
+            return null;
+        }
+        OFProtocol[] updated = current.clone();
+        OFProtocol old = updated[slot];
+        updated[slot] = null;
+        protocols = updated;
+
+        if (old.getProtocolName() != null) {
+            PROTOCOLS_BY_NAME.remove(old.getProtocolName().toLowerCase(Locale.ROOT), old);
+        }
+        return old;
+    }
+
+    /**
+     * Remove all protocols.
+     */
+    public static synchronized void clear() {
+        protocols = new OFProtocol[0];
+        PROTOCOLS_BY_NAME.clear();
+    }
+
+    public static OFProtocol getProtocol(short protocolId) {
+        OFProtocol[] current = protocols;
+        int slot = protocolId & 0xffff;
+        return slot < current.length ? current[slot] : null;
+    }
+
+    /**
+     * Get a protocol by name, ignoring case.
+     * @param protocolName
+     * @return the protocol, or null
+     */
+    public static OFProtocol getProtocol(String protocolName) {
+        if (protocolName == null) {
+            return null;
+        }
+        return PROTOCOLS_BY_NAME.get(protocolName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Resolve a field of a loaded protocol.
+     * @param protocolId
+     * @param fieldId
+     * @return the field, or null if the protocol or the field is unknown
+     */
+    public static OFMatch20 getField(short protocolId, short fieldId) {
+        OFProtocol protocol = getProtocol(protocolId);
+        return protocol == null ? null : protocol.getField(fieldId);
+    }
+
+    /**
+     * @return the loaded protocols, ordered by id
+     */
+    public static List<OFProtocol> getAllProtocols() {
+        List<OFProtocol> all = new ArrayList<OFProtocol>();
+        for (OFProtocol protocol : protocols) {
+            if (protocol != null) {
+                all.add(protocol);
+            }
+        }
+        return all;
+    }
+}
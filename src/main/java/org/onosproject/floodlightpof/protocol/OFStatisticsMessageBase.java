@@ -96,7 +96,18 @@ public abstract class OFStatisticsMessageBase extends OFMessage implements
             throw new RuntimeException("OFStatisticsFactory not set");
         }
         this.statistics = statisticsFactory.parseStatistics(this.getType(),
-                this.statisticType, data, super.getLengthU() - MINIMUM_LENGTH);
+                this.statisticType, data, super.getLengthU() - minimumLength);
+    }
+
+    @Override
+    public int encodedLength() {
+        int encodedLength = minimumLength;
+        if (this.statistics != null) {
+            for (OFStatistics statistic : this.statistics) {
+                encodedLength += statistic.encodedLength();
+            }
+        }
+        return encodedLength;
     }
 
     @Override
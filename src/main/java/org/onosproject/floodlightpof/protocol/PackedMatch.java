@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compact, immutable form of the {@link OFMatchX} list of a flow entry.
+ * <p>
+ * The values and masks of all fields are packed into one {@code long[]}:
+ * every field takes the words needed for its bytes, values first, then
+ * masks in the same layout. Field ids, offsets and lengths live in a
+ * {@link Layout} that is interned and shared by all matches on the same
+ * fields. Field names are not kept, as for matches read off the wire.
+ *
+ */
+public final class PackedMatch {
+    private final Layout layout;
+    private final long[] words;
+    private int hash;
+
+    private PackedMatch(Layout layout, long[] words) {
+        this.layout = layout;
+        this.words = words;
+    }
+
+    /**
+     * Pack a list of matches. Value and mask bytes past
+     * {@link OFGlobal#OFP_MAX_FIELD_LENGTH_IN_BYTE} or past the field length
+     * are dropped.
+     * @param matches
+     * @return the packed match
+     */
+    public static PackedMatch of(List<OFMatchX> matches) {
+        int fieldNum = matches == null ? 0 : matches.size();
+        short[] fields = new short[fieldNum * 3];
+        for (int i = 0; i < fieldNum; i++) {
+            OFMatchX match = matches.get(i);
+            fields[3 * i] = match.getFieldId();
+            fields[3 * i + 1] = match.getOffset();
+            fields[3 * i + 2] = match.getLength();
+        }
+        Layout layout = Layout.intern(fields);
+        long[] words = new long[2 * layout.words];
+        for (int i = 0; i < fieldNum; i++) {
+            OFMatchX match = matches.get(i);
+            layout.pack(i, match.getValue(), words, 0);
+            layout.pack(i, match.getMask(), words, layout.words);
+        }
+        return new PackedMatch(layout, words);
+    }
+
+    /**
+     * Unpack into new OFMatchX objects, with value and mask arrays of
+     * {@link OFGlobal#OFP_MAX_FIELD_LENGTH_IN_BYTE} bytes as readFrom
+     * produces them.
+     * @return the matches
+     */
+    public List<OFMatchX> toMatchList() {
+        List<OFMatchX> matches = new ArrayList<OFMatchX>(layout.getFieldNum());
+        for (int i = 0; i < layout.getFieldNum(); i++) {
+            matches.add(toMatchX(i));
+        }
+        return matches;
+    }
+
+    /**
+     * Unpack one field.
+     * @param field field position
+     * @return a new OFMatchX
+     */
+    public OFMatchX toMatchX(int field) {
+        OFMatchX match = new OFMatchX();
+        match.setFieldId(layout.getFieldId(field));
+        match.setOffset(layout.getOffset(field));
+        match.setLength(layout.getLength(field));
+        match.setValue(layout.unpack(field, words, 0));
+        match.setMask(layout.unpack(field, words, layout.words));
+        return match;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public int getFieldNum() {
+        return layout.getFieldNum();
+    }
+
+    /**
+     * Get a value word.
+     * @param i word index, below {@link Layout#getWords()}
+     * @return the packed value bytes
+     */
+    public long getValueWord(int i) {
+        if (i < 0 || i >= layout.words) {
+            throw new IndexOutOfBoundsException("word " + i);
+        }
+        return words[i];
+    }
+
+    /**
+     * Get a mask word.
+     * @param i word index, below {@link Layout#getWords()}
+     * @return the packed mask bytes
+     */
+    public long getMaskWord(int i) {
+        if (i < 0 || i >= layout.words) {
+            throw new IndexOutOfBoundsException("word " + i);
+        }
+        return words[layout.words + i];
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = layout.hashCode();
+            for (long word : words) {
+                h = 31 * h + (int) (word ^ (word >>> 32));
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PackedMatch)) {
+            return false;
+        }
+        PackedMatch other = (PackedMatch) obj;
+        return layout == other.layout && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PackedMatch[");
+        for (int i = 0; i < layout.getFieldNum(); i++) {
+            sb.append(toMatchX(i).toString());
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Field ids, offsets and lengths of a {@link PackedMatch}, and where each
+     * field's bytes sit in its words. Instances are interned.
+     */
+    public static final class Layout {
+        private static final ConcurrentMap<Layout, Layout> INTERNED = new ConcurrentHashMap<Layout, Layout>();
+
+        private final short[] fields;       // fieldId, offset, length per field
+        private final int[] wordOffsets;
+        private final int words;
+        private final int hash;
+
+        private Layout(short[] fields) {
+            this.fields = fields;
+            int fieldNum = fields.length / 3;
+            this.wordOffsets = new int[fieldNum];
+            int n = 0;
+            for (int i = 0; i < fieldNum; i++) {
+                wordOffsets[i] = n;
+                n += (byteLength(i) + 7) / 8;
+            }
+            this.words = n;
+            this.hash = Arrays.hashCode(fields);
+        }
+
+        static Layout intern(short[] fields) {
+            Layout layout = new Layout(fields);
+            Layout interned = INTERNED.putIfAbsent(layout, layout);
+            return interned == null ? layout : interned;
+        }
+
+        public int getFieldNum() {
+            return wordOffsets.length;
+        }
+
+        public short getFieldId(int field) {
+            return fields[3 * field];
+        }
+
+        public short getOffset(int field) {
+            return fields[3 * field + 1];
+        }
+
+        public short getLength(int field) {
+            return fields[3 * field + 2];
+        }
+
+        /**
+         * Get the number of value words, which is also the number of mask words.
+         * @return words per half
+         */
+        public int getWords() {
+            return words;
+        }
+
+        private int byteLength(int field) {
+            int length = getLength(field) & 0xffff;
+            return Math.min((length + 7) / 8, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+        }
+
+        void pack(int field, byte[] bytes, long[] out, int base) {
+            if (bytes == null) {
+                return;
+            }
+            int w = base + wordOffsets[field];
+            int n = Math.min(byteLength(field), bytes.length);
+            for (int i = 0; i < n; i++) {
+                out[w + (i >>> 3)] |= (long) (bytes[i] & 0xff) << (56 - 8 * (i & 7));
+            }
+        }
+
+        byte[] unpack(int field, long[] in, int base) {
+            byte[] bytes = new byte[OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE];
+            int w = base + wordOffsets[field];
+            int n = byteLength(field);
+            for (int i = 0; i < n; i++) {
+                bytes[i] = (byte) (in[w + (i >>> 3)] >>> (56 - 8 * (i & 7)));
+            }
+            return bytes;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Layout && Arrays.equals(fields, ((Layout) obj).fields);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Layout[");
+            for (int i = 0; i < getFieldNum(); i++) {
+                sb.append(";fid=").append(getFieldId(i)).append(";ofst=").append(getOffset(i))
+                        .append(";len=").append(getLength(i));
+            }
+            return sb.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+/**
+ * Pre-encoded frames of the messages that are a bare header, identical on
+ * the wire apart from the xid: hello, echo request and reply without
+ * payload, features request, get config request and barrier request.
+ * <p>
+ * {@link #writeTo(OFMessage, ChannelBuffer)} copies the frame and patches
+ * the xid instead of running {@link OFMessage#writeTo}; it is what
+ * {@link org.onosproject.floodlightpof.protocol.netty.PofMessageEncoder}
+ * uses. {@link #writeFrame} and {@link #frame} send such messages without
+ * creating a message object at all.
+ *
+ */
+public final class PreEncodedMessages {
+    private static final byte[][] FRAMES = new byte[256][];
+    private static final Class<?>[] CLASSES = new Class<?>[256];
+
+    static {
+        register(new OFHello());
+        register(new OFEchoRequest());
+        register(new OFEchoReply());
+        register(new OFFeaturesRequest());
+        register(new OFGetConfigRequest());
+        register(new OFBarrierRequest());
+    }
+
+    private PreEncodedMessages() {
+    }
+
+    private static void register(OFMessage msg) {
+        // any non-zero xid keeps writeTo from drawing one from the allocator
+        msg.setXid(-1);
+        ChannelBuffer buffer = ChannelBuffers.buffer(msg.encodedLength());
+        msg.writeTo(buffer);
+        buffer.setInt(4, 0);
+        int type = msg.getType().getTypeValue() & 0xff;
+        FRAMES[type] = buffer.array();
+        CLASSES[type] = msg.getClass();
+    }
+
+    /**
+     * Whether a message of the given type has a pre-encoded frame.
+     * @param type
+     * @return true if pre-encoded
+     */
+    public static boolean isPreEncoded(OFType type) {
+        return FRAMES[type.getTypeValue() & 0xff] != null;
+    }
+
+    /**
+     * Whether a message is encoded exactly as the pre-encoded frame of its
+     * type: same class and version, and no payload.
+     * @param msg
+     * @return true if {@link #writeTo(OFMessage, ChannelBuffer)} applies
+     */
+    public static boolean matches(OFMessage msg) {
+        int type = msg.getType().getTypeValue() & 0xff;
+        return CLASSES[type] == msg.getClass()
+                && msg.getVersion() == OFMessage.OFP_VERSION
+                && msg.getLengthU() == OFMessage.MINIMUM_LENGTH
+                && msg.encodedLength() == OFMessage.MINIMUM_LENGTH;
+    }
+
+    /**
+     * Write a message from its pre-encoded frame if it has one. As with
+     * {@link OFMessage#writeTo}, a message without an xid is given one from
+     * {@link OFMessage#getXidAllocator()}.
+     * @param msg
+     * @param buffer
+     * @return false, writing nothing, if the message has no matching frame
+     */
+    public static boolean writeTo(OFMessage msg, ChannelBuffer buffer) {
+        if (!matches(msg)) {
+            return false;
+        }
+        if (msg.getXid() == 0) {
+            msg.setXid(OFMessage.getXidAllocator().nextXid());
+        }
+        writeFrame(msg.getType(), msg.getXid(), buffer);
+        return true;
+    }
+
+    /**
+     * Write the pre-encoded frame of a message type.
+     * @param type
+     * @param xid
+     * @param buffer
+     * @throws IllegalArgumentException if the type has no pre-encoded frame
+     */
+    public static void writeFrame(OFType type, int xid, ChannelBuffer buffer) {
+        byte[] frame = FRAMES[type.getTypeValue() & 0xff];
+        if (frame == null) {
+            throw new IllegalArgumentException("No pre-encoded frame for " + type);
+        }
+        buffer.writeBytes(frame, 0, 4);
+        buffer.writeInt(xid);
+    }
+
+    /**
+     * Get the pre-encoded frame of a message type in a new buffer.
+     * @param type
+     * @param xid
+     * @return the frame
+     * @throws IllegalArgumentException if the type has no pre-encoded frame
+     */
+    public static ChannelBuffer frame(OFType type, int xid) {
+        ChannelBuffer buffer = ChannelBuffers.buffer(OFMessage.MINIMUM_LENGTH);
+        writeFrame(type, xid, buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.floodlightpof.protocol;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free allocator of OpenFlow transaction ids.
+ * <p>
+ * One instance may be shared by all connections or kept per connection.
+ * The xid 0 is never handed out, it marks a message whose xid has not been
+ * set yet (see {@link OFMessage#writeTo}).
+ *
+ */
+public class XidAllocator {
+    protected final AtomicInteger nextXid;
+
+    public XidAllocator() {
+        this(1);
+    }
+
+    public XidAllocator(int initialXid) {
+        this.nextXid = new AtomicInteger(initialXid);
+    }
+
+    /**
+     * Get the next xid.
+     * @return a non-zero xid
+     */
+    public int nextXid() {
+        return reserve(1);
+    }
+
+    /**
+     * Reserve a contiguous block of xids with a single CAS.
+     * The block never contains 0, it restarts at 1 instead of wrapping over it.
+     * @param count number of xids to reserve, must be positive
+     * @return the first xid of the block, the block is [first, first + count)
+     */
+    public int reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        int current;
+        int first;
+        do {
+            current = nextXid.get();
+            first = current;
+            if (first <= 0 && (long) first + count > 0) {
+                first = 1;
+            }
+        } while (!nextXid.compareAndSet(current, first + count));
+        return first;
+    }
+
+    /**
+     * Assign xids to all messages of the batch whose xid is not set yet.
+     * The xids come from one contiguous block.
+     * @param msgs messages to assign
+     */
+    public void assign(List<? extends OFMessage> msgs) {
+        int count = 0;
+        for (OFMessage msg : msgs) {
+            if (msg.getXid() == 0) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+
+        int xid = reserve(count);
+        for (OFMessage msg : msgs) {
+            if (msg.getXid() == 0) {
+                msg.setXid(xid++);
+            }
+        }
+    }
+}
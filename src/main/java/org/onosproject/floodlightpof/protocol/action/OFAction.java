@@ -21,6 +21,7 @@ package org.onosproject.floodlightpof.protocol.action;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.onosproject.floodlightpof.protocol.OFGlobal;
 import org.onosproject.floodlightpof.util.HexString;
+import org.onosproject.floodlightpof.util.U16;
 
 /**
  * The base class for all OpenFlow Actions.
@@ -61,6 +62,17 @@ public class OFAction implements Cloneable {
         return MAXIMAL_LENGTH;
     }
 
+    /**
+     * Get the number of bytes {@link #writeTo(ChannelBuffer)} writes for this
+     * action, excluding the padding to {@link #MAXIMAL_LENGTH} added by
+     * legacy containers.
+     *
+     * @return encoded length in bytes
+     */
+    public int encodedLength() {
+        return U16.f(length);
+    }
+
     /**
      * Set the length of this message.
      *
@@ -90,9 +102,19 @@ public class OFAction implements Cloneable {
     }
 
     public String toBytesString() {
-        return HexString.toHex(type.getTypeValue()) +
-                HexString.toHex(length) +
-                " ";
+        return appendBytesString(new StringBuilder()).toString();
+    }
+
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, type.getTypeValue());
+        HexString.appendHex(sb, length);
+        sb.append(' ');
+        return sb;
     }
 
     /**
@@ -81,27 +81,28 @@ public class OFActionAddField extends OFAction {
         }
     }
 
-    public String toBytesString() {
-        String string = super.toBytesString() +
-                        HexString.toHex(fieldId) +
-                        HexString.toHex(fieldPosition) +
-                        " " +
-                        HexString.toHex(fieldLength) +
-                        HexString.toHex(fieldValue);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, fieldId);
+        HexString.appendHex(sb, fieldPosition);
+        sb.append(' ');
+        HexString.appendHex(sb, fieldLength);
+        HexString.appendHex(sb, fieldValue);
 
         if (fieldValue == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
         } else {
             if (fieldValue.length > OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE) {
-                string += HexString.toHex(fieldValue, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
-                string += HexString.zeroEnd(0);
+                HexString.appendHex(sb, fieldValue, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+                HexString.appendZeroEnd(sb, 0);
             } else {
-                string += HexString.toHex(fieldValue);
-                string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - fieldValue.length);
+                HexString.appendHex(sb, fieldValue);
+                HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - fieldValue.length);
             }
         }
 
-        return string;
+        return sb;
     }
 
     public String toString() {
@@ -74,18 +74,19 @@ public class OFActionCalculateCheckSum extends OFAction {
         data.writeZero(6);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                HexString.toHex(checksumPosType) +
-                HexString.toHex(calcPosType) +
-                HexString.toHex(checksumPosition) +
-                " " +
-                HexString.toHex(checksumLength) +
-                HexString.toHex(calcStartPosition) +
-                " " +
-                HexString.toHex(calcLength) +
-                HexString.byteZeroEnd(6);
-
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, checksumPosType);
+        HexString.appendHex(sb, calcPosType);
+        HexString.appendHex(sb, checksumPosition);
+        sb.append(' ');
+        HexString.appendHex(sb, checksumLength);
+        HexString.appendHex(sb, calcStartPosition);
+        sb.append(' ');
+        HexString.appendHex(sb, calcLength);
+        HexString.appendByteZeroEnd(sb, 6);
+        return sb;
     }
 
     public String toString() {
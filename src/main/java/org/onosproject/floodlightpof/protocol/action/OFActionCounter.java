@@ -56,10 +56,12 @@ public class OFActionCounter extends OFAction {
         data.writeZero(4);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                HexString.toHex(counterId) +
-                HexString.byteZeroEnd(4);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, counterId);
+        HexString.appendByteZeroEnd(sb, 4);
+        return sb;
     }
 
     public String toString() {
@@ -87,21 +87,23 @@ public class OFActionDeleteField extends OFAction {
         }
     }
 
-    public String toBytesString() {
-        String byteString =  super.toBytesString();
-        byteString += HexString.toHex(tagPosition) +
-                            HexString.toHex(tagLengthValueType) +
-                            HexString.byteZeroEnd(5);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, tagPosition);
+        HexString.appendHex(sb, tagLengthValueType);
+        HexString.appendByteZeroEnd(sb, 5);
 
         if (tagLengthValueType == 0) {
-            byteString += HexString.toHex(tagLengthValue) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, tagLengthValue);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (tagLengthValueType == 1 && tagLengthField != null) {
-            byteString += tagLengthField.toBytesString();
+            tagLengthField.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
-        return byteString;
+        return sb;
     }
 
     public String toString() {
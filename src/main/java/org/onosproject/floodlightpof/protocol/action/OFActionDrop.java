@@ -61,10 +61,12 @@ public class OFActionDrop extends OFAction {
         data.writeZero(4);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                HexString.toHex(reason) +
-                HexString.byteZeroEnd(4);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, reason);
+        HexString.appendByteZeroEnd(sb, 4);
+        return sb;
     }
 
     public String toString() {
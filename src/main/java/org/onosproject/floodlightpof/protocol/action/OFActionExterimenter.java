@@ -49,12 +49,14 @@ public class OFActionExterimenter extends OFAction {
     public void readFrom(ChannelBuffer data) {
         super.readFrom(data);
         this.exterimenter = data.readInt();
+        data.skipBytes(4);
     }
 
     @Override
     public void writeTo(ChannelBuffer data) {
         super.writeTo(data);
         data.writeInt(this.exterimenter);
+        data.writeZero(4);
     }
 
     @Override
@@ -55,10 +55,12 @@ public class OFActionGroup extends OFAction {
         data.writeZero(4);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                HexString.toHex(groupId) +
-                HexString.byteZeroEnd(4);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, groupId);
+        HexString.appendByteZeroEnd(sb, 4);
+        return sb;
     }
 
     public String toString() {
@@ -60,11 +60,13 @@ public class OFActionModifyField extends OFAction {
         data.writeZero(4);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                matchField.toBytesString() +
-                HexString.toHex(increment) +
-                HexString.byteZeroEnd(4);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        matchField.appendBytesString(sb);
+        HexString.appendHex(sb, increment);
+        HexString.appendByteZeroEnd(sb, 4);
+        return sb;
     }
 
     public String toString() {
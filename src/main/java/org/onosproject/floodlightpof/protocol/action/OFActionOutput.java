@@ -192,24 +192,26 @@ public class OFActionOutput extends OFAction {
         }
     }
 
-    public String toBytesString() {
-        String byteString =  super.toBytesString();
-        byteString += HexString.toHex(pordIdValueType) +
-                        HexString.byteZero(1) +
-                        HexString.toHex(metadataOffset) +
-                        HexString.toHex(metadataLength) +
-                        HexString.toHex(packetOffset) +
-                        " ";
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, pordIdValueType);
+        HexString.appendByteZero(sb, 1);
+        HexString.appendHex(sb, metadataOffset);
+        HexString.appendHex(sb, metadataLength);
+        HexString.appendHex(sb, packetOffset);
+        sb.append(' ');
 
         if (pordIdValueType == 0) {
-            byteString += HexString.toHex(portId) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, portId);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (pordIdValueType == 1 && portIdField != null) {
-            byteString += portIdField.toBytesString();
+            portIdField.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
-        return byteString;
+        return sb;
     }
 
     public String toString() {
@@ -52,9 +52,11 @@ public class OFActionSetField extends OFAction {
         fieldSetting.writeTo(data);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                fieldSetting.toBytesString();
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        fieldSetting.appendBytesString(sb);
+        return sb;
     }
 
     public String toString() {
@@ -61,11 +61,13 @@ public class OFActionSetFieldFromMetadata extends OFAction {
         data.writeZero(6);
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                fieldSetting.toBytesString() +
-                HexString.toHex(metadataOffset) +
-                HexString.byteZeroEnd(6);
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        fieldSetting.appendBytesString(sb);
+        HexString.appendHex(sb, metadataOffset);
+        HexString.appendByteZeroEnd(sb, 6);
+        return sb;
     }
 
     public String toString() {
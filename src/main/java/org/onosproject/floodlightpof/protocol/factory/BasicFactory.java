@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.OFPacketIn;
 import org.onosproject.floodlightpof.protocol.OFType;
 import org.onosproject.floodlightpof.protocol.action.OFAction;
 import org.onosproject.floodlightpof.protocol.action.OFActionType;
@@ -44,9 +45,67 @@ import org.onosproject.floodlightpof.protocol.statistics.OFVendorStatistics;
 public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstructionFactory,
                                         OFStatisticsFactory, OFExperimenterDataFactory,
                                         SMMessageFactory {
+    /**
+     * If true messages, actions and instructions are taken from the
+     * {@link OFObjectPool} of the decoding thread, see {@link OFMessage#release()}.
+     */
+    protected boolean recycling;
+
+    /**
+     * If true PACKET_IN payloads are kept as slices of the decoded buffer,
+     * see {@link OFPacketIn#setZeroCopy(boolean)}.
+     */
+    protected boolean zeroCopyPacketIn;
+
+    /**
+     * If true messages created by this factory use the compact layout, see
+     * {@link OFMessage#setCompact(boolean)}. Set it per connection from
+     * {@link org.onosproject.floodlightpof.protocol.OFFeaturesReply#supportsCompactEncoding()}.
+     */
+    protected boolean compactEncoding;
+
+    public BasicFactory() {
+        this(false);
+    }
+
+    public BasicFactory(boolean recycling) {
+        this.recycling = recycling;
+    }
+
+    public boolean isRecycling() {
+        return recycling;
+    }
+
+    public void setRecycling(boolean recycling) {
+        this.recycling = recycling;
+    }
+
+    public boolean isZeroCopyPacketIn() {
+        return zeroCopyPacketIn;
+    }
+
+    public void setZeroCopyPacketIn(boolean zeroCopyPacketIn) {
+        this.zeroCopyPacketIn = zeroCopyPacketIn;
+    }
+
+    public boolean isCompactEncoding() {
+        return compactEncoding;
+    }
+
+    public void setCompactEncoding(boolean compactEncoding) {
+        this.compactEncoding = compactEncoding;
+    }
+
     @Override
     public OFMessage getOFMessage(OFType t) {
-        return t.newInstance();
+        OFMessage message;
+        if (recycling) {
+            message = OFObjectPool.local().getMessage(t);
+        } else {
+            message = t.newInstance();
+        }
+        message.setCompact(compactEncoding);
+        return message;
     }
 
     @Override
@@ -73,23 +132,26 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
     }
 
     public OFMessage parseMessageOne(ChannelBuffer data) throws MessageParseException {
+        int start = data.readerIndex();
         try {
-            OFMessage demux = new OFMessage();
             OFMessage ofm = null;
 
             if (data.readableBytes() < OFMessage.MINIMUM_LENGTH) {
                 return ofm;
             }
 
-            data.markReaderIndex();
-            demux.readFrom(data);
-            data.resetReaderIndex();
+            // peek the header in place: type at offset 1, length at offset 2
+            OFType type = OFType.valueOf(data.getByte(start + 1));
+            int length = data.getUnsignedShort(start + 2);
 
-            if (demux.getLengthU() > data.readableBytes()) {
+            if (length > data.readableBytes()) {
                 return ofm;
             }
 
-            ofm = getOFMessage(demux.getType());
+            if (type == null) {
+                return null;
+            }
+            ofm = getOFMessage(type);
             if (ofm == null) {
                 return null;
             }
@@ -97,6 +159,9 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
             if (ofm instanceof OFActionFactoryAware) {
                 ((OFActionFactoryAware) ofm).setActionFactory(this);
             }
+            if (ofm instanceof OFInstructionFactoryAware) {
+                ((OFInstructionFactoryAware) ofm).setInstructionFactory(this);
+            }
             if (ofm instanceof OFMessageFactoryAware) {
                 ((OFMessageFactoryAware) ofm).setMessageFactory(this);
             }
@@ -106,17 +171,20 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
             if (ofm instanceof OFExperimenterDataFactoryAware) {
                 ((OFExperimenterDataFactoryAware) ofm).setExperimenterDataFactory(this);
             }
+            if (ofm instanceof OFPacketIn) {
+                ((OFPacketIn) ofm).setZeroCopy(zeroCopyPacketIn);
+            }
             ofm.readFrom(data);
-            if (OFMessage.class.equals(ofm.getClass())) {
-                // advance the position for un-implemented messages
-                data.readerIndex(data.readerIndex() + (ofm.getLengthU() -
-                        OFMessage.MINIMUM_LENGTH));
+            if (length >= OFMessage.MINIMUM_LENGTH) {
+                // the header length frames the message, skip any trailing
+                // padding and the body of un-implemented messages
+                data.readerIndex(start + length);
             }
 
             return ofm;
         } catch (Exception e) {
             /* Write the offending data along with the error message */
-            data.resetReaderIndex();
+            data.readerIndex(start);
             int len = data.readableBytes();
             StringBuffer sb = new StringBuffer();
                 for (int i = 0; i < len; i++) {
@@ -135,6 +203,9 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
 
     @Override
     public OFAction getAction(OFActionType t) {
+        if (recycling) {
+            return OFObjectPool.local().getAction(t);
+        }
         return t.newInstance();
     }
 
@@ -146,7 +217,6 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
     @Override
     public List<OFAction> parseActions(ChannelBuffer data, int length, int limit) {
         List<OFAction> results = new ArrayList<OFAction>();
-        OFAction demux = new OFAction();
         OFAction ofa;
         int end = data.readerIndex() + length;
 
@@ -156,16 +226,15 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
                 return results;
             }
 
-            data.markReaderIndex();
-            demux.readFrom(data);
-            data.resetReaderIndex();
+            // peek the type in place, every action occupies a maximal slot
+            OFActionType type = OFActionType.valueOf(data.getShort(data.readerIndex()));
 
-            if ((demux.getLengthU() > data.readableBytes() ||
-                (data.readerIndex() + demux.getLengthU()) > end)) {
+            if ((OFAction.MAXIMAL_LENGTH > data.readableBytes() ||
+                (data.readerIndex() + OFAction.MAXIMAL_LENGTH) > end)) {
                 return results;
             }
 
-            ofa = getAction(demux.getType());
+            ofa = getAction(type);
             ofa.readFrom(data);
             if (OFAction.class.equals(ofa.getClass())) {
                 // advance the position for un-implemented messages
@@ -179,6 +248,44 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
         return results;
     }
 
+    @Override
+    public List<OFAction> parseActions(ChannelBuffer data, int length, int limit, boolean compact) {
+        List<OFAction> results = new ArrayList<OFAction>();
+        int end = Math.min(data.readerIndex() + length, data.writerIndex());
+        OFAction ofa;
+
+        while (limit == 0 || results.size() < limit) {
+            int start = data.readerIndex();
+            if (start + OFAction.MINIMUM_LENGTH > end) {
+                break;
+            }
+
+            // peek the header in place, an empty slot marks the end of the actions
+            OFActionType type = OFActionType.valueOf(data.getShort(start));
+            int actionLength = data.getUnsignedShort(start + 2);
+            if (type == null || actionLength < OFAction.MINIMUM_LENGTH
+                    || start + actionLength > end) {
+                break;
+            }
+
+            ofa = getAction(type);
+            ofa.readFrom(data);
+            results.add(ofa);
+
+            if (compact) {
+                data.readerIndex(start + actionLength);
+            } else {
+                data.readerIndex(Math.min(start + OFAction.MAXIMAL_LENGTH, end));
+            }
+        }
+
+        if (!compact) {
+            // the legacy layout always occupies the whole region
+            data.readerIndex(end);
+        }
+        return results;
+    }
+
     @Override
     public OFActionFactory getActionFactory() {
         return this;
@@ -296,6 +403,9 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
 
     @Override
     public OFInstruction getInstruction(OFInstructionType t) {
+        if (recycling) {
+            return OFObjectPool.local().getInstruction(t);
+        }
         return t.newInstance();
     }
 
@@ -307,7 +417,6 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
     @Override
     public List<OFInstruction> parseInstructions(ChannelBuffer data, int length, int limit) {
         List<OFInstruction> results = new ArrayList<OFInstruction>();
-        OFInstruction demux = new OFInstruction();
         OFInstruction ofi;
         int end = data.readerIndex() + length;
 
@@ -317,16 +426,15 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
                 return results;
             }
 
-            data.markReaderIndex();
-            demux.readFrom(data);
-            data.resetReaderIndex();
+            // peek the type in place, every instruction occupies a maximal slot
+            OFInstructionType type = OFInstructionType.valueOf(data.getShort(data.readerIndex()));
 
-            if ((demux.getLengthU() > data.readableBytes() ||
-                (data.readerIndex() + demux.getLengthU()) > end)) {
+            if ((OFInstruction.MAXIMAL_LENGTH > data.readableBytes() ||
+                (data.readerIndex() + OFInstruction.MAXIMAL_LENGTH) > end)) {
                 return results;
             }
 
-            ofi = getInstruction(demux.getType());
+            ofi = getInstruction(type);
             ofi.readFrom(data);
             if (OFInstruction.class.equals(ofi.getClass())) {
                 // advance the position for un-implemented messages
@@ -338,4 +446,45 @@ public class BasicFactory implements OFMessageFactory, OFActionFactory, OFInstru
 
         return results;
     }
+
+    @Override
+    public List<OFInstruction> parseInstructions(ChannelBuffer data, int length, int limit, boolean compact) {
+        List<OFInstruction> results = new ArrayList<OFInstruction>();
+        int end = Math.min(data.readerIndex() + length, data.writerIndex());
+        OFInstruction ofi;
+
+        while (limit == 0 || results.size() < limit) {
+            int start = data.readerIndex();
+            if (start + OFInstruction.MINIMUM_LENGTH > end) {
+                break;
+            }
+
+            // peek the header in place, an empty slot marks the end of the instructions
+            OFInstructionType type = OFInstructionType.valueOf(data.getShort(start));
+            int instructionLength = data.getUnsignedShort(start + 2);
+            if (type == null || instructionLength < OFInstruction.MINIMUM_LENGTH
+                    || start + instructionLength > end) {
+                break;
+            }
+
+            ofi = getInstruction(type);
+            if (ofi instanceof OFActionFactoryAware) {
+                ((OFActionFactoryAware) ofi).setActionFactory(this);
+            }
+            ofi.readFrom(data);
+            results.add(ofi);
+
+            if (compact) {
+                data.readerIndex(start + instructionLength);
+            } else {
+                data.readerIndex(Math.min(start + OFInstruction.MAXIMAL_LENGTH, end));
+            }
+        }
+
+        if (!compact) {
+            // the legacy layout always occupies the whole region
+            data.readerIndex(end);
+        }
+        return results;
+    }
 }
@@ -57,4 +57,18 @@ public interface OFActionFactory {
      * @return a list of OFAction instances
      */
     public List<OFAction> parseActions(ChannelBuffer data, int length, int limit);
+
+    /**
+     * Attempts to parse and return the OFActions contained in the given
+     * ChannelBuffer, beginning at the ChannelBuffer's reader index, and ending at
+     * readerIndex+length. In the legacy layout every action occupies a fixed
+     * {@link OFAction#MAXIMAL_LENGTH} slot and the whole region is consumed; in
+     * the compact layout actions follow each other with their true lengths.
+     * @param data the ChannelBuffer to parse for OpenFlow actions
+     * @param length the number of Bytes to examine for OpenFlow actions
+     * @param limit the maximum number of actions to return, 0 means no limit
+     * @param compact true if the actions are encoded in the compact layout
+     * @return a list of OFAction instances
+     */
+    public List<OFAction> parseActions(ChannelBuffer data, int length, int limit, boolean compact);
 }
@@ -61,4 +61,18 @@ public interface OFInstructionFactory {
      */
     public List<OFInstruction> parseInstructions(ChannelBuffer data, int length, int limit);
 
+    /**
+     * Attempts to parse and return the OFInstructions contained in the given
+     * ChannelBuffer, beginning at the ChannelBuffer's reader index, and ending at
+     * readerIndex+length. In the legacy layout every instruction occupies a fixed
+     * {@link OFInstruction#MAXIMAL_LENGTH} slot and the whole region is consumed;
+     * in the compact layout instructions follow each other with their true lengths.
+     * @param data the ChannelBuffer to parse for OpenFlow instructions
+     * @param length the number of Bytes to examine for OpenFlow instructions
+     * @param limit the maximum number of instructions to return, 0 means no limit
+     * @param compact true if the instructions are encoded in the compact layout
+     * @return a list of OFInstruction instances
+     */
+    public List<OFInstruction> parseInstructions(ChannelBuffer data, int length, int limit, boolean compact);
+
 }
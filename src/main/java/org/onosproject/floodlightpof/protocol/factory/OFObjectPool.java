@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.floodlightpof.protocol.factory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.protocol.action.OFAction;
+import org.onosproject.floodlightpof.protocol.action.OFActionType;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionApplyActions;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionType;
+
+/**
+ * Per-thread pool of decoded objects, keyed by {@link OFType},
+ * {@link OFActionType} and {@link OFInstructionType}.
+ * <p>
+ * A pool is only ever touched by its own thread, so it needs no locking.
+ * Objects released on a thread that has no pool are left to the garbage
+ * collector. Every type keeps at most {@link #getCapacity()} idle objects.
+ *
+ */
+public final class OFObjectPool {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final ThreadLocal<OFObjectPool> LOCAL = new ThreadLocal<OFObjectPool>();
+
+    private final int capacity;
+    private final ArrayDeque<OFMessage>[] messages;
+    private final ArrayDeque<OFAction>[] actions;
+    private final ArrayDeque<OFInstruction>[] instructions;
+
+    private OFObjectPool(int capacity) {
+        this.capacity = capacity;
+        this.messages = newDeques(OFType.values().length);
+        this.actions = newDeques(OFActionType.values().length);
+        this.instructions = newDeques(OFInstructionType.values().length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayDeque<T>[] newDeques(int length) {
+        return (ArrayDeque<T>[]) new ArrayDeque<?>[length];
+    }
+
+    /**
+     * Get the pool of the calling thread, creating it if needed.
+     * @return the pool of the calling thread
+     */
+    public static OFObjectPool local() {
+        OFObjectPool pool = LOCAL.get();
+        if (pool == null) {
+            pool = new OFObjectPool(DEFAULT_CAPACITY);
+            LOCAL.set(pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Get the pool of the calling thread.
+     * @return the pool, or null if the thread never decoded in recycling mode
+     */
+    public static OFObjectPool current() {
+        return LOCAL.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OFMessage getMessage(OFType t) {
+        OFMessage msg = poll(messages, t.ordinal());
+        return msg == null ? t.newInstance() : msg;
+    }
+
+    public OFAction getAction(OFActionType t) {
+        OFAction action = poll(actions, t.ordinal());
+        return action == null ? t.newInstance() : action;
+    }
+
+    public OFInstruction getInstruction(OFInstructionType t) {
+        OFInstruction instruction = poll(instructions, t.ordinal());
+        return instruction == null ? t.newInstance() : instruction;
+    }
+
+    /**
+     * Return a message to the pool. The caller must not use it afterwards.
+     * @param msg
+     */
+    public void recycle(OFMessage msg) {
+        if (msg.getType() != null && msg.getType().toClass() == msg.getClass()) {
+            offer(messages, msg.getType().ordinal(), msg);
+        }
+    }
+
+    /**
+     * Return an action to the pool. The caller must not use it afterwards.
+     * @param action
+     */
+    public void recycle(OFAction action) {
+        if (action.getType() != null && action.getType().toClass() == action.getClass()) {
+            offer(actions, action.getType().ordinal(), action);
+        }
+    }
+
+    /**
+     * Return an instruction, and the actions it holds, to the pool.
+     * The caller must not use them afterwards.
+     * @param instruction
+     */
+    public void recycle(OFInstruction instruction) {
+        if (instruction instanceof OFInstructionApplyActions) {
+            OFInstructionApplyActions applyActions = (OFInstructionApplyActions) instruction;
+            recycleActions(applyActions.getActionList());
+            applyActions.setActionList(null);
+        }
+        if (instruction.getType() != null && instruction.getType().toClass() == instruction.getClass()) {
+            offer(instructions, instruction.getType().ordinal(), instruction);
+        }
+    }
+
+    public void recycleActions(List<OFAction> actionList) {
+        if (actionList == null) {
+            return;
+        }
+        for (OFAction action : actionList) {
+            if (action != null) {
+                recycle(action);
+            }
+        }
+    }
+
+    public void recycleInstructions(List<OFInstruction> instructionList) {
+        if (instructionList == null) {
+            return;
+        }
+        for (OFInstruction instruction : instructionList) {
+            if (instruction != null) {
+                recycle(instruction);
+            }
+        }
+    }
+
+    private static <T> T poll(ArrayDeque<T>[] deques, int index) {
+        ArrayDeque<T> deque = deques[index];
+        return deque == null ? null : deque.pollFirst();
+    }
+
+    private <T> void offer(ArrayDeque<T>[] deques, int index, T obj) {
+        ArrayDeque<T> deque = deques[index];
+        if (deque == null) {
+            deque = new ArrayDeque<T>(capacity);
+            deques[index] = deque;
+        }
+        if (deque.size() < capacity) {
+            deque.offerFirst(obj);
+        }
+    }
+}
@@ -28,6 +28,7 @@ package org.onosproject.floodlightpof.protocol.instruction;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.onosproject.floodlightpof.protocol.OFGlobal;
 import org.onosproject.floodlightpof.util.HexString;
+import org.onosproject.floodlightpof.util.U16;
 
 /**
  * The base class for OFInstruction. All OFInstructions must extend from this.
@@ -57,15 +58,35 @@ public class OFInstruction implements Cloneable {
         return MAXIMAL_LENGTH;
     }
 
+    /**
+     * Get the number of bytes writeTo writes for this instruction, excluding
+     * the padding to {@link #MAXIMAL_LENGTH} added by legacy flow_mods.
+     *
+     * @return encoded length in bytes
+     */
+    public int encodedLength() {
+        return U16.f(length);
+    }
+
     public void setLength(short length) {
         this.length = length;
     }
 
     public String toBytesString() {
-        return HexString.toHex(type.getTypeValue()) +
-                HexString.toHex(length) +
-                " " +
-                HexString.byteZeroEnd(4);
+        return appendBytesString(new StringBuilder()).toString();
+    }
+
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, type.getTypeValue());
+        HexString.appendHex(sb, length);
+        sb.append(' ');
+        HexString.appendByteZeroEnd(sb, 4);
+        return sb;
     }
 
     public String toString() {
@@ -81,8 +102,18 @@ public class OFInstruction implements Cloneable {
     }
 
     public void writeTo(ChannelBuffer data) {
+        writeHeaderTo(data, length);
+    }
+
+    /**
+     * Write the instruction header with the given length, leaving the length
+     * of this instruction as it is.
+     * @param data
+     * @param lenGth
+     */
+    protected void writeHeaderTo(ChannelBuffer data, short lenGth) {
         data.writeShort(type.getTypeValue());
-        data.writeShort(length);
+        data.writeShort(lenGth);
         data.writeInt(0);
     }
 
@@ -34,6 +34,7 @@ import org.onosproject.floodlightpof.protocol.action.OFAction;
 import org.onosproject.floodlightpof.protocol.factory.OFActionFactory;
 import org.onosproject.floodlightpof.protocol.factory.OFActionFactoryAware;
 import org.onosproject.floodlightpof.util.HexString;
+import org.onosproject.floodlightpof.util.U16;
 
 /**
  * Apply Actions.
@@ -46,6 +47,12 @@ public class OFInstructionApplyActions extends OFInstruction implements OFAction
     protected byte actionNum;
     protected List<OFAction> actionList;
 
+    /**
+     * If true the actions are encoded back-to-back with their true lengths
+     * instead of being padded to {@link OFAction#MAXIMAL_LENGTH} slots.
+     */
+    protected boolean compact;
+
     protected OFActionFactory actionFactory;
 
     public OFInstructionApplyActions() {
@@ -61,12 +68,35 @@ public class OFInstructionApplyActions extends OFInstruction implements OFAction
         if (this.actionFactory == null) {
             throw new RuntimeException("OFActionFactory not set");
         }
-        this.actionList = this.actionFactory.parseActions(data, OFGlobal
-                .OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION * OFAction.MAXIMAL_LENGTH);
+
+        // a fully populated compact instruction is byte-identical to the legacy one
+        int lengthU = U16.f(length);
+        this.compact = lengthU != MANIMAL_LENGTH;
+        if (compact) {
+            this.actionList = this.actionFactory.parseActions(data, lengthU - MINIMUM_LENGTH, actionNum, true);
+        } else {
+            this.actionList = this.actionFactory.parseActions(data, OFGlobal
+                    .OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION * OFAction.MAXIMAL_LENGTH, actionNum, false);
+        }
     }
 
     public void writeTo(ChannelBuffer data) {
-        super.writeTo(data);
+        writeTo(data, compact);
+    }
+
+    /**
+     * Write this instruction in the given layout, whatever its own compact
+     * flag. Neither the flag nor the length of this instruction is changed.
+     * @param data
+     * @param compactLayout true for the compact layout
+     */
+    public void writeTo(ChannelBuffer data, boolean compactLayout) {
+        if (compactLayout) {
+            writeCompactTo(data);
+            return;
+        }
+
+        writeHeaderTo(data, (short) MANIMAL_LENGTH);
         data.writeByte(actionNum);
         data.writeZero(7);
 
@@ -97,14 +127,66 @@ public class OFInstructionApplyActions extends OFInstruction implements OFAction
         }
     }
 
+    /**
+     * Write only the first actionNum actions, each with its own length.
+     * @param data
+     */
+    protected void writeCompactTo(ChannelBuffer data) {
+        writeHeaderTo(data, (short) getCompactLength());
+        data.writeByte(actionNum);
+        data.writeZero(7);
+
+        for (int i = 0; i < actionNum; i++) {
+            actionList.get(i).writeTo(data);
+        }
+    }
+
+    /**
+     * Get the length of this instruction in the compact layout.
+     * @return compact length
+     */
+    public int getCompactLength() {
+        int compactLength = MINIMUM_LENGTH;
+        if (actionNum == 0) {
+            return compactLength;
+        }
+        if (actionList == null || actionNum > actionList.size()
+                || actionNum > OFGlobal.OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION) {
+            throw new RuntimeException("actionNum " + actionNum + " can not be encoded compactly, actionList.size()"
+                    + (actionList == null ? 0 : actionList.size()));
+        }
+
+        OFAction action;
+        for (int i = 0; i < actionNum; i++) {
+            action = actionList.get(i);
+            if (action == null) {
+                throw new RuntimeException("action " + i + " is null");
+            }
+            compactLength += action.encodedLength();
+        }
+        return compactLength;
+    }
+
+    @Override
+    public int encodedLength() {
+        return compact ? getCompactLength() : MANIMAL_LENGTH;
+    }
+
     @Override
-    public String toBytesString() {
-        String string =  super.toBytesString() +
-                        HexString.toHex(actionNum) +
-                        HexString.byteZeroEnd(7);
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, actionNum);
+        HexString.appendByteZeroEnd(sb, 7);
+
+        if (compact) {
+            for (int i = 0; i < actionNum; i++) {
+                actionList.get(i).appendBytesString(sb);
+            }
+            return sb;
+        }
 
         if (actionList == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION * OFAction.MAXIMAL_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION * OFAction.MAXIMAL_LENGTH);
         } else {
             OFAction action;
 
@@ -116,21 +198,21 @@ public class OFInstructionApplyActions extends OFInstruction implements OFAction
             for (i = 0; i < actionNum && i < OFGlobal.OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION; i++) {
                 action = actionList.get(i);
                 if (action == null) {
-                    string += HexString.byteZeroEnd(OFAction.MAXIMAL_LENGTH);
+                    HexString.appendByteZeroEnd(sb, OFAction.MAXIMAL_LENGTH);
                 } else {
-                    string += action.toBytesString();
+                    action.appendBytesString(sb);
                     if (action.getLength() < OFAction.MAXIMAL_LENGTH) {
-                        string += HexString.byteZeroEnd(OFAction.MAXIMAL_LENGTH - action.getLength());
+                        HexString.appendByteZeroEnd(sb, OFAction.MAXIMAL_LENGTH - action.getLength());
                     }
                 }
             }
             if (i < OFGlobal.OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION) {
-                string += HexString.byteZeroEnd((OFGlobal
+                HexString.appendByteZeroEnd(sb, (OFGlobal
                         .OFP_MAX_ACTION_NUMBER_PER_INSTRUCTION - i) * OFAction.MAXIMAL_LENGTH);
             }
         }
 
-        return string;
+        return sb;
     }
 
     @Override
@@ -159,6 +241,12 @@ public class OFInstructionApplyActions extends OFInstruction implements OFAction
     public void setActionList(List<OFAction> actionList) {
         this.actionList = actionList;
     }
+    public boolean isCompact() {
+        return compact;
+    }
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
 
     @Override
     public int hashCode() {
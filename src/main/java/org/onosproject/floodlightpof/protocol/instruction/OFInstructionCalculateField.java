@@ -119,29 +119,30 @@ public class OFInstructionCalculateField  extends OFInstruction {
     }
 
     @Override
-    public String toBytesString() {
-        String byteString =  super.toBytesString();
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
 
         short ct = (calcType == null) ? (short) -1 : (short) calcType.ordinal();
-        byteString += HexString.toHex(ct) +
-                        HexString.toHex(srcValueType) +
-                        HexString.byteZeroEnd(5);
+        HexString.appendHex(sb, ct);
+        HexString.appendHex(sb, srcValueType);
+        HexString.appendByteZeroEnd(sb, 5);
 
         if (srcField != null) {
-            byteString += srcField.toBytesString();
+            srcField.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
         if (srcValueType == 0) {
-            byteString += HexString.toHex(srcValue) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, srcValue);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (srcValueType == 1 && srcField != null) {
-            byteString += srcField.toBytesString();
+            srcField.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
-        return byteString;
+        return sb;
     }
 
     @Override
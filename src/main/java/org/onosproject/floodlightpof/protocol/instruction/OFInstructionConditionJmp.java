@@ -195,58 +195,62 @@ public class OFInstructionConditionJmp extends OFInstruction {
     }
 
     @Override
-    public String toBytesString() {
-        String byteString =  super.toBytesString();
-
-        byteString += HexString.toHex(field2ValueType) +
-                        HexString.toHex(offset1Direction) +
-                        HexString.toHex(offset1ValueType) +
-                        HexString.toHex(offset2Direction) +
-                        " " +
-                        HexString.toHex(offset2ValueType) +
-                        HexString.toHex(offset3Direction) +
-                        HexString.toHex(offset3ValueType) +
-                        HexString.byteZeroEnd(1);
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+
+        HexString.appendHex(sb, field2ValueType);
+        HexString.appendHex(sb, offset1Direction);
+        HexString.appendHex(sb, offset1ValueType);
+        HexString.appendHex(sb, offset2Direction);
+        sb.append(' ');
+        HexString.appendHex(sb, offset2ValueType);
+        HexString.appendHex(sb, offset3Direction);
+        HexString.appendHex(sb, offset3ValueType);
+        HexString.appendByteZeroEnd(sb, 1);
 
         if (field1 != null) {
-            byteString += field1.toBytesString();
+            field1.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
         if (field2ValueType == 0) {
-            byteString += HexString.toHex(field2Value) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, field2Value);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (field2ValueType == 1 && field2 != null) {
-            byteString += field2.toBytesString();
+            field2.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
         if (offset1ValueType == 0) {
-            byteString += HexString.toHex(offset1Value) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, offset1Value);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (offset1ValueType == 1 && offset1Field != null) {
-            byteString += offset1Field.toBytesString();
+            offset1Field.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
         if (offset2ValueType == 0) {
-            byteString += HexString.toHex(offset2Value) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, offset2Value);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (offset2ValueType == 1 && offset2Field != null) {
-            byteString += offset2Field.toBytesString();
+            offset2Field.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
         if (offset3ValueType == 0) {
-            byteString += HexString.toHex(offset3Value) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, offset3Value);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (offset3ValueType == 1 && offset3Field != null) {
-            byteString += offset3Field.toBytesString();
+            offset3Field.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
-        return byteString;
+        return sb;
     }
 
     @Override
@@ -92,23 +92,24 @@ public class OFInstructionGotoDirectTable extends OFInstruction {
     }
 
     @Override
-    public String toBytesString() {
-        String byteString = super.toBytesString();
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
 
-        byteString += HexString.toHex(nextTableId) +
-                        HexString.toHex(indexType) +
-                        HexString.toHex(packetOffset) +
-                        HexString.byteZeroEnd(4);
+        HexString.appendHex(sb, nextTableId);
+        HexString.appendHex(sb, indexType);
+        HexString.appendHex(sb, packetOffset);
+        HexString.appendByteZeroEnd(sb, 4);
 
         if (indexType == 0) {
-            byteString += HexString.toHex(indexValue) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, indexValue);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (indexType == 1 && indexField != null) {
-            byteString += indexField.toBytesString();
+            indexField.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
-        return byteString;
+        return sb;
     }
 
     @Override
@@ -108,16 +108,16 @@ public class OFInstructionGotoTable extends OFInstruction {
         }
     }
     @Override
-    public String toBytesString() {
-        String string = super.toBytesString() +
-                        HexString.toHex(nextTableId) +
-                        HexString.toHex(matchFieldNum) +
-                        HexString.toHex(packetOffset) +
-                        " " +
-                        HexString.byteZeroEnd(4);
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, nextTableId);
+        HexString.appendHex(sb, matchFieldNum);
+        HexString.appendHex(sb, packetOffset);
+        sb.append(' ');
+        HexString.appendByteZeroEnd(sb, 4);
 
         if (this.matchList == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_MATCH_FIELD_NUM * OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_MATCH_FIELD_NUM * OFMatch20.MINIMUM_LENGTH);
         } else {
             OFMatch20 match20;
 
@@ -131,18 +131,18 @@ public class OFInstructionGotoTable extends OFInstruction {
             for (; i < matchFieldNum && i < OFGlobal.OFP_MAX_MATCH_FIELD_NUM; i++) {
                 match20 = matchList.get(i);
                 if (match20 == null) {
-                    string += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+                    HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
                 } else {
-                    string += match20.toBytesString();
+                    match20.appendBytesString(sb);
                 }
             }
             if (i < OFGlobal.OFP_MAX_MATCH_FIELD_NUM) {
-                string += HexString.byteZeroEnd((OFGlobal.OFP_MAX_MATCH_FIELD_NUM - i) * OFMatch20
+                HexString.appendByteZeroEnd(sb, (OFGlobal.OFP_MAX_MATCH_FIELD_NUM - i) * OFMatch20
                         .MINIMUM_LENGTH);
             }
         }
 
-        return string;
+        return sb;
     }
 
     @Override
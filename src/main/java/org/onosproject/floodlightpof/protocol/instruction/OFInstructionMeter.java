@@ -56,10 +56,11 @@ public class OFInstructionMeter extends OFInstruction {
     }
 
     @Override
-    public String toBytesString() {
-        return super.toBytesString() +
-                HexString.toHex(meterId) +
-                HexString.byteZeroEnd(4);
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, meterId);
+        HexString.appendByteZeroEnd(sb, 4);
+        return sb;
     }
 
     @Override
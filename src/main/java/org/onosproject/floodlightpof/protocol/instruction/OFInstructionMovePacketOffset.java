@@ -85,21 +85,22 @@ public class OFInstructionMovePacketOffset extends OFInstruction {
     }
 
     @Override
-    public String toBytesString() {
-        String byteString =  super.toBytesString();
-        byteString += HexString.toHex(direction) +
-                        HexString.toHex(valueType) +
-                        HexString.byteZeroEnd(6);
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, direction);
+        HexString.appendHex(sb, valueType);
+        HexString.appendByteZeroEnd(sb, 6);
 
         if (valueType == 0) {
-            byteString += HexString.toHex(moveValue) + HexString.byteZeroEnd(4);
+            HexString.appendHex(sb, moveValue);
+            HexString.appendByteZeroEnd(sb, 4);
         } else if (valueType == 1 && moveField != null) {
-            byteString += moveField.toBytesString();
+            moveField.appendBytesString(sb);
         } else {
-            byteString += HexString.byteZeroEnd(OFMatch20.MINIMUM_LENGTH);
+            HexString.appendByteZeroEnd(sb, OFMatch20.MINIMUM_LENGTH);
         }
 
-        return byteString;
+        return sb;
     }
 
     public String toString() {
@@ -28,9 +28,18 @@ package org.onosproject.floodlightpof.protocol.instruction;
 /**
  * Write Actions
  * <P>
- * FIXME NOT IMPLEMENT YET!
+ * Shares the wire layout (legacy and compact) of {@link OFInstructionApplyActions}.
  * TODO do not used in POF
  */
-public class OFInstructionWriteActions extends OFInstruction {
+public class OFInstructionWriteActions extends OFInstructionApplyActions {
 
+    public OFInstructionWriteActions() {
+        super();
+        super.setType(OFInstructionType.WRITE_ACTIONS);
+    }
+
+    @Override
+    public OFInstructionWriteActions clone() throws CloneNotSupportedException {
+        return (OFInstructionWriteActions) super.clone();
+    }
 }
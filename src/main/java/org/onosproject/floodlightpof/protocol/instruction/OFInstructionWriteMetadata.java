@@ -82,28 +82,26 @@ public class OFInstructionWriteMetadata extends OFInstruction {
     }
 
     @Override
-    public String toBytesString() {
-        String string =  super.toBytesString() +
-                            HexString.toHex(metadataOffset) +
-                            HexString.toHex(writeLength) +
-                            " " +
-                            HexString.toHex(value);
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, metadataOffset);
+        HexString.appendHex(sb, writeLength);
+        sb.append(' ');
+        HexString.appendHex(sb, value);
 
         if (value == null) {
-            string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+            HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
         } else {
             if (value.length > OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE) {
-                string += HexString.toHex(value, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
-                string += HexString.zeroEnd(0);
+                HexString.appendHex(sb, value, 0, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+                HexString.appendZeroEnd(sb, 0);
             } else {
-                //string += HexString.ZeroEnd(0);
-                string += HexString.toHex(value);
-                //string += HexString.ZeroEnd(0);
-                string += HexString.byteZeroEnd(OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - value.length);
+                HexString.appendHex(sb, value);
+                HexString.appendByteZeroEnd(sb, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE - value.length);
             }
         }
 
-        return string;
+        return sb;
     }
 
     @Override
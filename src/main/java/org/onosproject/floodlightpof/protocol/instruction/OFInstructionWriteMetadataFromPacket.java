@@ -63,13 +63,14 @@ public class OFInstructionWriteMetadataFromPacket extends OFInstruction {
     }
 
     @Override
-    public String toBytesString() {
-        return super.toBytesString() +
-                HexString.toHex(metadataOffset) +
-                HexString.toHex(packetOffset) +
-                " " +
-                HexString.toHex(writeLength) +
-                HexString.byteZeroEnd(2);
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        HexString.appendHex(sb, metadataOffset);
+        HexString.appendHex(sb, packetOffset);
+        sb.append(' ');
+        HexString.appendHex(sb, writeLength);
+        HexString.appendByteZeroEnd(sb, 2);
+        return sb;
     }
 
     @Override
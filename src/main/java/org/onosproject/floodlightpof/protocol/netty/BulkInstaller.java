@@ -0,0 +1,526 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.netty;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.onosproject.floodlightpof.protocol.OFBarrierReply;
+import org.onosproject.floodlightpof.protocol.OFBarrierRequest;
+import org.onosproject.floodlightpof.protocol.OFError;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.XidAllocator;
+
+/**
+ * Installs large sets of messages, typically flow mods, on one switch
+ * without waiting for each of them.
+ * <p>
+ * Messages are written in runs of {@code barrierInterval}, each followed by
+ * an {@link OFBarrierRequest}, while at most {@code maxBarriersInFlight}
+ * barriers are unanswered. Every message in flight is indexed by xid until
+ * the barrier covering it is answered. An {@link OFError} is attributed by
+ * its xid, which the switch copies from the failing request, or else by the
+ * xid in the echoed header of its offending message. When its last message
+ * is confirmed or failed, a {@link Batch} is handed to its
+ * {@link BatchListener}.
+ * <p>
+ * Pass every {@link OFError} and {@link OFBarrierReply} read from the
+ * channel to {@link #handle}, and call {@link #channelClosed()} when the
+ * channel goes away. Messages keep a caller supplied xid unless it is
+ * still in flight; the others get one from the xid allocator.
+ *
+ */
+public class BulkInstaller {
+    public static final int DEFAULT_BARRIER_INTERVAL = 256;
+    public static final int DEFAULT_MAX_BARRIERS_IN_FLIGHT = 8;
+
+    /**
+     * Called when every message of a batch is confirmed or failed, or when
+     * the channel closed first.
+     */
+    public interface BatchListener {
+        void batchComplete(Batch batch);
+    }
+
+    private final Channel channel;
+    private final XidAllocator xidAllocator;
+    private final int barrierInterval;
+    private final int maxBarriersInFlight;
+
+    private final ArrayDeque<Batch> queued = new ArrayDeque<Batch>();
+    private final ArrayDeque<Barrier> barriers = new ArrayDeque<Barrier>();
+    private final XidMap inFlight = new XidMap();
+    // messages in flight, by send sequence modulo the ring size
+    private final OFMessage[] sentMessages;
+    private final Batch[] sentBatches;
+    private final int ringMask;
+    private int nextSequence;
+    private int firstUnconfirmed;
+    private boolean closed;
+
+    public BulkInstaller(Channel channel, XidAllocator xidAllocator) {
+        this(channel, xidAllocator, DEFAULT_BARRIER_INTERVAL, DEFAULT_MAX_BARRIERS_IN_FLIGHT);
+    }
+
+    /**
+     * @param channel the switch connection
+     * @param xidAllocator allocator of the xids of messages and barriers
+     * @param barrierInterval messages between two barriers
+     * @param maxBarriersInFlight unanswered barriers after which writing pauses
+     */
+    public BulkInstaller(Channel channel, XidAllocator xidAllocator, int barrierInterval,
+                         int maxBarriersInFlight) {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel is null");
+        }
+        if (xidAllocator == null) {
+            throw new IllegalArgumentException("xidAllocator is null");
+        }
+        if (barrierInterval < 1) {
+            throw new IllegalArgumentException("barrierInterval must be positive: " + barrierInterval);
+        }
+        if (maxBarriersInFlight < 1) {
+            throw new IllegalArgumentException("maxBarriersInFlight must be positive: " + maxBarriersInFlight);
+        }
+        long window = (long) barrierInterval * maxBarriersInFlight;
+        if (window > 1 << 30) {
+            throw new IllegalArgumentException("Window of " + window + " messages is too large");
+        }
+        this.channel = channel;
+        this.xidAllocator = xidAllocator;
+        this.barrierInterval = barrierInterval;
+        this.maxBarriersInFlight = maxBarriersInFlight;
+        int ringSize = Integer.highestOneBit((int) window - 1) << 1;
+        this.sentMessages = new OFMessage[Math.max(ringSize, 1)];
+        this.sentBatches = new Batch[sentMessages.length];
+        this.ringMask = sentMessages.length - 1;
+    }
+
+    /**
+     * Queue messages for installation and write as many as the window allows.
+     * @param messages messages to install, kept by reference
+     * @param listener notified once the batch is complete; may be null
+     * @return the batch, which fills in as replies arrive
+     * @throws IllegalStateException if the channel was closed
+     */
+    public synchronized Batch install(List<? extends OFMessage> messages, BatchListener listener) {
+        if (closed) {
+            throw new IllegalStateException("Channel closed");
+        }
+        Batch batch = new Batch(new ArrayList<OFMessage>(messages), listener);
+        if (batch.messages.isEmpty()) {
+            batch.complete();
+        } else {
+            queued.add(batch);
+            pump();
+        }
+        return batch;
+    }
+
+    /**
+     * Process a message read from the switch.
+     * @param msg
+     * @return true if the message was an error or barrier reply for a
+     *         message sent by this installer
+     */
+    public synchronized boolean handle(OFMessage msg) {
+        if (msg instanceof OFBarrierReply) {
+            return barrierReply(msg.getXid());
+        }
+        if (msg instanceof OFError) {
+            return error((OFError) msg);
+        }
+        return false;
+    }
+
+    /**
+     * Complete all batches as aborted. Messages not confirmed by then count
+     * as unconfirmed.
+     */
+    public synchronized void channelClosed() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<Batch> aborted = new ArrayList<Batch>();
+        for (int sequence = firstUnconfirmed; sequence != nextSequence; sequence++) {
+            Batch batch = sentBatches[sequence & ringMask];
+            if (batch != null && !batch.aborted) {
+                batch.aborted = true;
+                aborted.add(batch);
+            }
+            release(sequence);
+        }
+        firstUnconfirmed = nextSequence;
+        for (Batch batch : queued) {
+            if (!batch.aborted) {
+                batch.aborted = true;
+                aborted.add(batch);
+            }
+        }
+        queued.clear();
+        barriers.clear();
+        inFlight.clear();
+        for (Batch batch : aborted) {
+            batch.complete();
+        }
+    }
+
+    /**
+     * Get the number of messages written and not yet confirmed or failed.
+     * @return messages in flight
+     */
+    public synchronized int getInFlightMessages() {
+        return inFlight.size();
+    }
+
+    public synchronized int getInFlightBarriers() {
+        return barriers.size();
+    }
+
+    /**
+     * Get the number of messages waiting for room in the window.
+     * @return queued messages
+     */
+    public synchronized int getQueuedMessages() {
+        int count = 0;
+        for (Batch batch : queued) {
+            count += batch.messages.size() - batch.written;
+        }
+        return count;
+    }
+
+    /**
+     * Write runs of queued messages, each closed by a barrier, while the
+     * window has room. All runs go out in a single write.
+     */
+    private void pump() {
+        List<OFMessage> out = null;
+        while (!queued.isEmpty() && barriers.size() < maxBarriersInFlight) {
+            if (out == null) {
+                out = new ArrayList<OFMessage>();
+            }
+            int run = 0;
+            while (run < barrierInterval && !queued.isEmpty()) {
+                Batch batch = queued.peek();
+                OFMessage msg = batch.messages.get(batch.written++);
+                if (batch.written == batch.messages.size()) {
+                    queued.poll();
+                }
+                if (msg.getXid() == 0 || inFlight.get(msg.getXid()) != XidMap.NONE) {
+                    msg.setXid(xidAllocator.nextXid());
+                }
+                int sequence = nextSequence++;
+                sentMessages[sequence & ringMask] = msg;
+                sentBatches[sequence & ringMask] = batch;
+                inFlight.put(msg.getXid(), sequence);
+                out.add(msg);
+                run++;
+            }
+            OFBarrierRequest barrier = new OFBarrierRequest();
+            barrier.setXid(xidAllocator.nextXid());
+            barriers.add(new Barrier(barrier.getXid(), nextSequence));
+            out.add(barrier);
+        }
+        if (out != null) {
+            channel.write(out);
+        }
+    }
+
+    /**
+     * Confirm every message written before the barrier. Replies to earlier
+     * barriers may have been lost or merged, so those are confirmed too.
+     */
+    private boolean barrierReply(int xid) {
+        boolean known = false;
+        for (Barrier barrier : barriers) {
+            if (barrier.xid == xid) {
+                known = true;
+                break;
+            }
+        }
+        if (!known) {
+            return false;
+        }
+        List<Batch> completed = new ArrayList<Batch>();
+        Barrier barrier;
+        do {
+            barrier = barriers.poll();
+            for (; firstUnconfirmed != barrier.end; firstUnconfirmed++) {
+                int slot = firstUnconfirmed & ringMask;
+                OFMessage msg = sentMessages[slot];
+                if (msg != null) {
+                    Batch batch = sentBatches[slot];
+                    inFlight.remove(msg.getXid());
+                    batch.succeeded++;
+                    if (batch.isSettled()) {
+                        completed.add(batch);
+                    }
+                }
+                release(firstUnconfirmed);
+            }
+        } while (barrier.xid != xid);
+        pump();
+        for (Batch batch : completed) {
+            batch.complete();
+        }
+        return true;
+    }
+
+    private boolean error(OFError error) {
+        int sequence = inFlight.get(error.getXid());
+        if (sequence == XidMap.NONE) {
+            // switches echo only a prefix of the offending message, so read its
+            // xid from the header rather than decoding it
+            byte[] data = error.getError();
+            if (data == null || data.length < OFMessage.MINIMUM_LENGTH) {
+                return false;
+            }
+            sequence = inFlight.get(ChannelBuffers.wrappedBuffer(data).getInt(4));
+            if (sequence == XidMap.NONE) {
+                return false;
+            }
+        }
+        int slot = sequence & ringMask;
+        OFMessage msg = sentMessages[slot];
+        Batch batch = sentBatches[slot];
+        inFlight.remove(msg.getXid());
+        release(sequence);
+        batch.failures.add(new Failure(msg, error));
+        if (batch.isSettled()) {
+            batch.complete();
+        }
+        return true;
+    }
+
+    private void release(int sequence) {
+        sentMessages[sequence & ringMask] = null;
+        sentBatches[sequence & ringMask] = null;
+    }
+
+    private static final class Barrier {
+        final int xid;
+        // send sequence of the first message after the barrier
+        final int end;
+
+        Barrier(int xid, int end) {
+            this.xid = xid;
+            this.end = end;
+        }
+    }
+
+    /**
+     * The result of one {@link #install} call.
+     */
+    public static final class Batch {
+        private final List<OFMessage> messages;
+        private final BatchListener listener;
+        private final List<Failure> failures = new ArrayList<Failure>();
+        private int written;
+        private int succeeded;
+        private boolean aborted;
+        private volatile boolean complete;
+
+        private Batch(List<OFMessage> messages, BatchListener listener) {
+            this.messages = messages;
+            this.listener = listener;
+        }
+
+        private boolean isSettled() {
+            return written == messages.size() && succeeded + failures.size() == messages.size();
+        }
+
+        private void complete() {
+            complete = true;
+            if (listener != null) {
+                listener.batchComplete(this);
+            }
+        }
+
+        public int getSize() {
+            return messages.size();
+        }
+
+        /**
+         * Get the number of messages confirmed by a barrier reply without error.
+         * @return succeeded messages
+         */
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * Get the messages that were not confirmed because the channel closed.
+         * @return unconfirmed messages
+         */
+        public int getUnconfirmed() {
+            return messages.size() - succeeded - failures.size();
+        }
+
+        public List<Failure> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * Whether the channel closed before the batch was complete.
+         * @return true if aborted
+         */
+        public boolean isAborted() {
+            return aborted;
+        }
+
+        @Override
+        public String toString() {
+            return "Batch [size=" + messages.size() + ", succeeded=" + succeeded + ", failed=" + failures.size()
+                    + ", complete=" + complete + ", aborted=" + aborted + "]";
+        }
+    }
+
+    /**
+     * A message the switch rejected.
+     */
+    public static final class Failure {
+        private final OFMessage message;
+        private final OFError error;
+
+        private Failure(OFMessage message, OFError error) {
+            this.message = message;
+            this.error = error;
+        }
+
+        public OFMessage getMessage() {
+            return message;
+        }
+
+        public OFError getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure [xid=" + message.getXid() + ", type=" + message.getType()
+                    + ", error=" + error.getErrorCodeString() + "]";
+        }
+    }
+
+    /**
+     * Open addressing map from xid to send sequence, on primitive arrays.
+     * The xid 0 marks a free slot; the allocator never hands it out.
+     */
+    private static final class XidMap {
+        static final int NONE = -1;
+
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        XidMap() {
+            allocate(1024);
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            allocate(1024);
+            size = 0;
+        }
+
+        private static int hash(int xid) {
+            int h = xid * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+
+        private int slot(int xid) {
+            int mask = keys.length - 1;
+            int slot = hash(xid) & mask;
+            while (keys[slot] != 0 && keys[slot] != xid) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        int get(int xid) {
+            if (xid == 0) {
+                return NONE;
+            }
+            int slot = slot(xid);
+            return keys[slot] == 0 ? NONE : values[slot];
+        }
+
+        void put(int xid, int value) {
+            int slot = slot(xid);
+            if (keys[slot] == 0) {
+                if ((size + 1) * 2 > keys.length) {
+                    resize();
+                    slot = slot(xid);
+                }
+                keys[slot] = xid;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        void remove(int xid) {
+            int mask = keys.length - 1;
+            int hole = slot(xid);
+            if (keys[hole] == 0) {
+                return;
+            }
+            keys[hole] = 0;
+            size--;
+            for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    keys[next] = 0;
+                    hole = next;
+                }
+            }
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) {
+                    continue;
+                }
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.netty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.XidAllocator;
+
+/**
+ * Sends one message to many switches, encoding it only once.
+ * <p>
+ * The message is encoded into a read-only buffer when the fan-out is
+ * created. Each destination is written its own 8 byte header carrying its
+ * xid, composed with a shared slice of the encoded body, so the body is
+ * neither copied nor re-encoded per switch. The buffers pass through
+ * {@link PofMessageEncoder} unchanged. The message itself is not modified,
+ * so it is never written with another destination's xid.
+ * <p>
+ * A fan-out may be written any number of times, from any thread.
+ *
+ */
+public class MessageFanOut {
+    private final ChannelBuffer encoded;
+    private final ChannelBuffer body;
+
+    /**
+     * Encode a message for fan-out.
+     * @param msg the message; its xid is ignored
+     */
+    public MessageFanOut(OFMessage msg) {
+        // writeTo may set the xid and header length, so encode a copy
+        OFMessage copy = msg.shallowCopy();
+        // any non-zero xid keeps writeTo from drawing one from the allocator
+        copy.setXid(-1);
+        ChannelBuffer buffer = ChannelBuffers.buffer(copy.encodedLength());
+        copy.writeTo(buffer);
+        // legacy messages may carry a stale header length
+        buffer.setShort(2, buffer.writerIndex());
+        buffer.setInt(4, 0);
+        encoded = ChannelBuffers.unmodifiableBuffer(buffer);
+        body = encoded.slice(OFMessage.MINIMUM_LENGTH, encoded.readableBytes() - OFMessage.MINIMUM_LENGTH);
+    }
+
+    /**
+     * Get the length of the encoded message.
+     * @return length in bytes
+     */
+    public int getLength() {
+        return encoded.readableBytes();
+    }
+
+    /**
+     * Get the message as sent with an xid. Only the header is copied.
+     * @param xid
+     * @return a new buffer holding the message
+     */
+    public ChannelBuffer frame(int xid) {
+        ChannelBuffer header = ChannelBuffers.buffer(OFMessage.MINIMUM_LENGTH);
+        header.writeBytes(encoded, 0, 4);
+        header.writeInt(xid);
+        if (!body.readable()) {
+            return header;
+        }
+        return ChannelBuffers.wrappedBuffer(header, body.duplicate());
+    }
+
+    /**
+     * Write the message to every channel, each with its own xid from one
+     * block of the allocator.
+     * @param channels destinations
+     * @param xidAllocator
+     * @param listener notified once every write completed; may be null
+     * @return the tracking of the writes
+     */
+    public FanOut writeTo(Collection<Channel> channels, XidAllocator xidAllocator, FanOutListener listener) {
+        FanOut fanOut = new FanOut(new ArrayList<Channel>(channels), listener);
+        int count = fanOut.channels.size();
+        if (count == 0) {
+            fanOut.complete();
+            return fanOut;
+        }
+        int xid = xidAllocator.reserve(count);
+        for (int i = 0; i < count; i++) {
+            fanOut.xids[i] = xid + i;
+        }
+        for (int i = 0; i < count; i++) {
+            final int destination = i;
+            Channel channel = fanOut.channels.get(i);
+            ChannelFuture future = channel.write(frame(fanOut.xids[i]));
+            future.addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture f) throws Exception {
+                    fanOut.written(destination, f);
+                }
+            });
+        }
+        return fanOut;
+    }
+
+    /**
+     * Called once every write of a fan-out completed.
+     */
+    public interface FanOutListener {
+        void fanOutComplete(FanOut fanOut);
+    }
+
+    /**
+     * The writes of one {@link #writeTo} call, by destination.
+     */
+    public static final class FanOut {
+        private final List<Channel> channels;
+        private final int[] xids;
+        private final Throwable[] causes;
+        private final FanOutListener listener;
+        private final AtomicInteger pending;
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private FanOut(List<Channel> channels, FanOutListener listener) {
+            this.channels = channels;
+            this.xids = new int[channels.size()];
+            this.causes = new Throwable[channels.size()];
+            this.listener = listener;
+            this.pending = new AtomicInteger(channels.size());
+        }
+
+        private void written(int destination, ChannelFuture future) {
+            if (!future.isSuccess()) {
+                Throwable cause = future.getCause();
+                synchronized (causes) {
+                    causes[destination] = cause != null ? cause : new IllegalStateException("Write cancelled");
+                }
+                failed.incrementAndGet();
+            }
+            if (pending.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (listener != null) {
+                listener.fanOutComplete(this);
+            }
+        }
+
+        public List<Channel> getChannels() {
+            return Collections.unmodifiableList(channels);
+        }
+
+        /**
+         * Get the xid the message was sent with to a destination, e.g. to
+         * match an error reply.
+         * @param destination position in {@link #getChannels()}
+         * @return the xid
+         */
+        public int getXid(int destination) {
+            return xids[destination];
+        }
+
+        /**
+         * Get why the write to a destination failed.
+         * @param destination position in {@link #getChannels()}
+         * @return the cause, or null if the write succeeded or is pending
+         */
+        public Throwable getCause(int destination) {
+            synchronized (causes) {
+                return causes[destination];
+            }
+        }
+
+        public int getPending() {
+            return pending.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public int getSucceeded() {
+            return channels.size() - pending.get() - failed.get();
+        }
+
+        public boolean isDone() {
+            return pending.get() == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "FanOut [destinations=" + channels.size() + ", pending=" + getPending()
+                    + ", failed=" + getFailed() + "]";
+        }
+    }
+}
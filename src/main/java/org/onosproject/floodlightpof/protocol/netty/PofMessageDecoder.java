@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.netty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.factory.MessageParseException;
+import org.onosproject.floodlightpof.protocol.factory.OFMessageFactory;
+
+/**
+ * Decodes POF messages from a stream.
+ * <p>
+ * Frames are cut on the 16-bit length at offset 2 of the header, without
+ * parsing their bodies, so a partial read costs one header peek. Every call
+ * parses all complete frames received so far, each one on its own with
+ * {@link OFMessageFactory#parseOFMessage(ChannelBuffer)}, and passes the
+ * resulting {@code List<OFMessage>} upstream as a single event. A frame the
+ * factory cannot parse, e.g. of an unknown type, is skipped and counted,
+ * and the frames after it are still delivered.
+ * <p>
+ * A decoder keeps per-channel state and must not be shared between channels.
+ *
+ */
+public class PofMessageDecoder extends FrameDecoder {
+    private final OFMessageFactory factory;
+    private long skippedFrames;
+
+    public PofMessageDecoder(OFMessageFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("factory is null");
+        }
+        this.factory = factory;
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer)
+            throws Exception {
+        int start = buffer.readerIndex();
+        int end = start;
+        int available = buffer.writerIndex();
+
+        while (available - end >= OFMessage.MINIMUM_LENGTH) {
+            int length = buffer.getUnsignedShort(end + 2);
+            if (length < OFMessage.MINIMUM_LENGTH) {
+                throw new MessageParseException("invalid message length " + length
+                        + " at offset " + (end - start));
+            }
+            if (available - end < length) {
+                break;
+            }
+            end += length;
+        }
+
+        if (end == start) {
+            return null;
+        }
+
+        ChannelBuffer frames = buffer.readSlice(end - start);
+        List<OFMessage> messages = new ArrayList<OFMessage>();
+        for (int offset = 0; offset < frames.capacity();) {
+            int length = frames.getUnsignedShort(offset + 2);
+            List<OFMessage> parsed;
+            try {
+                parsed = factory.parseOFMessage(frames.slice(offset, length));
+            } catch (MessageParseException e) {
+                parsed = null;
+            }
+            if (parsed == null) {
+                skippedFrames++;
+            } else {
+                messages.addAll(parsed);
+            }
+            offset += length;
+        }
+        return messages.isEmpty() ? null : messages;
+    }
+
+    /**
+     * Get the number of frames skipped because the factory could not parse
+     * them.
+     * @return skipped frames
+     */
+    public long getSkippedFrames() {
+        return skippedFrames;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.netty;
+
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandler.Sharable;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.PreEncodedMessages;
+
+/**
+ * Encodes an {@link OFMessage}, or a {@code List<OFMessage>}, into a single
+ * dynamic buffer taken from the channel's buffer factory. The buffer is sized
+ * from {@link OFMessage#encodedLength()}, so a batch is written without
+ * reallocation. Messages that are a bare header are copied from
+ * {@link PreEncodedMessages}. Other objects are passed through unchanged.
+ *
+ */
+@Sharable
+public class PofMessageEncoder extends OneToOneEncoder {
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg)
+            throws Exception {
+        if (msg instanceof OFMessage) {
+            OFMessage message = (OFMessage) msg;
+            ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(
+                    Math.max(message.encodedLength(), OFMessage.MINIMUM_LENGTH),
+                    channel.getConfig().getBufferFactory());
+            if (!PreEncodedMessages.writeTo(message, buffer)) {
+                message.writeTo(buffer);
+            }
+            return buffer;
+        }
+        if (!(msg instanceof List)) {
+            return msg;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<OFMessage> messages = (List<OFMessage>) msg;
+        int size = 0;
+        for (OFMessage message : messages) {
+            size += message.encodedLength();
+        }
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(Math.max(size, OFMessage.MINIMUM_LENGTH),
+                channel.getConfig().getBufferFactory());
+        for (OFMessage message : messages) {
+            if (!PreEncodedMessages.writeTo(message, buffer)) {
+                message.writeTo(buffer);
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.netty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelDownstreamHandler;
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+
+/**
+ * Coalesces outgoing messages so that a burst is written as a few large
+ * buffers instead of one write per message.
+ * <p>
+ * Written {@link OFMessage}s and {@code List<OFMessage>}s are queued and sent
+ * downstream as one {@code List<OFMessage>} once {@code maxMessages} are
+ * pending, or {@code maxDelayMicros} after the first of them was queued,
+ * whichever comes first. Place it above {@link PofMessageEncoder} in the
+ * pipeline. Any other write, a close or a disconnect first flushes what is
+ * pending, so ordering is kept. The future of every queued write completes
+ * when its batch has been written.
+ * <p>
+ * The delay is only as precise as the tick of the given {@link Timer}. A
+ * handler keeps per-channel state and must not be shared between channels.
+ *
+ */
+public class PofWriteCoalescingHandler extends SimpleChannelDownstreamHandler {
+    public static final int DEFAULT_MAX_MESSAGES = 64;
+    public static final long DEFAULT_MAX_DELAY_MICROS = 100;
+
+    private final Timer timer;
+    private final int maxMessages;
+    private final long maxDelayMicros;
+
+    private ChannelHandlerContext context;
+    private Batch pending;
+    private Timeout flushTimeout;
+
+    public PofWriteCoalescingHandler(Timer timer) {
+        this(timer, DEFAULT_MAX_MESSAGES, DEFAULT_MAX_DELAY_MICROS);
+    }
+
+    public PofWriteCoalescingHandler(Timer timer, int maxMessages, long maxDelayMicros) {
+        if (timer == null) {
+            throw new IllegalArgumentException("timer is null");
+        }
+        if (maxMessages < 1) {
+            throw new IllegalArgumentException("maxMessages must be positive: " + maxMessages);
+        }
+        if (maxDelayMicros < 0) {
+            throw new IllegalArgumentException("maxDelayMicros is negative: " + maxDelayMicros);
+        }
+        this.timer = timer;
+        this.maxMessages = maxMessages;
+        this.maxDelayMicros = maxDelayMicros;
+        this.pending = new Batch(maxMessages);
+    }
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    public long getMaxDelayMicros() {
+        return maxDelayMicros;
+    }
+
+    @Override
+    public synchronized void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        this.context = ctx;
+        Object msg = e.getMessage();
+        if (msg instanceof OFMessage) {
+            pending.add((OFMessage) msg);
+        } else if (msg instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<OFMessage> messages = (List<OFMessage>) msg;
+            pending.addAll(messages);
+        } else {
+            flushPending();
+            ctx.sendDownstream(e);
+            return;
+        }
+        pending.futures.add(e.getFuture());
+
+        if (pending.size() >= maxMessages || maxDelayMicros == 0) {
+            flushPending();
+        } else if (flushTimeout == null) {
+            flushTimeout = timer.newTimeout(new FlushTask(), maxDelayMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    @Override
+    public void closeRequested(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        synchronized (this) {
+            this.context = ctx;
+            flushPending();
+        }
+        super.closeRequested(ctx, e);
+    }
+
+    @Override
+    public void disconnectRequested(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        synchronized (this) {
+            this.context = ctx;
+            flushPending();
+        }
+        super.disconnectRequested(ctx, e);
+    }
+
+    /**
+     * Write the pending messages now, e.g. before waiting on a barrier.
+     */
+    public synchronized void flush() {
+        flushPending();
+    }
+
+    /**
+     * Send the pending batch downstream. Batches are written holding the
+     * lock, so that they leave in the order their messages were queued.
+     */
+    private void flushPending() {
+        if (flushTimeout != null) {
+            flushTimeout.cancel();
+            flushTimeout = null;
+        }
+        if (pending.isEmpty() || context == null) {
+            return;
+        }
+        final Batch batch = pending;
+        pending = new Batch(maxMessages);
+
+        ChannelFuture future = Channels.future(context.getChannel());
+        future.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture f) throws Exception {
+                for (ChannelFuture queued : batch.futures) {
+                    if (f.isSuccess()) {
+                        queued.setSuccess();
+                    } else if (f.isCancelled()) {
+                        queued.cancel();
+                    } else {
+                        queued.setFailure(f.getCause());
+                    }
+                }
+            }
+        });
+        Channels.write(context, future, batch);
+    }
+
+    /**
+     * The messages of one write, with the futures of the writes they came from.
+     */
+    @SuppressWarnings("serial")
+    private static final class Batch extends ArrayList<OFMessage> {
+        private final List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+
+        private Batch(int capacity) {
+            super(capacity);
+        }
+    }
+
+    private final class FlushTask implements TimerTask {
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            synchronized (PofWriteCoalescingHandler.this) {
+                if (timeout == flushTimeout) {
+                    flushTimeout = null;
+                    flushPending();
+                }
+            }
+        }
+    }
+}
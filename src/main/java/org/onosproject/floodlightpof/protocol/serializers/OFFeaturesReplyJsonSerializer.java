@@ -38,19 +38,7 @@ public class OFFeaturesReplyJsonSerializer extends JsonSerializer<OFFeaturesRepl
     @Override
     public void serialize(OFFeaturesReply reply, JsonGenerator jGen, SerializerProvider serializer)
             throws IOException, JsonProcessingException {
-        jGen.writeStartObject();
-        jGen.writeNumberField("capabilities", reply.getCapabilities());
-        jGen.writeStringField("deviceForwardEngineName", reply.getDeviceForwardEngineName());
-        jGen.writeStringField("deviceLookupEngineName", reply.getDeviceLookupEngineName());
-        jGen.writeNumberField("deviceId", reply.getDeviceId());
-        jGen.writeStringField("experimenterName", reply.getExperimenterName());
-        jGen.writeNumberField("length", reply.getLength());
-        jGen.writeNumberField("portNum", reply.getPortNum());
-        jGen.writeNumberField("tableNum", reply.getTableNum());
-        jGen.writeStringField("type", reply.getType().toString());
-        jGen.writeNumberField("version", reply.getVersion());
-        jGen.writeNumberField("xid", reply.getXid());
-        jGen.writeEndObject();
+        new OFJsonStreamWriter(jGen).writeFeaturesReply(reply);
     }
 
     /**
@@ -0,0 +1,528 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.serializers;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.io.SerializedString;
+import org.onosproject.floodlightpof.protocol.OFFeaturesReply;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.OFGlobal;
+import org.onosproject.floodlightpof.protocol.OFMatch;
+import org.onosproject.floodlightpof.protocol.OFMatchX;
+import org.onosproject.floodlightpof.protocol.OFPhysicalPort;
+import org.onosproject.floodlightpof.protocol.action.OFAction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.statistics.OFFlowStatisticsReply;
+import org.onosproject.floodlightpof.protocol.statistics.OFPortStatisticsReply;
+import org.onosproject.floodlightpof.protocol.statistics.OFTableStatistics;
+import org.onosproject.floodlightpof.protocol.table.OFFlowTableResource;
+import org.onosproject.floodlightpof.protocol.table.OFTableResource;
+import org.onosproject.floodlightpof.protocol.table.OFTableType;
+import org.onosproject.floodlightpof.util.U64;
+
+/**
+ * Streams protocol objects to a single {@link JsonGenerator}, without
+ * intermediate maps or bean introspection. Field names are pre-encoded once,
+ * MAC, IP and hex values are formatted into a scratch buffer, and unsigned
+ * counters and cookies are written as unsigned numbers.
+ *
+ * A writer is meant to export one large reply, e.g. all flow statistics of
+ * a switch, and is not thread safe. The Jackson serializers of this package
+ * delegate to it, so both paths produce the same fields.
+ *
+ */
+public class OFJsonStreamWriter implements Closeable, Flushable {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // OFMatch
+    private static final SerializedString DATA_LAYER_DESTINATION = new SerializedString("dataLayerDestination");
+    private static final SerializedString DATA_LAYER_SOURCE = new SerializedString("dataLayerSource");
+    private static final SerializedString DATA_LAYER_TYPE = new SerializedString("dataLayerType");
+    private static final SerializedString DATA_LAYER_VIRTUAL_LAN = new SerializedString("dataLayerVirtualLan");
+    private static final SerializedString DATA_LAYER_VIRTUAL_LAN_PCP =
+            new SerializedString("dataLayerVirtualLanPriorityCodePoint");
+    private static final SerializedString INPUT_PORT = new SerializedString("inputPort");
+    private static final SerializedString NETWORK_DESTINATION = new SerializedString("networkDestination");
+    private static final SerializedString NETWORK_DESTINATION_MASK_LEN = new SerializedString("networkDestinationMaskLen");
+    private static final SerializedString NETWORK_PROTOCOL = new SerializedString("networkProtocol");
+    private static final SerializedString NETWORK_SOURCE = new SerializedString("networkSource");
+    private static final SerializedString NETWORK_SOURCE_MASK_LEN = new SerializedString("networkSourceMaskLen");
+    private static final SerializedString NETWORK_TYPE_OF_SERVICE = new SerializedString("networkTypeOfService");
+    private static final SerializedString TRANSPORT_DESTINATION = new SerializedString("transportDestination");
+    private static final SerializedString TRANSPORT_SOURCE = new SerializedString("transportSource");
+    private static final SerializedString WILDCARDS = new SerializedString("wildcards");
+
+    // OFPhysicalPort
+    private static final SerializedString ADVERTISED_FEATURES = new SerializedString("advertisedFeatures");
+    private static final SerializedString CONFIG = new SerializedString("config");
+    private static final SerializedString CURRENT_FEATURES = new SerializedString("currentFeatures");
+    private static final SerializedString CURRENT_SPEED = new SerializedString("currentSpeed");
+    private static final SerializedString DEVICE_ID = new SerializedString("deviceId");
+    private static final SerializedString HARDWARE_ADDRESS = new SerializedString("hardwareAddress");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString OPENFLOW_ENABLE = new SerializedString("openflowEnable");
+    private static final SerializedString PEER_FEATURES = new SerializedString("peerFeatures");
+    private static final SerializedString PORT_ID = new SerializedString("portId");
+    private static final SerializedString STATE = new SerializedString("state");
+    private static final SerializedString SUPPORTED_FEATURES = new SerializedString("supportedFeatures");
+    private static final SerializedString MAX_SPEED = new SerializedString("maxSpeed");
+
+    // OFFeaturesReply
+    private static final SerializedString CAPABILITIES = new SerializedString("capabilities");
+    private static final SerializedString DEVICE_FORWARD_ENGINE_NAME = new SerializedString("deviceForwardEngineName");
+    private static final SerializedString DEVICE_LOOKUP_ENGINE_NAME = new SerializedString("deviceLookupEngineName");
+    private static final SerializedString EXPERIMENTER_NAME = new SerializedString("experimenterName");
+    private static final SerializedString LENGTH = new SerializedString("length");
+    private static final SerializedString PORT_NUM = new SerializedString("portNum");
+    private static final SerializedString TABLE_NUM = new SerializedString("tableNum");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString XID = new SerializedString("xid");
+
+    // statistics
+    private static final SerializedString TABLE_ID = new SerializedString("tableId");
+    private static final SerializedString MATCH = new SerializedString("match");
+    private static final SerializedString DURATION_SECONDS = new SerializedString("durationSeconds");
+    private static final SerializedString DURATION_NANOSECONDS = new SerializedString("durationNanoseconds");
+    private static final SerializedString PRIORITY = new SerializedString("priority");
+    private static final SerializedString IDLE_TIMEOUT = new SerializedString("idleTimeout");
+    private static final SerializedString HARD_TIMEOUT = new SerializedString("hardTimeout");
+    private static final SerializedString COOKIE = new SerializedString("cookie");
+    private static final SerializedString PACKET_COUNT = new SerializedString("packetCount");
+    private static final SerializedString BYTE_COUNT = new SerializedString("byteCount");
+    private static final SerializedString ACTIONS = new SerializedString("actions");
+    private static final SerializedString PORT_NUMBER = new SerializedString("portNumber");
+    private static final SerializedString RECEIVE_PACKETS = new SerializedString("receivePackets");
+    private static final SerializedString TRANSMIT_PACKETS = new SerializedString("transmitPackets");
+    private static final SerializedString RECEIVE_BYTES = new SerializedString("receiveBytes");
+    private static final SerializedString TRANSMIT_BYTES = new SerializedString("transmitBytes");
+    private static final SerializedString RECEIVE_DROPPED = new SerializedString("receiveDropped");
+    private static final SerializedString TRANSMIT_DROPPED = new SerializedString("transmitDropped");
+    private static final SerializedString RECEIVE_ERRORS = new SerializedString("receiveErrors");
+    private static final SerializedString TRANSMIT_ERRORS = new SerializedString("transmitErrors");
+    private static final SerializedString RECEIVE_FRAME_ERRORS = new SerializedString("receiveFrameErrors");
+    private static final SerializedString RECEIVE_OVERRUN_ERRORS = new SerializedString("receiveOverrunErrors");
+    private static final SerializedString RECEIVE_CRC_ERRORS = new SerializedString("receiveCrcErrors");
+    private static final SerializedString COLLISIONS = new SerializedString("collisions");
+    private static final SerializedString MAXIMUM_ENTRIES = new SerializedString("maximumEntries");
+    private static final SerializedString ACTIVE_COUNT = new SerializedString("activeCount");
+    private static final SerializedString LOOKUP_COUNT = new SerializedString("lookupCount");
+    private static final SerializedString MATCHED_COUNT = new SerializedString("matchedCount");
+
+    // OFFlowMod
+    private static final SerializedString COMMAND = new SerializedString("command");
+    private static final SerializedString TABLE_TYPE = new SerializedString("tableType");
+    private static final SerializedString INDEX = new SerializedString("index");
+    private static final SerializedString COUNTER_ID = new SerializedString("counterId");
+    private static final SerializedString COOKIE_MASK = new SerializedString("cookieMask");
+    private static final SerializedString MATCH_LIST = new SerializedString("matchList");
+    private static final SerializedString INSTRUCTION_LIST = new SerializedString("instructionList");
+    private static final SerializedString FIELD_ID = new SerializedString("fieldId");
+    private static final SerializedString OFFSET = new SerializedString("offset");
+    private static final SerializedString VALUE = new SerializedString("value");
+    private static final SerializedString MASK = new SerializedString("mask");
+
+    // OFFlowTableResource
+    private static final SerializedString RESOURCE_TYPE = new SerializedString("resourceType");
+    private static final SerializedString SLOT_ID = new SerializedString("slotId");
+    private static final SerializedString COUNTER_NUM = new SerializedString("counterNum");
+    private static final SerializedString METER_NUM = new SerializedString("meterNum");
+    private static final SerializedString GROUP_NUM = new SerializedString("groupNum");
+    private static final SerializedString TABLE_RESOURCES = new SerializedString("tableResources");
+    private static final SerializedString KEY_LENGTH = new SerializedString("keyLength");
+    private static final SerializedString TOTAL_SIZE = new SerializedString("totalSize");
+
+    private final JsonGenerator jGen;
+    private final char[] scratch = new char[OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE * 2];
+
+    /**
+     * Create a writer on top of an existing generator.
+     * @param jGen
+     */
+    public OFJsonStreamWriter(JsonGenerator jGen) {
+        this.jGen = jGen;
+    }
+
+    /**
+     * Create a writer emitting UTF-8 JSON to a stream.
+     * @param out
+     * @throws IOException
+     */
+    public OFJsonStreamWriter(OutputStream out) throws IOException {
+        this(JSON_FACTORY.createJsonGenerator(out, JsonEncoding.UTF8));
+    }
+
+    public JsonGenerator getGenerator() {
+        return jGen;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        jGen.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        jGen.close();
+    }
+
+    /**
+     * Write an unsigned 64-bit value.
+     */
+    private void writeUnsignedField(SerializedString name, long value) throws IOException {
+        jGen.writeFieldName(name);
+        if (value >= 0) {
+            jGen.writeNumber(value);
+        } else {
+            jGen.writeNumber(U64.toString(value));
+        }
+    }
+
+    private void writeNumberField(SerializedString name, long value) throws IOException {
+        jGen.writeFieldName(name);
+        jGen.writeNumber(value);
+    }
+
+    private void writeStringField(SerializedString name, String value) throws IOException {
+        jGen.writeFieldName(name);
+        jGen.writeString(value);
+    }
+
+    /**
+     * Write up to 16 bytes as a plain hex string.
+     */
+    private void writeHexField(SerializedString name, byte[] bytes) throws IOException {
+        jGen.writeFieldName(name);
+        if (bytes == null) {
+            jGen.writeNull();
+            return;
+        }
+        int length = Math.min(bytes.length, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE);
+        for (int i = 0; i < length; i++) {
+            scratch[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            scratch[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        jGen.writeString(scratch, 0, length * 2);
+    }
+
+    /**
+     * Write a MAC address as "0f:ca:fe:de:ad:be".
+     */
+    private void writeMacField(SerializedString name, byte[] mac) throws IOException {
+        jGen.writeFieldName(name);
+        int length = Math.min(mac.length, scratch.length / 3);
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                scratch[position++] = ':';
+            }
+            scratch[position++] = HEX_DIGITS[(mac[i] >> 4) & 0xf];
+            scratch[position++] = HEX_DIGITS[mac[i] & 0xf];
+        }
+        jGen.writeString(scratch, 0, position);
+    }
+
+    /**
+     * Write an IPv4 address held in an int as a dotted-decimal string.
+     */
+    private void writeIpField(SerializedString name, int ip) throws IOException {
+        jGen.writeFieldName(name);
+        int position = 0;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int octet = (ip >> shift) & 0xff;
+            if (octet >= 100) {
+                scratch[position++] = (char) ('0' + octet / 100);
+            }
+            if (octet >= 10) {
+                scratch[position++] = (char) ('0' + octet / 10 % 10);
+            }
+            scratch[position++] = (char) ('0' + octet % 10);
+            if (shift > 0) {
+                scratch[position++] = '.';
+            }
+        }
+        jGen.writeString(scratch, 0, position);
+    }
+
+    /**
+     * Write an ethertype as "0x0800".
+     */
+    private void writeEtherTypeField(SerializedString name, short etherType) throws IOException {
+        jGen.writeFieldName(name);
+        scratch[0] = '0';
+        scratch[1] = 'x';
+        for (int i = 0; i < 4; i++) {
+            scratch[2 + i] = HEX_DIGITS[(etherType >> (12 - 4 * i)) & 0xf];
+        }
+        jGen.writeString(scratch, 0, 6);
+    }
+
+    public void writeMatch(OFMatch match) throws IOException {
+        jGen.writeStartObject();
+        writeMacField(DATA_LAYER_DESTINATION, match.getDataLayerDestination());
+        writeMacField(DATA_LAYER_SOURCE, match.getDataLayerSource());
+        writeEtherTypeField(DATA_LAYER_TYPE, match.getDataLayerType());
+        writeNumberField(DATA_LAYER_VIRTUAL_LAN, match.getDataLayerVirtualLan());
+        writeNumberField(DATA_LAYER_VIRTUAL_LAN_PCP, match.getDataLayerVirtualLanPriorityCodePoint());
+        writeNumberField(INPUT_PORT, match.getInputPort());
+        writeIpField(NETWORK_DESTINATION, match.getNetworkDestination());
+        writeNumberField(NETWORK_DESTINATION_MASK_LEN, match.getNetworkDestinationMaskLen());
+        writeNumberField(NETWORK_PROTOCOL, match.getNetworkProtocol());
+        writeIpField(NETWORK_SOURCE, match.getNetworkSource());
+        writeNumberField(NETWORK_SOURCE_MASK_LEN, match.getNetworkSourceMaskLen());
+        writeNumberField(NETWORK_TYPE_OF_SERVICE, match.getNetworkTypeOfService());
+        writeNumberField(TRANSPORT_DESTINATION, match.getTransportDestination());
+        writeNumberField(TRANSPORT_SOURCE, match.getTransportSource());
+        writeNumberField(WILDCARDS, match.getWildcards());
+        jGen.writeEndObject();
+    }
+
+    public void writePhysicalPort(OFPhysicalPort port) throws IOException {
+        jGen.writeStartObject();
+        writeNumberField(ADVERTISED_FEATURES, port.getAdvertisedFeatures());
+        writeNumberField(CONFIG, port.getConfig());
+        writeNumberField(CURRENT_FEATURES, port.getCurrentFeatures());
+        writeNumberField(CURRENT_SPEED, port.getCurrentSpeed());
+        writeNumberField(DEVICE_ID, port.getDeviceId());
+        writeMacField(HARDWARE_ADDRESS, port.getHardwareAddress());
+        writeStringField(NAME, port.getName());
+        writeNumberField(OPENFLOW_ENABLE, port.getOpenflowEnable());
+        writeNumberField(PEER_FEATURES, port.getPeerFeatures());
+        writeNumberField(PORT_ID, port.getSlotPortId());
+        writeNumberField(STATE, port.getState());
+        writeNumberField(SUPPORTED_FEATURES, port.getSupportedFeatures());
+        writeNumberField(MAX_SPEED, port.getMaxSpeed());
+        jGen.writeEndObject();
+    }
+
+    public void writePhysicalPorts(Iterable<OFPhysicalPort> ports) throws IOException {
+        jGen.writeStartArray();
+        for (OFPhysicalPort port : ports) {
+            writePhysicalPort(port);
+        }
+        jGen.writeEndArray();
+    }
+
+    public void writeFeaturesReply(OFFeaturesReply reply) throws IOException {
+        jGen.writeStartObject();
+        writeNumberField(CAPABILITIES, reply.getCapabilities());
+        writeStringField(DEVICE_FORWARD_ENGINE_NAME, reply.getDeviceForwardEngineName());
+        writeStringField(DEVICE_LOOKUP_ENGINE_NAME, reply.getDeviceLookupEngineName());
+        writeNumberField(DEVICE_ID, reply.getDeviceId());
+        writeStringField(EXPERIMENTER_NAME, reply.getExperimenterName());
+        writeNumberField(LENGTH, reply.getLength());
+        writeNumberField(PORT_NUM, reply.getPortNum());
+        writeNumberField(TABLE_NUM, reply.getTableNum());
+        writeStringField(TYPE, reply.getType().toString());
+        writeNumberField(VERSION, reply.getVersion());
+        writeNumberField(XID, reply.getXid());
+        jGen.writeEndObject();
+    }
+
+    public void writeFlowStatistics(OFFlowStatisticsReply stats) throws IOException {
+        jGen.writeStartObject();
+        writeNumberField(TABLE_ID, stats.getTableId());
+        if (stats.getMatch() != null) {
+            jGen.writeFieldName(MATCH);
+            writeMatch(stats.getMatch());
+        }
+        writeNumberField(DURATION_SECONDS, stats.getDurationSeconds());
+        writeNumberField(DURATION_NANOSECONDS, stats.getDurationNanoseconds());
+        writeNumberField(PRIORITY, stats.getPriority());
+        writeNumberField(IDLE_TIMEOUT, stats.getIdleTimeout());
+        writeNumberField(HARD_TIMEOUT, stats.getHardTimeout());
+        writeUnsignedField(COOKIE, stats.getCookie());
+        writeUnsignedField(PACKET_COUNT, stats.getPacketCount());
+        writeUnsignedField(BYTE_COUNT, stats.getByteCount());
+        jGen.writeFieldName(ACTIONS);
+        jGen.writeStartArray();
+        if (stats.getActions() != null) {
+            for (OFAction action : stats.getActions()) {
+                jGen.writeStartObject();
+                writeStringField(TYPE, action.getType().toString());
+                writeNumberField(LENGTH, action.getLengthU());
+                jGen.writeEndObject();
+            }
+        }
+        jGen.writeEndArray();
+        jGen.writeEndObject();
+    }
+
+    public void writeFlowStatistics(Iterable<OFFlowStatisticsReply> stats) throws IOException {
+        jGen.writeStartArray();
+        for (OFFlowStatisticsReply stat : stats) {
+            writeFlowStatistics(stat);
+        }
+        jGen.writeEndArray();
+    }
+
+    public void writePortStatistics(OFPortStatisticsReply stats) throws IOException {
+        jGen.writeStartObject();
+        writeNumberField(PORT_NUMBER, stats.getPortNumber());
+        writeUnsignedField(RECEIVE_PACKETS, stats.getreceivePackets());
+        writeUnsignedField(TRANSMIT_PACKETS, stats.getTransmitPackets());
+        writeUnsignedField(RECEIVE_BYTES, stats.getReceiveBytes());
+        writeUnsignedField(TRANSMIT_BYTES, stats.getTransmitBytes());
+        writeUnsignedField(RECEIVE_DROPPED, stats.getReceiveDropped());
+        writeUnsignedField(TRANSMIT_DROPPED, stats.getTransmitDropped());
+        writeUnsignedField(RECEIVE_ERRORS, stats.getreceiveErrors());
+        writeUnsignedField(TRANSMIT_ERRORS, stats.getTransmitErrors());
+        writeUnsignedField(RECEIVE_FRAME_ERRORS, stats.getReceiveFrameErrors());
+        writeUnsignedField(RECEIVE_OVERRUN_ERRORS, stats.getReceiveOverrunErrors());
+        writeUnsignedField(RECEIVE_CRC_ERRORS, stats.getReceiveCrcErrors());
+        writeUnsignedField(COLLISIONS, stats.getCollisions());
+        jGen.writeEndObject();
+    }
+
+    public void writePortStatistics(Iterable<OFPortStatisticsReply> stats) throws IOException {
+        jGen.writeStartArray();
+        for (OFPortStatisticsReply stat : stats) {
+            writePortStatistics(stat);
+        }
+        jGen.writeEndArray();
+    }
+
+    public void writeTableStatistics(OFTableStatistics stats) throws IOException {
+        jGen.writeStartObject();
+        writeNumberField(TABLE_ID, stats.getTableId());
+        writeStringField(NAME, stats.getName());
+        writeNumberField(WILDCARDS, stats.getWildcards());
+        writeNumberField(MAXIMUM_ENTRIES, stats.getMaximumEntries());
+        writeNumberField(ACTIVE_COUNT, stats.getActiveCount());
+        writeUnsignedField(LOOKUP_COUNT, stats.getLookupCount());
+        writeUnsignedField(MATCHED_COUNT, stats.getMatchedCount());
+        jGen.writeEndObject();
+    }
+
+    public void writeTableStatistics(Iterable<OFTableStatistics> stats) throws IOException {
+        jGen.writeStartArray();
+        for (OFTableStatistics stat : stats) {
+            writeTableStatistics(stat);
+        }
+        jGen.writeEndArray();
+    }
+
+    public void writeFlowMod(OFFlowMod flowMod) throws IOException {
+        jGen.writeStartObject();
+        writeNumberField(XID, flowMod.getXid());
+        writeNumberField(COMMAND, flowMod.getCommand());
+        writeNumberField(TABLE_ID, flowMod.getTableId());
+        writeStringField(TABLE_TYPE, String.valueOf(flowMod.getTableType()));
+        writeNumberField(INDEX, flowMod.getIndex());
+        writeNumberField(PRIORITY, flowMod.getPriority());
+        writeNumberField(IDLE_TIMEOUT, flowMod.getIdleTimeout());
+        writeNumberField(HARD_TIMEOUT, flowMod.getHardTimeout());
+        writeNumberField(COUNTER_ID, flowMod.getCounterId());
+        writeUnsignedField(COOKIE, flowMod.getCookie());
+        writeUnsignedField(COOKIE_MASK, flowMod.getCookieMask());
+
+        jGen.writeFieldName(MATCH_LIST);
+        jGen.writeStartArray();
+        List<OFMatchX> matchList = flowMod.getMatchList();
+        if (matchList != null) {
+            int matchNum = Math.min(flowMod.getMatchFieldNum(), matchList.size());
+            for (int i = 0; i < matchNum; i++) {
+                OFMatchX matchX = matchList.get(i);
+                if (matchX == null) {
+                    continue;
+                }
+                jGen.writeStartObject();
+                writeNumberField(FIELD_ID, matchX.getFieldId());
+                writeNumberField(OFFSET, matchX.getOffset());
+                writeNumberField(LENGTH, matchX.getLength());
+                writeHexField(VALUE, matchX.getValue());
+                writeHexField(MASK, matchX.getMask());
+                jGen.writeEndObject();
+            }
+        }
+        jGen.writeEndArray();
+
+        jGen.writeFieldName(INSTRUCTION_LIST);
+        jGen.writeStartArray();
+        List<OFInstruction> instructionList = flowMod.getInstructionList();
+        if (instructionList != null) {
+            int instructionNum = Math.min(flowMod.getInstructionNum(), instructionList.size());
+            for (int i = 0; i < instructionNum; i++) {
+                OFInstruction instruction = instructionList.get(i);
+                if (instruction == null) {
+                    continue;
+                }
+                jGen.writeStartObject();
+                writeStringField(TYPE, String.valueOf(instruction.getType()));
+                writeNumberField(LENGTH, instruction.getLength());
+                jGen.writeEndObject();
+            }
+        }
+        jGen.writeEndArray();
+        jGen.writeEndObject();
+    }
+
+    public void writeFlowMods(Iterable<OFFlowMod> flowMods) throws IOException {
+        jGen.writeStartArray();
+        for (OFFlowMod flowMod : flowMods) {
+            writeFlowMod(flowMod);
+        }
+        jGen.writeEndArray();
+    }
+
+    public void writeFlowTableResource(OFFlowTableResource resource) throws IOException {
+        jGen.writeStartObject();
+        writeStringField(RESOURCE_TYPE, String.valueOf(resource.getResourceType()));
+        writeNumberField(SLOT_ID, resource.getSlotid());
+        writeNumberField(COUNTER_NUM, resource.getCounterNum());
+        writeNumberField(METER_NUM, resource.getMeterNum());
+        writeNumberField(GROUP_NUM, resource.getGroupNum());
+        jGen.writeFieldName(TABLE_RESOURCES);
+        jGen.writeStartArray();
+        Map<OFTableType, OFTableResource> tableResources = resource.getTableResourcesMap();
+        if (tableResources != null) {
+            for (int i = 0; i < OFTableType.MAX_TABLE_TYPE; i++) {
+                OFTableResource tableResource = tableResources.get(OFTableType.values()[i]);
+                if (tableResource == null) {
+                    continue;
+                }
+                jGen.writeStartObject();
+                writeStringField(TABLE_TYPE, String.valueOf(tableResource.getTableType()));
+                writeNumberField(TABLE_NUM, tableResource.getTableNum());
+                writeNumberField(KEY_LENGTH, tableResource.getKeyLength());
+                writeNumberField(TOTAL_SIZE, tableResource.getTotalSize());
+                jGen.writeEndObject();
+            }
+        }
+        jGen.writeEndArray();
+        jGen.writeEndObject();
+    }
+
+    public void writeFlowTableResources(Iterable<OFFlowTableResource> resources) throws IOException {
+        jGen.writeStartArray();
+        for (OFFlowTableResource resource : resources) {
+            writeFlowTableResource(resource);
+        }
+        jGen.writeEndArray();
+    }
+}
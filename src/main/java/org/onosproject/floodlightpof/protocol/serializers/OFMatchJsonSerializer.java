@@ -24,22 +24,9 @@ import org.codehaus.jackson.JsonProcessingException;
 import org.codehaus.jackson.map.JsonSerializer;
 import org.codehaus.jackson.map.SerializerProvider;
 import org.onosproject.floodlightpof.protocol.OFMatch;
-import org.onosproject.floodlightpof.util.HexString;
 
 public class OFMatchJsonSerializer extends JsonSerializer<OFMatch> {
 
-    /**
-     * Converts an IP in a 32 bit integer to a dotted-decimal string.
-     * @param i The IP address in a 32 bit integer
-     * @return An IP address string in dotted-decimal
-     */
-    private String intToIp(int i) {
-        return ((i >> 24) & 0xFF) + "." +
-               ((i >> 16) & 0xFF) + "." +
-               ((i >>  8) & 0xFF) + "." +
-               (i        & 0xFF);
-    }
-
     /**
      * Performs the serialization of a OFMatch object.
      */
@@ -47,38 +34,7 @@ public class OFMatchJsonSerializer extends JsonSerializer<OFMatch> {
     public void serialize(OFMatch match, JsonGenerator jGen,
                                 SerializerProvider serializer)
                                 throws IOException, JsonProcessingException {
-        jGen.writeStartObject();
-        jGen.writeStringField("dataLayerDestination",
-                    HexString.toHexString(match.getDataLayerDestination()));
-        jGen.writeStringField("dataLayerSource",
-                    HexString.toHexString(match.getDataLayerSource()));
-        String dataType = Integer.toHexString(match.getDataLayerType());
-        while (dataType.length() < 4) {
-            dataType = "0".concat(dataType);
-        }
-        jGen.writeStringField("dataLayerType", "0x" + dataType);
-        jGen.writeNumberField("dataLayerVirtualLan",
-                    match.getDataLayerVirtualLan());
-        jGen.writeNumberField("dataLayerVirtualLanPriorityCodePoint",
-                    match.getDataLayerVirtualLanPriorityCodePoint());
-        jGen.writeNumberField("inputPort", match.getInputPort());
-        jGen.writeStringField("networkDestination",
-                    intToIp(match.getNetworkDestination()));
-        jGen.writeNumberField("networkDestinationMaskLen",
-                    match.getNetworkDestinationMaskLen());
-        jGen.writeNumberField("networkProtocol", match.getNetworkProtocol());
-        jGen.writeStringField("networkSource",
-                    intToIp(match.getNetworkSource()));
-        jGen.writeNumberField("networkSourceMaskLen",
-                    match.getNetworkSourceMaskLen());
-        jGen.writeNumberField("networkTypeOfService",
-                    match.getNetworkTypeOfService());
-        jGen.writeNumberField("transportDestination",
-                    match.getTransportDestination());
-        jGen.writeNumberField("transportSource",
-                    match.getTransportSource());
-        jGen.writeNumberField("wildcards", match.getWildcards());
-        jGen.writeEndObject();
+        new OFJsonStreamWriter(jGen).writeMatch(match);
     }
 
     /**
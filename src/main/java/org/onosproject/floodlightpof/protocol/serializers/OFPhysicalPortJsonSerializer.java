@@ -28,7 +28,6 @@ import org.codehaus.jackson.JsonProcessingException;
 import org.codehaus.jackson.map.JsonSerializer;
 import org.codehaus.jackson.map.SerializerProvider;
 import org.onosproject.floodlightpof.protocol.OFPhysicalPort;
-import org.onosproject.floodlightpof.util.HexString;
 
 public class OFPhysicalPortJsonSerializer extends JsonSerializer<OFPhysicalPort> {
 
@@ -38,22 +37,7 @@ public class OFPhysicalPortJsonSerializer extends JsonSerializer<OFPhysicalPort>
     @Override
     public void serialize(OFPhysicalPort port, JsonGenerator jGen, SerializerProvider serializer)
             throws IOException, JsonProcessingException {
-        jGen.writeStartObject();
-        jGen.writeNumberField("advertisedFeatures", port.getAdvertisedFeatures());
-        jGen.writeNumberField("config", port.getConfig());
-        jGen.writeNumberField("currentFeatures", port.getCurrentFeatures());
-        jGen.writeNumberField("currentSpeed", port.getCurrentSpeed());
-        jGen.writeNumberField("deviceId", port.getDeviceId());
-        jGen.writeStringField("hardwareAddress", HexString.toHexString(port.getHardwareAddress()));
-        jGen.writeStringField("name", port.getName());
-        jGen.writeNumberField("openflowEnable", port.getOpenflowEnable());
-        jGen.writeNumberField("peerFeatures", port.getPeerFeatures());
-//        jGen.writeNumberField("portId", port.getPortId());
-        jGen.writeNumberField("portId", port.getSlotPortId());
-        jGen.writeNumberField("state", port.getState());
-        jGen.writeNumberField("supportedFeatures", port.getSupportedFeatures());
-        jGen.writeNumberField("maxSpeed", port.getMaxSpeed());
-        jGen.writeEndObject();
+        new OFJsonStreamWriter(jGen).writePhysicalPort(port);
     }
 
     /**
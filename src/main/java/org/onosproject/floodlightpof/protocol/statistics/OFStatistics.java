@@ -30,6 +30,15 @@ public interface OFStatistics {
      */
     public int getLength();
 
+    /**
+     * Returns the number of bytes writeTo writes, computed without
+     * serializing.
+     * @return the encoded length
+     */
+    public default int encodedLength() {
+        return getLength();
+    }
+
     /**
      * Read this message off the wire from the specified ByteBuffer.
      * @param data
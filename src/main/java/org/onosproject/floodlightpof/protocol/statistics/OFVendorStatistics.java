@@ -78,6 +78,11 @@ public class OFVendorStatistics implements OFStatistics {
         return length;
     }
 
+    @Override
+    public int encodedLength() {
+        return 4 + (body == null ? 0 : body.length);
+    }
+
     public void setLength(int length) {
         this.length = length;
     }
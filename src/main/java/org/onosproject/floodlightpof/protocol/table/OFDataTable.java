@@ -26,23 +26,33 @@
 package org.onosproject.floodlightpof.protocol.table;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * OFDataTable is a kind of list, stores the data with:
  * 1. when delete an element, save the index into the freeList
  * 2. alloc a new index from the freeList first; if freeList is empty, use the entryIdNo (then entryIdNo++).
  *
+ * Allocation takes no lock: freed indexes sit in a lock-free FIFO queue and new
+ * indexes are claimed from entryIdNo by CAS. A reverse value-to-index map keeps
+ * getFirstValueIndex and removeValue independent of the table size.
+ *
  */
 public class OFDataTable<V> {
     protected Map<Integer, V> dataTable;
-    protected List<Integer> freeIdList;
-    protected int entryIdNo;
-    protected int maxNumber;
+    protected ConcurrentMap<V, NavigableSet<Integer>> valueIndex;
+    protected ConcurrentLinkedQueue<Integer> freeIdQueue;
+    protected Set<Integer> freeIdSet;
+    protected AtomicInteger entryIdNo;
+    protected volatile int maxNumber;
     protected int startNo;
 
     /**
@@ -55,8 +65,10 @@ public class OFDataTable<V> {
         }
 
         dataTable = new ConcurrentHashMap<Integer, V>();
-        freeIdList = Collections.synchronizedList(new ArrayList<Integer>());
-        entryIdNo = startNo;
+        valueIndex = new ConcurrentHashMap<V, NavigableSet<Integer>>();
+        freeIdQueue = new ConcurrentLinkedQueue<Integer>();
+        freeIdSet = ConcurrentHashMap.newKeySet();
+        entryIdNo = new AtomicInteger(startNo);
         this.startNo = startNo;
         this.maxNumber = Integer.MAX_VALUE;
     }
@@ -66,8 +78,20 @@ public class OFDataTable<V> {
     public OFDataTable(Map<Integer, V> dataTable, List<Integer> freeIdList, int entryIdNo, int maxNumber, int startNo) {
         super();
         this.dataTable = dataTable;
-        this.freeIdList = freeIdList;
-        this.entryIdNo = entryIdNo;
+        this.valueIndex = new ConcurrentHashMap<V, NavigableSet<Integer>>();
+        for (Map.Entry<Integer, V> entry : dataTable.entrySet()) {
+            index(entry.getValue(), entry.getKey());
+        }
+        this.freeIdQueue = new ConcurrentLinkedQueue<Integer>();
+        this.freeIdSet = ConcurrentHashMap.newKeySet();
+        if (freeIdList != null) {
+            for (Integer index : freeIdList) {
+                if (freeIdSet.add(index)) {
+                    freeIdQueue.offer(index);
+                }
+            }
+        }
+        this.entryIdNo = new AtomicInteger(entryIdNo);
         this.maxNumber = maxNumber;
         this.startNo = startNo;
     }
@@ -87,6 +111,10 @@ public class OFDataTable<V> {
         }
     }
 
+    /**
+     * @return the live table. Modify it through put/remove only, changes made
+     *         through this map bypass the value index.
+     */
     public Map<Integer, V> getAllData() {
         return dataTable;
     }
@@ -94,32 +122,35 @@ public class OFDataTable<V> {
     /**
      * Get the first value's index.
      * @param value
-     * @return the index, -1 means not found.
+     * @return the lowest index holding the value, -1 means not found.
      */
     public int getFirstValueIndex(V value) {
-        Iterator<Integer> iter = dataTable.keySet().iterator();
-        int index;
-        while (iter.hasNext()) {
-            index = iter.next();
-            if (value.equals(dataTable.get(index))) {
-                return index;
-            }
+        NavigableSet<Integer> indexes = valueIndex.get(value);
+        if (indexes == null) {
+            return -1;
         }
-        return -1;
+        Integer index = indexes.ceiling(Integer.MIN_VALUE);
+        return index == null ? -1 : index;
     }
 
-    public synchronized void put(int index, V value) {
+    public void put(int index, V value) {
         if (index < 0 || index < startNo || index > maxNumber) {
             throw new ArrayIndexOutOfBoundsException(index);
         }
-        dataTable.put(index, value);
+        dataTable.compute(index, (key, old) -> {
+            if (old != null) {
+                unindex(old, key);
+            }
+            index(value, key);
+            return value;
+        });
     }
 
-    public synchronized V remove(int index) {
+    public V remove(int index) {
         V value = null;
         if (index >= 0 && index >= startNo && index <= maxNumber) {
-            value = dataTable.remove(index);
-            freeIdList.add(index);
+            value = removeIndex(index, null);
+            free(index);
         }
 
         return value;
@@ -129,14 +160,14 @@ public class OFDataTable<V> {
      * remove all elements which equals value.
      * @param value
      */
-    public synchronized void removeValue(V value) {
-        Iterator<Integer> iter = dataTable.keySet().iterator();
-        int index;
-        while (iter.hasNext()) {
-            index = iter.next();
-            if (value.equals(dataTable.get(index))) {
-                iter.remove();
-                freeIdList.add(index);
+    public void removeValue(V value) {
+        NavigableSet<Integer> indexes = valueIndex.get(value);
+        if (indexes == null) {
+            return;
+        }
+        for (Integer index : indexes.toArray(new Integer[0])) {
+            if (removeIndex(index, value) != null) {
+                free(index);
             }
         }
     }
@@ -146,12 +177,12 @@ public class OFDataTable<V> {
      * @param value
      * @return the index which store the value. -1 means table is full.
      */
-    public synchronized int put(V value) {
+    public int put(V value) {
         int key = alloc();
         if (key == -1) {
             return key;
         }
-        dataTable.put(key, value);
+        put(key, value);
 
         return key;
     }
@@ -161,27 +192,40 @@ public class OFDataTable<V> {
      * alloc an index from freeList first, otherwise alloc an new index.
      * @return the index which store the value. -1 means table is full.
      */
-    public synchronized int alloc() {
-        int index;
-        if (!freeIdList.isEmpty()) {
-            index = freeIdList.remove(0);
-        } else {
-            index = allocNew();
+    public int alloc() {
+        Integer index = freeIdQueue.poll();
+        if (index != null) {
+            freeIdSet.remove(index);
+            return index;
         }
 
-        return index;
+        return allocNew();
     }
 
     /**
      * direct alloc an new index, do not check the freeList.
      * @return the index which store the value. -1 means table is full.
      */
-    public synchronized int allocNew() {
-        if (entryIdNo > maxNumber) {
-            return -1;
+    public int allocNew() {
+        return allocRange(1);
+    }
+
+    /**
+     * alloc count consecutive new indexes, do not check the freeList.
+     * @param count
+     * @return the first of the indexes. -1 means table has not enough room.
+     */
+    public int allocRange(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
         }
-        int index = entryIdNo;
-        entryIdNo++;
+        int index;
+        do {
+            index = entryIdNo.get();
+            if (index < 0 || (long) index + count - 1 > maxNumber) {
+                return -1;
+            }
+        } while (!entryIdNo.compareAndSet(index, index + count));
 
         return index;
     }
@@ -190,12 +234,15 @@ public class OFDataTable<V> {
         return dataTable.size();
     }
 
+    /**
+     * @return a snapshot of the free indexes, in the order they will be reused.
+     */
     public List<Integer> getFreeIdList() {
-        return freeIdList;
+        return new ArrayList<Integer>(freeIdQueue);
     }
 
     public int getEntryIdNo() {
-        return entryIdNo;
+        return entryIdNo.get();
     }
 
     public int getMaxNumber() {
@@ -206,13 +253,56 @@ public class OFDataTable<V> {
         return startNo;
     }
 
+    /**
+     * Remove the value at index, if it equals expected or expected is null.
+     * @return the removed value, null if nothing was removed
+     */
+    private V removeIndex(int index, V expected) {
+        List<V> removed = new ArrayList<V>(1);
+        dataTable.computeIfPresent(index, (key, old) -> {
+            if (expected != null && !expected.equals(old)) {
+                return old;
+            }
+            unindex(old, key);
+            removed.add(old);
+            return null;
+        });
+        return removed.isEmpty() ? null : removed.get(0);
+    }
+
+    /**
+     * Return an index handed out before to the free list, at most once.
+     */
+    private void free(int index) {
+        if (index < entryIdNo.get() && freeIdSet.add(index)) {
+            freeIdQueue.offer(index);
+        }
+    }
+
+    private void index(V value, int index) {
+        valueIndex.compute(value, (key, indexes) -> {
+            if (indexes == null) {
+                indexes = new ConcurrentSkipListSet<Integer>();
+            }
+            indexes.add(index);
+            return indexes;
+        });
+    }
+
+    private void unindex(V value, int index) {
+        valueIndex.computeIfPresent(value, (key, indexes) -> {
+            indexes.remove(index);
+            return indexes.isEmpty() ? null : indexes;
+        });
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((dataTable == null) ? 0 : dataTable.hashCode());
-        result = prime * result + entryIdNo;
-        result = prime * result + ((freeIdList == null) ? 0 : freeIdList.hashCode());
+        result = prime * result + getEntryIdNo();
+        result = prime * result + getFreeIdList().hashCode();
         result = prime * result + maxNumber;
         result = prime * result + startNo;
         return result;
@@ -237,14 +327,10 @@ public class OFDataTable<V> {
         } else if (!dataTable.equals(other.dataTable)) {
             return false;
         }
-        if (entryIdNo != other.entryIdNo) {
+        if (getEntryIdNo() != other.getEntryIdNo()) {
             return false;
         }
-        if (freeIdList == null) {
-            if (other.freeIdList != null) {
-                return false;
-            }
-        } else if (!freeIdList.equals(other.freeIdList)) {
+        if (!getFreeIdList().equals(other.getFreeIdList())) {
             return false;
         }
         if (maxNumber != other.maxNumber) {
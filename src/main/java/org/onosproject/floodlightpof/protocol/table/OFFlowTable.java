@@ -94,6 +94,11 @@ public class OFFlowTable implements Cloneable {
 
         tableName = ParseString.nameByteToString(data);
 
+        if (matchFieldList == null) {
+            matchFieldList = new ArrayList<OFMatch20>();
+        } else {
+            matchFieldList.clear();
+        }
         OFMatch20 matchField;
         for (int i = 0; i < OFGlobal.OFP_MAX_MATCH_FIELD_NUM; i++) {
             matchField = new OFMatch20();
@@ -102,6 +107,15 @@ public class OFFlowTable implements Cloneable {
         }
     }
 
+    /**
+     * Get the number of bytes writeTo writes, unused match fields are
+     * zero-filled so this is always {@link #MAXIMAL_LENGTH}.
+     * @return encoded length in bytes
+     */
+    public int encodedLength() {
+        return MAXIMAL_LENGTH;
+    }
+
     public void writeTo(ChannelBuffer data) {
         data.writeByte(command.ordinal());
         data.writeByte(tableId);
@@ -140,20 +154,29 @@ public class OFFlowTable implements Cloneable {
     }
 
     public String toBytesString() {
-        String string = HexString.toHex((byte) command.ordinal());
-        string += HexString.toHex(tableId);
-        string += HexString.toHex((byte) tableType.ordinal());
-        string += HexString.toHex(matchFieldNum);
-        string += " ";
+        return appendBytesString(new StringBuilder()).toString();
+    }
 
-        string += HexString.toHex(tableSize);
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, (byte) command.ordinal());
+        HexString.appendHex(sb, tableId);
+        HexString.appendHex(sb, (byte) tableType.ordinal());
+        HexString.appendHex(sb, matchFieldNum);
+        sb.append(' ');
 
-        string += HexString.toHex(keyLength);
-        string += HexString.byteZeroEnd(6);
+        HexString.appendHex(sb, tableSize);
 
-        string += HexString.nameToHex(tableName);
+        HexString.appendHex(sb, keyLength);
+        HexString.appendByteZeroEnd(sb, 6);
 
-        return string;
+        HexString.appendNameHex(sb, tableName);
+
+        return sb;
     }
 
     public String toString() {
@@ -182,19 +182,19 @@ public class OFFlowTableResource extends OFMessage {
     }
 
     @Override
-    public String toBytesString() {
-        String bytesString = super.toBytesString();
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
 
-        bytesString += HexString.toHex((byte) resourceType.ordinal());
-        bytesString += HexString.byteZeroEnd(1);
+        HexString.appendHex(sb, (byte) resourceType.ordinal());
+        HexString.appendByteZeroEnd(sb, 1);
 
-        bytesString += HexString.toHex(slotid);
+        HexString.appendHex(sb, slotid);
 
-        bytesString += HexString.toHex(counterNum);
+        HexString.appendHex(sb, counterNum);
 
-        bytesString += HexString.toHex(meterNum);
+        HexString.appendHex(sb, meterNum);
 
-        bytesString += HexString.toHex(groupNum);
+        HexString.appendHex(sb, groupNum);
 
         if (this.tableResourcesMap != null) {
             OFTableResource tableResource;
@@ -202,20 +202,20 @@ public class OFFlowTableResource extends OFMessage {
                 tableResource = this.tableResourcesMap.get(OFTableType.values()[i]);
 
                 if (tableResource == null) {
-                    bytesString += HexString.byteZeroEnd(OFTableResource.minimumLength);
+                    HexString.appendByteZeroEnd(sb, OFTableResource.minimumLength);
                 } else {
                     if (tableResource.getTableType() != OFTableType.values()[i]) {
                         throw new RuntimeException("TableResource[" + i + "] Type = " + OFTableType
                                 .values()[i] + " Error!");
                     }
-                    bytesString += tableResource.toBytesString();
+                    tableResource.appendBytesString(sb);
                 }
             }
         } else {
-            bytesString += HexString.byteZeroEnd(OFTableType.MAX_TABLE_TYPE * OFTableResource.minimumLength);
+            HexString.appendByteZeroEnd(sb, OFTableType.MAX_TABLE_TYPE * OFTableResource.minimumLength);
         }
 
-        return bytesString;
+        return sb;
     }
 
     @Override
@@ -76,9 +76,11 @@ public class OFTableMod extends OFMessage implements Cloneable {
         }
     }
 
-    public String toBytesString() {
-        return super.toBytesString() +
-                flowTable.toBytesString();
+    @Override
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        super.appendBytesString(sb);
+        flowTable.appendBytesString(sb);
+        return sb;
     }
 
     public String toString() {
@@ -75,17 +75,26 @@ public class OFTableResource {
     }
 
     public String toBytesString() {
-        String bytesString = HexString.toHex(deviceId);
+        return appendBytesString(new StringBuilder()).toString();
+    }
+
+    /**
+     * Append this object's hex format string, see {@link #toBytesString()}.
+     * @param sb
+     * @return sb
+     */
+    public StringBuilder appendBytesString(StringBuilder sb) {
+        HexString.appendHex(sb, deviceId);
 
-        bytesString += HexString.toHex(tableType.getValue());
-        bytesString += HexString.toHex(tableNum);
-        bytesString += HexString.toHex(keyLength);
-        bytesString += " ";
+        HexString.appendHex(sb, tableType.getValue());
+        HexString.appendHex(sb, tableNum);
+        HexString.appendHex(sb, keyLength);
+        sb.append(' ');
 
-        bytesString += HexString.toHex(totalSize);
-        bytesString += HexString.byteZeroEnd(4);
+        HexString.appendHex(sb, totalSize);
+        HexString.appendByteZeroEnd(sb, 4);
 
-        return bytesString;
+        return sb;
     }
 
     @Override
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.OFGlobal;
+import org.onosproject.floodlightpof.protocol.OFMatchX;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.protocol.factory.OFInstructionFactory;
+import org.onosproject.floodlightpof.protocol.factory.OFInstructionFactoryAware;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionType;
+import org.onosproject.floodlightpof.protocol.table.OFTableType;
+import org.onosproject.floodlightpof.util.U16;
+import org.onosproject.floodlightpof.util.U64;
+
+/**
+ * Flyweight over an encoded {@link OFFlowMod}, in the compact or the legacy
+ * layout. Match fields and instructions are decoded on first access.
+ *
+ */
+public class FlowModView extends OFMessageView<OFFlowMod> implements OFInstructionFactoryAware {
+    // field offsets in the encoded message
+    public static final int COMMAND = 8;
+    public static final int MATCH_FIELD_NUM = 9;
+    public static final int INSTRUCTION_NUM = 10;
+    public static final int COUNTER_ID = 12;
+    public static final int COOKIE = 16;
+    public static final int COOKIE_MASK = 24;
+    public static final int TABLE_ID = 32;
+    public static final int TABLE_TYPE = 33;
+    public static final int IDLE_TIMEOUT = 34;
+    public static final int HARD_TIMEOUT = 36;
+    public static final int PRIORITY = 38;
+    public static final int INDEX = 40;
+
+    protected OFInstructionFactory instructionFactory;
+
+    private List<OFMatchX> matchList;
+    private List<OFInstruction> instructionList;
+
+    public FlowModView() {
+        super(OFType.FLOW_MOD);
+    }
+
+    @Override
+    public void setInstructionFactory(OFInstructionFactory instructionFactory) {
+        this.instructionFactory = instructionFactory;
+    }
+
+    @Override
+    protected void reset() {
+        matchList = null;
+        instructionList = null;
+    }
+
+    /**
+     * Whether the message uses the compact layout.
+     * @return true if compact
+     */
+    public boolean isCompact() {
+        return getLengthU() < OFFlowMod.MAXIMAL_LENGTH;
+    }
+
+    public byte getCommand() {
+        return buffer.getByte(offset + COMMAND);
+    }
+
+    public byte getMatchFieldNum() {
+        return buffer.getByte(offset + MATCH_FIELD_NUM);
+    }
+
+    public byte getInstructionNum() {
+        return buffer.getByte(offset + INSTRUCTION_NUM);
+    }
+
+    public int getCounterId() {
+        return buffer.getInt(offset + COUNTER_ID);
+    }
+
+    public long getCookie() {
+        return buffer.getLong(offset + COOKIE);
+    }
+
+    public long getCookieMask() {
+        return buffer.getLong(offset + COOKIE_MASK);
+    }
+
+    public byte getTableId() {
+        return buffer.getByte(offset + TABLE_ID);
+    }
+
+    public OFTableType getTableType() {
+        return OFTableType.values()[buffer.getByte(offset + TABLE_TYPE)];
+    }
+
+    public short getIdleTimeout() {
+        return buffer.getShort(offset + IDLE_TIMEOUT);
+    }
+
+    public short getHardTimeout() {
+        return buffer.getShort(offset + HARD_TIMEOUT);
+    }
+
+    public short getPriority() {
+        return buffer.getShort(offset + PRIORITY);
+    }
+
+    public int getIndex() {
+        return buffer.getInt(offset + INDEX);
+    }
+
+    private int matchOffset(int field) {
+        if (field < 0 || field >= getMatchFieldNum()) {
+            throw new IndexOutOfBoundsException("match field " + field);
+        }
+        return offset + OFFlowMod.MINIMUM_LENGTH + field * OFMatchX.MINIMUM_LENGTH;
+    }
+
+    public short getMatchFieldId(int field) {
+        return buffer.getShort(matchOffset(field));
+    }
+
+    public short getMatchOffset(int field) {
+        return buffer.getShort(matchOffset(field) + 2);
+    }
+
+    public short getMatchLength(int field) {
+        return buffer.getShort(matchOffset(field) + 4);
+    }
+
+    /**
+     * Copy the value of a match field without decoding it.
+     * @param field match field position
+     * @param dst receives up to {@link OFGlobal#OFP_MAX_FIELD_LENGTH_IN_BYTE} bytes
+     */
+    public void getMatchValue(int field, byte[] dst) {
+        buffer.getBytes(matchOffset(field) + 8, dst, 0,
+                        Math.min(dst.length, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE));
+    }
+
+    /**
+     * Copy the mask of a match field without decoding it.
+     * @param field match field position
+     * @param dst receives up to {@link OFGlobal#OFP_MAX_FIELD_LENGTH_IN_BYTE} bytes
+     */
+    public void getMatchMask(int field, byte[] dst) {
+        buffer.getBytes(matchOffset(field) + 8 + OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE, dst, 0,
+                        Math.min(dst.length, OFGlobal.OFP_MAX_FIELD_LENGTH_IN_BYTE));
+    }
+
+    private int instructionsOffset() {
+        int matchNum = isCompact() ? getMatchFieldNum() : OFGlobal.OFP_MAX_MATCH_FIELD_NUM;
+        return offset + OFFlowMod.MINIMUM_LENGTH + matchNum * OFMatchX.MINIMUM_LENGTH;
+    }
+
+    /**
+     * Get the type of an instruction by walking the instruction headers.
+     * @param instruction instruction position
+     * @return the instruction type
+     */
+    public OFInstructionType getInstructionType(int instruction) {
+        if (instruction < 0 || instruction >= getInstructionNum()) {
+            throw new IndexOutOfBoundsException("instruction " + instruction);
+        }
+        boolean compact = isCompact();
+        int position = instructionsOffset();
+        for (int i = 0; i < instruction; i++) {
+            position += compact ? U16.f(buffer.getShort(position + 2)) : OFInstruction.MAXIMAL_LENGTH;
+        }
+        return OFInstructionType.valueOf(buffer.getShort(position));
+    }
+
+    /**
+     * Get the populated match fields, decoded on first call.
+     * @return the match fields
+     */
+    public List<OFMatchX> getMatchList() {
+        if (matchList == null) {
+            int fieldNum = getMatchFieldNum();
+            List<OFMatchX> list = new ArrayList<OFMatchX>(fieldNum);
+            int position = offset + OFFlowMod.MINIMUM_LENGTH;
+            for (int i = 0; i < fieldNum; i++) {
+                OFMatchX matchX = new OFMatchX();
+                matchX.readFrom(buffer.slice(position, OFMatchX.MINIMUM_LENGTH));
+                list.add(matchX);
+                position += OFMatchX.MINIMUM_LENGTH;
+            }
+            matchList = list;
+        }
+        return matchList;
+    }
+
+    /**
+     * Get the instructions, decoded on first call.
+     * @return the instructions
+     */
+    public List<OFInstruction> getInstructionList() {
+        if (instructionList == null) {
+            if (instructionFactory == null) {
+                throw new RuntimeException("OFInstructionFactory not set");
+            }
+            int position = instructionsOffset();
+            instructionList = instructionFactory.parseInstructions(
+                    buffer.slice(position, offset + getLengthU() - position),
+                    offset + getLengthU() - position, getInstructionNum(), isCompact());
+        }
+        return instructionList;
+    }
+
+    @Override
+    public OFFlowMod materialize() {
+        if (instructionFactory == null) {
+            throw new RuntimeException("OFInstructionFactory not set");
+        }
+        OFFlowMod flowMod = new OFFlowMod();
+        flowMod.setInstructionFactory(instructionFactory);
+        flowMod.readFrom(getBytes());
+        return flowMod;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowModView [xid=" + getXid() + ", tableId=" + getTableId() + ", index=" + getIndex()
+                + ", priority=" + getPriority() + ", cookie=" + U64.toString(getCookie()) + "]";
+    }
+}
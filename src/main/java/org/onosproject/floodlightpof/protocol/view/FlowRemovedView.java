@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.view;
+
+import org.onosproject.floodlightpof.protocol.OFFlowRemoved;
+import org.onosproject.floodlightpof.protocol.OFFlowRemoved.OFFlowRemovedReason;
+import org.onosproject.floodlightpof.protocol.OFMatch;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.util.U64;
+
+/**
+ * Flyweight over an encoded {@link OFFlowRemoved}. The match is decoded on
+ * first access.
+ *
+ */
+public class FlowRemovedView extends OFMessageView<OFFlowRemoved> {
+    // field offsets in the encoded message
+    public static final int MATCH = 8;
+    public static final int COOKIE = 48;
+    public static final int PRIORITY = 56;
+    public static final int REASON = 58;
+    public static final int DURATION_SECONDS = 60;
+    public static final int DURATION_NANOSECONDS = 64;
+    public static final int IDLE_TIMEOUT = 68;
+    public static final int PACKET_COUNT = 72;
+    public static final int BYTE_COUNT = 80;
+
+    private OFMatch match;
+
+    public FlowRemovedView() {
+        super(OFType.FLOW_REMOVED);
+    }
+
+    @Override
+    protected void reset() {
+        match = null;
+    }
+
+    /**
+     * Get the match, decoded on first call.
+     * @return the match
+     */
+    public OFMatch getMatch() {
+        if (match == null) {
+            OFMatch decoded = new OFMatch();
+            decoded.readFrom(buffer.slice(offset + MATCH, COOKIE - MATCH));
+            match = decoded;
+        }
+        return match;
+    }
+
+    public long getCookie() {
+        return buffer.getLong(offset + COOKIE);
+    }
+
+    public short getPriority() {
+        return buffer.getShort(offset + PRIORITY);
+    }
+
+    public OFFlowRemovedReason getReason() {
+        return OFFlowRemovedReason.values()[0xff & buffer.getByte(offset + REASON)];
+    }
+
+    public int getDurationSeconds() {
+        return buffer.getInt(offset + DURATION_SECONDS);
+    }
+
+    public int getDurationNanoseconds() {
+        return buffer.getInt(offset + DURATION_NANOSECONDS);
+    }
+
+    public short getIdleTimeout() {
+        return buffer.getShort(offset + IDLE_TIMEOUT);
+    }
+
+    public long getPacketCount() {
+        return buffer.getLong(offset + PACKET_COUNT);
+    }
+
+    public long getByteCount() {
+        return buffer.getLong(offset + BYTE_COUNT);
+    }
+
+    @Override
+    public OFFlowRemoved materialize() {
+        OFFlowRemoved flowRemoved = new OFFlowRemoved();
+        flowRemoved.readFrom(getBytes());
+        return flowRemoved;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowRemovedView [xid=" + getXid() + ", cookie=" + U64.toString(getCookie())
+                + ", priority=" + getPriority() + ", reason=" + getReason()
+                + ", packetCount=" + U64.toString(getPacketCount()) + "]";
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.view;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFMessage;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.util.U16;
+
+/**
+ * Flyweight over an encoded message: a buffer and the offset of the
+ * message header. Getters read the buffer directly, nested structures are
+ * decoded on first access, and {@link #materialize()} decodes the whole
+ * message. Views are reusable, {@link #wrap} points one at another message.
+ * The buffer must not change while a view wraps it.
+ *
+ * @param <M> the message class the view materializes into
+ */
+public abstract class OFMessageView<M extends OFMessage> {
+    protected ChannelBuffer buffer;
+    protected int offset;
+
+    private final OFType type;
+
+    protected OFMessageView(OFType type) {
+        this.type = type;
+    }
+
+    /**
+     * Get the type of the message encoded at the given offset.
+     * @param buffer
+     * @param offset
+     * @return the message type
+     */
+    public static OFType typeOf(ChannelBuffer buffer, int offset) {
+        return OFType.valueOf(buffer.getByte(offset + 1));
+    }
+
+    /**
+     * Point this view at a message.
+     * @param buffer
+     * @param offset index of the message header
+     * @return this view
+     * @throws IllegalArgumentException if the message has another type
+     */
+    public OFMessageView<M> wrap(ChannelBuffer buffer, int offset) {
+        if (typeOf(buffer, offset) != type) {
+            throw new IllegalArgumentException("Expected a " + type + " message but got "
+                    + typeOf(buffer, offset));
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        reset();
+        return this;
+    }
+
+    /**
+     * Point this view at the message starting at the reader index of a frame.
+     * @param frame
+     * @return this view
+     */
+    public OFMessageView<M> wrap(ChannelBuffer frame) {
+        return wrap(frame, frame.readerIndex());
+    }
+
+    /**
+     * Drop the nested structures decoded for the previous message.
+     */
+    protected abstract void reset();
+
+    /**
+     * Decode the whole message.
+     * @return a new message
+     */
+    public abstract M materialize();
+
+    /**
+     * Get the encoded message.
+     * @return a view of the message bytes
+     */
+    public ChannelBuffer getBytes() {
+        return buffer.slice(offset, getLengthU());
+    }
+
+    public byte getVersion() {
+        return buffer.getByte(offset);
+    }
+
+    public OFType getType() {
+        return type;
+    }
+
+    public short getLength() {
+        return buffer.getShort(offset + 2);
+    }
+
+    public int getLengthU() {
+        return U16.f(getLength());
+    }
+
+    public int getXid() {
+        return buffer.getInt(offset + 4);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.protocol.view;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFMatch;
+import org.onosproject.floodlightpof.protocol.OFPacketIn;
+import org.onosproject.floodlightpof.protocol.OFPacketIn.OFPacketInReason;
+import org.onosproject.floodlightpof.protocol.OFType;
+import org.onosproject.floodlightpof.util.U16;
+import org.onosproject.floodlightpof.util.U8;
+
+/**
+ * Flyweight over an encoded {@link OFPacketIn}. The payload is exposed as a
+ * slice of the wrapped buffer and can be parsed into an {@link OFMatch}
+ * without copying it.
+ *
+ */
+public class PacketInView extends OFMessageView<OFPacketIn> {
+    // field offsets in the encoded message
+    public static final int BUFFER_ID = 8;
+    public static final int TOTAL_LENGTH = 12;
+    public static final int REASON = 14;
+    public static final int TABLE_ID = 15;
+    public static final int COOKIE = 16;
+    public static final int DEVICE_ID = 24;
+    public static final int SLOT_PORT_ID = 28;
+    public static final int PACKET_DATA = 32;
+
+    private ChannelBuffer packetData;
+
+    public PacketInView() {
+        super(OFType.PACKET_IN);
+    }
+
+    @Override
+    protected void reset() {
+        packetData = null;
+    }
+
+    public int getBufferId() {
+        return buffer.getInt(offset + BUFFER_ID);
+    }
+
+    public short getTotalLength() {
+        return buffer.getShort(offset + TOTAL_LENGTH);
+    }
+
+    public OFPacketInReason getReason() {
+        return OFPacketInReason.values()[U8.f(buffer.getByte(offset + REASON))];
+    }
+
+    public byte getTableId() {
+        return buffer.getByte(offset + TABLE_ID);
+    }
+
+    public long getCookie() {
+        return buffer.getLong(offset + COOKIE);
+    }
+
+    public int getDeviceId() {
+        return buffer.getInt(offset + DEVICE_ID);
+    }
+
+    public int getSlotPortId() {
+        return buffer.getInt(offset + SLOT_PORT_ID);
+    }
+
+    /**
+     * Whether the message uses the compact layout.
+     * @return true if compact
+     */
+    public boolean isCompact() {
+        return getLengthU() < OFPacketIn.maximalLength;
+    }
+
+    /**
+     * Get the number of payload bytes carried by the message, following
+     * {@link OFPacketIn#readFrom}.
+     * @return the payload length
+     */
+    public int getPacketDataLength() {
+        int dataLength = U16.f(getTotalLength());
+        if (isCompact()) {
+            dataLength = Math.min(dataLength, Math.max(0, getLengthU() - OFPacketIn.minimumLength));
+        }
+        return dataLength;
+    }
+
+    /**
+     * Get the payload as a slice of the wrapped buffer, created on first call.
+     * @return the payload
+     */
+    public ChannelBuffer getPacketData() {
+        if (packetData == null) {
+            packetData = buffer.slice(offset + PACKET_DATA, getPacketDataLength());
+        }
+        return packetData;
+    }
+
+    /**
+     * Parse the payload in place into a match.
+     * @param match the match to load, typically reused across packets
+     * @param inPort ingress port to record in the match
+     * @return the match
+     */
+    public OFMatch loadMatch(OFMatch match, short inPort) {
+        return match.loadFromPacket(buffer, offset + PACKET_DATA, getPacketDataLength(), inPort);
+    }
+
+    @Override
+    public OFPacketIn materialize() {
+        OFPacketIn packetIn = new OFPacketIn();
+        packetIn.readFrom(getBytes());
+        return packetIn;
+    }
+
+    @Override
+    public String toString() {
+        return "PacketInView [xid=" + getXid() + ", bufferId=" + getBufferId() + ", reason=" + getReason()
+                + ", tableId=" + getTableId() + ", dataLength=" + getPacketDataLength() + "]";
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.reconcile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.OFFlowMod.OFFlowEntryCmd;
+import org.onosproject.floodlightpof.protocol.OFMatchX;
+import org.onosproject.floodlightpof.protocol.PackedMatch;
+import org.onosproject.floodlightpof.protocol.factory.OFInstructionFactory;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstruction;
+import org.onosproject.floodlightpof.protocol.instruction.OFInstructionApplyActions;
+import org.onosproject.floodlightpof.protocol.table.OFTableType;
+import org.onosproject.floodlightpof.protocol.view.FlowModView;
+
+/**
+ * Computes the flow mods that bring a switch from the flow entries it
+ * reports to the entries the controller intends.
+ * <p>
+ * Desired entries are indexed by (table id, priority, match) with their
+ * matches in {@link PackedMatch} form. Reported entries are then streamed in
+ * one at a time and are not retained: an entry nobody wants yields an
+ * OFPFC_DELETE_STRICT at once, in the layout the entry was reported in, and an entry whose timeouts, cookie, counter
+ * or instructions differ from the desired one yields an
+ * OFPFC_MODIFY_STRICT at the reported index. Instructions are compared in
+ * their compact encoding, straight off the buffer for compact views. {@link #finish()} then yields
+ * an OFPFC_ADD for every desired entry that was not reported, in the order
+ * the entries were added. Memory is linear in the desired entries only and
+ * every entry is hashed once.
+ * <p>
+ * POF switches address entries by (table id, index), and their flow
+ * statistics carry neither the POF match nor the index, so reported entries
+ * are taken in flow mod form, e.g. decoded dump entries or a
+ * {@link org.onosproject.floodlightpof.store.FlowEntryStore}:
+ * <pre>
+ *     store.forEach(deviceId, reconciler::reported);
+ * </pre>
+ * Not thread safe; use one reconciler per resync.
+ *
+ */
+public class FlowReconciler {
+    private static final byte ADD = (byte) OFFlowEntryCmd.OFPFC_ADD.ordinal();
+    private static final byte MODIFY_STRICT = (byte) OFFlowEntryCmd.OFPFC_MODIFY_STRICT.ordinal();
+    private static final byte DELETE_STRICT = (byte) OFFlowEntryCmd.OFPFC_DELETE_STRICT.ordinal();
+
+    private final OFInstructionFactory instructionFactory;
+    private final Consumer<OFFlowMod> sink;
+    private final Map<Key, Desired> desired = new LinkedHashMap<Key, Desired>();
+    private final Statistics statistics = new Statistics();
+    private final ChannelBuffer desiredInstructions = ChannelBuffers.dynamicBuffer();
+    private final ChannelBuffer reportedInstructions = ChannelBuffers.dynamicBuffer();
+    private boolean finished;
+
+    /**
+     * @param instructionFactory decodes the instructions of reported views,
+     *                           e.g. a BasicFactory
+     * @param sink receives the flow mods to send, in the order they must
+     *             be sent
+     */
+    public FlowReconciler(OFInstructionFactory instructionFactory, Consumer<OFFlowMod> sink) {
+        if (instructionFactory == null) {
+            throw new IllegalArgumentException("instructionFactory is null");
+        }
+        if (sink == null) {
+            throw new IllegalArgumentException("sink is null");
+        }
+        this.instructionFactory = instructionFactory;
+        this.sink = sink;
+    }
+
+    /**
+     * Add an entry the switch should hold.
+     * @param flowMod an OFPFC_ADD flow mod; kept by reference
+     * @throws IllegalArgumentException if the flow mod is not an add, or an
+     *         entry with the same table id, priority and match was added
+     */
+    public void addDesired(OFFlowMod flowMod) {
+        checkNotFinished();
+        if (flowMod.getCommand() != ADD) {
+            throw new IllegalArgumentException("Desired entry is not an OFPFC_ADD: command "
+                    + flowMod.getCommand());
+        }
+        Key key = new Key(flowMod.getTableId(), flowMod.getPriority(),
+                          PackedMatch.of(matches(flowMod)));
+        if (desired.putIfAbsent(key, new Desired(flowMod)) != null) {
+            throw new IllegalArgumentException("Duplicate desired entry " + key);
+        }
+        statistics.desired++;
+    }
+
+    public void addDesired(Iterable<OFFlowMod> flowMods) {
+        for (OFFlowMod flowMod : flowMods) {
+            addDesired(flowMod);
+        }
+    }
+
+    /**
+     * Feed an entry reported by the switch. The view is not retained.
+     * @param entry
+     */
+    public void reported(FlowModView entry) {
+        checkNotFinished();
+        statistics.reported++;
+        List<OFMatchX> matches = entry.getMatchList();
+        Desired wanted = lookUp(new Key(entry.getTableId(), entry.getPriority(), PackedMatch.of(matches)));
+        if (wanted == null) {
+            sink.accept(delete(entry.getTableId(), entry.getTableType(), entry.getPriority(),
+                               entry.getIndex(), entry.getCookie(), matches, entry.isCompact()));
+            return;
+        }
+        OFFlowMod flowMod = wanted.flowMod;
+        if (flowMod.getIdleTimeout() == entry.getIdleTimeout()
+                && flowMod.getHardTimeout() == entry.getHardTimeout()
+                && flowMod.getCookie() == entry.getCookie()
+                && flowMod.getCounterId() == entry.getCounterId()
+                && flowMod.getTableType() == entry.getTableType()
+                && flowMod.getInstructionNum() == entry.getInstructionNum()
+                && encode(instructions(flowMod), desiredInstructions).equals(instructions(entry))) {
+            statistics.unchanged++;
+        } else {
+            sink.accept(modify(flowMod, entry.getIndex()));
+        }
+    }
+
+    /**
+     * Feed an entry reported by the switch.
+     * @param entry
+     */
+    public void reported(OFFlowMod entry) {
+        checkNotFinished();
+        statistics.reported++;
+        List<OFMatchX> matches = matches(entry);
+        Desired wanted = lookUp(new Key(entry.getTableId(), entry.getPriority(), PackedMatch.of(matches)));
+        if (wanted == null) {
+            sink.accept(delete(entry.getTableId(), entry.getTableType(), entry.getPriority(),
+                               entry.getIndex(), entry.getCookie(), new ArrayList<OFMatchX>(matches),
+                               entry.isCompact()));
+            return;
+        }
+        OFFlowMod flowMod = wanted.flowMod;
+        if (flowMod.getIdleTimeout() == entry.getIdleTimeout()
+                && flowMod.getHardTimeout() == entry.getHardTimeout()
+                && flowMod.getCookie() == entry.getCookie()
+                && flowMod.getCounterId() == entry.getCounterId()
+                && flowMod.getTableType() == entry.getTableType()
+                && encode(instructions(flowMod), desiredInstructions)
+                        .equals(encode(instructions(entry), reportedInstructions))) {
+            statistics.unchanged++;
+        } else {
+            sink.accept(modify(flowMod, entry.getIndex()));
+        }
+    }
+
+    /**
+     * Emit the adds for the desired entries that were not reported and
+     * release the index. The reconciler cannot be used afterwards.
+     * @return the statistics of the run
+     */
+    public Statistics finish() {
+        checkNotFinished();
+        finished = true;
+        for (Desired wanted : desired.values()) {
+            if (!wanted.reported) {
+                statistics.added++;
+                sink.accept(wanted.flowMod);
+            }
+        }
+        desired.clear();
+        return statistics;
+    }
+
+    /**
+     * Get the statistics so far.
+     * @return the live statistics
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Find the desired entry of a reported one and mark it reported. A
+     * second report of the same entry counts as a duplicate to delete.
+     */
+    private Desired lookUp(Key key) {
+        Desired wanted = desired.get(key);
+        if (wanted == null) {
+            statistics.deleted++;
+            return null;
+        }
+        if (wanted.reported) {
+            statistics.duplicates++;
+            statistics.deleted++;
+            return null;
+        }
+        wanted.reported = true;
+        return wanted;
+    }
+
+    /**
+     * Get the compact encoding of the instructions of a view, without
+     * decoding them if the view is compact.
+     */
+    private ChannelBuffer instructions(FlowModView entry) {
+        if (entry.isCompact()) {
+            int start = OFFlowMod.MINIMUM_LENGTH + entry.getMatchFieldNum() * OFMatchX.MINIMUM_LENGTH;
+            return entry.getBytes().slice(start, entry.getLengthU() - start);
+        }
+        entry.setInstructionFactory(instructionFactory);
+        return encode(entry.getInstructionList(), reportedInstructions);
+    }
+
+    private static ChannelBuffer encode(List<OFInstruction> instructions, ChannelBuffer scratch) {
+        scratch.clear();
+        for (OFInstruction instruction : instructions) {
+            if (instruction instanceof OFInstructionApplyActions) {
+                ((OFInstructionApplyActions) instruction).writeTo(scratch, true);
+            } else {
+                instruction.writeTo(scratch);
+            }
+        }
+        return scratch;
+    }
+
+    private OFFlowMod modify(OFFlowMod flowMod, int index) {
+        OFFlowMod modify;
+        try {
+            modify = flowMod.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        modify.setCommand(MODIFY_STRICT);
+        modify.setIndex(index);
+        modify.setXid(0);
+        statistics.modified++;
+        return modify;
+    }
+
+    private static OFFlowMod delete(byte tableId, OFTableType tableType, short priority, int index,
+                                    long cookie, List<OFMatchX> matches, boolean compact) {
+        OFFlowMod delete = new OFFlowMod();
+        delete.setCommand(DELETE_STRICT);
+        delete.setTableId(tableId);
+        delete.setTableType(tableType);
+        delete.setPriority(priority);
+        delete.setIndex(index);
+        delete.setCookie(cookie);
+        delete.setMatchList(matches);
+        delete.setMatchFieldNum((byte) matches.size());
+        delete.setInstructionList(new ArrayList<OFInstruction>());
+        delete.setInstructionNum((byte) 0);
+        // delete in the layout the switch reported the entry in
+        if (compact) {
+            delete.setCompact(true);
+        } else {
+            // the legacy layout sends the stored header length as it is
+            delete.setLengthU(OFFlowMod.MAXIMAL_LENGTH);
+        }
+        return delete;
+    }
+
+    private static List<OFMatchX> matches(OFFlowMod flowMod) {
+        List<OFMatchX> matches = flowMod.getMatchList();
+        if (matches == null) {
+            return Collections.emptyList();
+        }
+        return matches.size() > flowMod.getMatchFieldNum() ? matches.subList(0, flowMod.getMatchFieldNum()) : matches;
+    }
+
+    private static List<OFInstruction> instructions(OFFlowMod flowMod) {
+        List<OFInstruction> instructions = flowMod.getInstructionList();
+        if (instructions == null) {
+            return Collections.emptyList();
+        }
+        return instructions.size() > flowMod.getInstructionNum()
+                ? instructions.subList(0, flowMod.getInstructionNum()) : instructions;
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Reconciliation already finished");
+        }
+    }
+
+    private static final class Desired {
+        final OFFlowMod flowMod;
+        boolean reported;
+
+        Desired(OFFlowMod flowMod) {
+            this.flowMod = flowMod;
+        }
+    }
+
+    private static final class Key {
+        final byte tableId;
+        final short priority;
+        final PackedMatch match;
+
+        Key(byte tableId, short priority, PackedMatch match) {
+            this.tableId = tableId;
+            this.priority = priority;
+            this.match = match;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * tableId + priority) * 31 + match.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return tableId == other.tableId && priority == other.priority && match.equals(other.match);
+        }
+
+        @Override
+        public String toString() {
+            return "[tableId=" + tableId + ", priority=" + priority + ", match=" + match + "]";
+        }
+    }
+
+    /**
+     * Counts of one reconciliation.
+     */
+    public static final class Statistics {
+        private int desired;
+        private int reported;
+        private int unchanged;
+        private int added;
+        private int modified;
+        private int deleted;
+        private int duplicates;
+
+        public int getDesired() {
+            return desired;
+        }
+
+        public int getReported() {
+            return reported;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getModified() {
+            return modified;
+        }
+
+        /**
+         * Get the number of deletes, duplicates included.
+         * @return deleted entries
+         */
+        public int getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * Get the number of reported entries that repeated the table id,
+         * priority and match of an earlier one.
+         * @return duplicate entries
+         */
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics [desired=" + desired + ", reported=" + reported + ", unchanged=" + unchanged
+                    + ", added=" + added + ", modified=" + modified + ", deleted=" + deleted
+                    + ", duplicates=" + duplicates + "]";
+        }
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.view.FlowModView;
+
+/**
+ * Off-heap store of flow entries keyed by (device id, table id, index).
+ * <p>
+ * Each entry is kept as the bytes {@link OFFlowMod#writeTo} produces, in
+ * direct {@link ByteBuffer} slabs, so millions of entries cost the garbage
+ * collector a handful of objects. Entries sent with compact encoding take
+ * only their true length. Reads go through a {@link StoredFlowEntry}
+ * flyweight that decodes fields from the slab on demand.
+ * <p>
+ * Replaced and deleted entries leave dead bytes behind until
+ * {@link #compact()} copies the live entries into fresh slabs.
+ * <p>
+ * Not thread safe. A flyweight is invalidated when its entry is replaced or
+ * deleted, and by compaction.
+ *
+ */
+public class FlowEntryStore {
+    public static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+
+    // record header: device id, wire length, live flag
+    static final int HEADER_LENGTH = 16;
+    private static final int LIVE_OFFSET = 12;
+
+    private final int slabSize;
+    private List<Slab> slabs = new ArrayList<Slab>();
+    private LocationMap locations = new LocationMap();
+    private long liveBytes;
+    private long deadBytes;
+
+    public FlowEntryStore() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * @param slabSize bytes per slab; larger entries get a slab of their own
+     */
+    public FlowEntryStore(int slabSize) {
+        if (slabSize < HEADER_LENGTH + OFFlowMod.MINIMUM_LENGTH) {
+            throw new IllegalArgumentException("Slab size " + slabSize + " is too small");
+        }
+        this.slabSize = slabSize;
+    }
+
+    /**
+     * Allocate the memory of a slab. Override to back slabs with a memory
+     * mapped file instead of direct memory.
+     * @param capacity
+     * @return an empty buffer of the given capacity
+     */
+    protected ByteBuffer allocateSlab(int capacity) {
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Store a flow entry under its table id and index, replacing any entry
+     * with the same key.
+     * @param deviceId
+     * @param flowMod
+     */
+    public void put(long deviceId, OFFlowMod flowMod) {
+        int wireLength = flowMod.encodedLength();
+        long location = append(deviceId, flowMod, wireLength);
+        long old = locations.put(deviceId, flowMod.getTableId(), flowMod.getIndex(), location);
+        if (old != LocationMap.NONE) {
+            kill(old);
+        }
+        liveBytes += HEADER_LENGTH + wireLength;
+    }
+
+    /**
+     * Remove a flow entry.
+     * @param deviceId
+     * @param tableId
+     * @param index
+     * @return true if the entry was present
+     */
+    public boolean remove(long deviceId, byte tableId, int index) {
+        long old = locations.remove(deviceId, tableId, index);
+        if (old == LocationMap.NONE) {
+            return false;
+        }
+        kill(old);
+        return true;
+    }
+
+    /**
+     * Point a flyweight at a stored entry.
+     * @param deviceId
+     * @param tableId
+     * @param index
+     * @param entry flyweight to reuse
+     * @return false if there is no such entry
+     */
+    public boolean get(long deviceId, byte tableId, int index, StoredFlowEntry entry) {
+        long location = locations.get(deviceId, tableId, index);
+        if (location == LocationMap.NONE) {
+            return false;
+        }
+        Slab slab = slabs.get(slabId(location));
+        entry.wrap(slab.buffer, slabOffset(location) + HEADER_LENGTH, deviceId);
+        return true;
+    }
+
+    /**
+     * Get a stored entry.
+     * @param deviceId
+     * @param tableId
+     * @param index
+     * @return a new flyweight, or null if there is no such entry
+     */
+    public StoredFlowEntry get(long deviceId, byte tableId, int index) {
+        StoredFlowEntry entry = new StoredFlowEntry();
+        return get(deviceId, tableId, index, entry) ? entry : null;
+    }
+
+    public boolean contains(long deviceId, byte tableId, int index) {
+        return locations.get(deviceId, tableId, index) != LocationMap.NONE;
+    }
+
+    /**
+     * Visit all live entries in storage order. The same flyweight is passed
+     * to every call; the store must not be modified while visiting.
+     * @param visitor
+     */
+    public void forEach(Consumer<StoredFlowEntry> visitor) {
+        StoredFlowEntry entry = new StoredFlowEntry();
+        for (Slab slab : slabs) {
+            ChannelBuffer buffer = slab.buffer;
+            for (int offset = 0; offset < slab.used; offset += HEADER_LENGTH + buffer.getInt(offset + 8)) {
+                if (buffer.getInt(offset + LIVE_OFFSET) != 0) {
+                    entry.wrap(buffer, offset + HEADER_LENGTH, buffer.getLong(offset));
+                    visitor.accept(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit the live entries of one device.
+     * @param deviceId
+     * @param visitor
+     */
+    public void forEach(long deviceId, Consumer<StoredFlowEntry> visitor) {
+        forEach(entry -> {
+            if (entry.getDeviceId() == deviceId) {
+                visitor.accept(entry);
+            }
+        });
+    }
+
+    /**
+     * Get the number of stored entries.
+     * @return the entry count
+     */
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * Get the bytes held by live entries, headers included.
+     * @return live bytes
+     */
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Get the bytes held by replaced and deleted entries.
+     * @return dead bytes, reclaimed by {@link #compact()}
+     */
+    public long getDeadBytes() {
+        return deadBytes;
+    }
+
+    /**
+     * Get the off-heap bytes allocated for slabs.
+     * @return allocated bytes
+     */
+    public long getAllocatedBytes() {
+        long allocated = 0;
+        for (Slab slab : slabs) {
+            allocated += slab.buffer.capacity();
+        }
+        return allocated;
+    }
+
+    /**
+     * Copy the live entries into fresh slabs and release the old ones.
+     * @return the number of bytes reclaimed
+     */
+    public long compact() {
+        long before = getAllocatedBytes();
+        List<Slab> old = slabs;
+        slabs = new ArrayList<Slab>();
+        locations = new LocationMap();
+        for (Slab slab : old) {
+            ChannelBuffer buffer = slab.buffer;
+            int recordLength;
+            for (int offset = 0; offset < slab.used; offset += recordLength) {
+                recordLength = HEADER_LENGTH + buffer.getInt(offset + 8);
+                if (buffer.getInt(offset + LIVE_OFFSET) == 0) {
+                    continue;
+                }
+                Slab target = slabFor(recordLength);
+                target.buffer.setBytes(target.used, buffer, offset, recordLength);
+                long location = location(slabs.size() - 1, target.used);
+                target.used += recordLength;
+                int wire = offset + HEADER_LENGTH;
+                locations.put(buffer.getLong(offset), buffer.getByte(wire + FlowModView.TABLE_ID),
+                              buffer.getInt(wire + FlowModView.INDEX), location);
+            }
+        }
+        deadBytes = 0;
+        return before - getAllocatedBytes();
+    }
+
+    /**
+     * Remove all entries and release all slabs.
+     */
+    public void clear() {
+        slabs = new ArrayList<Slab>();
+        locations = new LocationMap();
+        liveBytes = 0;
+        deadBytes = 0;
+    }
+
+    private long append(long deviceId, OFFlowMod flowMod, int wireLength) {
+        int recordLength = HEADER_LENGTH + wireLength;
+        Slab slab = slabFor(recordLength);
+        ChannelBuffer buffer = slab.buffer;
+        int start = slab.used;
+        buffer.setLong(start, deviceId);
+        buffer.setInt(start + 8, wireLength);
+        buffer.setInt(start + LIVE_OFFSET, 1);
+        buffer.writerIndex(start + HEADER_LENGTH);
+        flowMod.writeTo(buffer);
+        if (buffer.writerIndex() != start + recordLength) {
+            throw new IllegalStateException("Flow mod wrote " + (buffer.writerIndex() - start - HEADER_LENGTH)
+                    + " bytes, expected " + wireLength);
+        }
+        // legacy messages may carry a stale header length
+        buffer.setShort(start + HEADER_LENGTH + 2, wireLength);
+        slab.used += recordLength;
+        return location(slabs.size() - 1, start);
+    }
+
+    /**
+     * Get the last slab if the record fits, else a new one.
+     */
+    private Slab slabFor(int recordLength) {
+        Slab last = slabs.isEmpty() ? null : slabs.get(slabs.size() - 1);
+        if (last == null || last.buffer.capacity() - last.used < recordLength) {
+            ByteBuffer memory = allocateSlab(Math.max(slabSize, recordLength));
+            last = new Slab(ChannelBuffers.wrappedBuffer(memory.order(ByteOrder.BIG_ENDIAN)));
+            slabs.add(last);
+        }
+        return last;
+    }
+
+    private void kill(long location) {
+        ChannelBuffer buffer = slabs.get(slabId(location)).buffer;
+        int offset = slabOffset(location);
+        buffer.setInt(offset + LIVE_OFFSET, 0);
+        int recordLength = HEADER_LENGTH + buffer.getInt(offset + 8);
+        liveBytes -= recordLength;
+        deadBytes += recordLength;
+    }
+
+    private static long location(int slabId, int offset) {
+        return ((long) slabId << 32) | (offset & 0xffffffffL);
+    }
+
+    private static int slabId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int slabOffset(long location) {
+        return (int) location;
+    }
+
+    private static final class Slab {
+        final ChannelBuffer buffer;
+        int used;
+
+        Slab(ChannelBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Open addressing map from (device id, table id, index) to a record
+     * location, on primitive arrays.
+     */
+    private static final class LocationMap {
+        static final long NONE = -1L;
+
+        private long[] devices;
+        private long[] entries;         // table id << 32 | index
+        private long[] values;          // location, NONE when the slot is free
+        private int size;
+
+        LocationMap() {
+            allocate(1024);
+        }
+
+        private void allocate(int capacity) {
+            devices = new long[capacity];
+            entries = new long[capacity];
+            values = new long[capacity];
+            Arrays.fill(values, NONE);
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static long entryKey(byte tableId, int index) {
+            return ((long) (tableId & 0xff) << 32) | (index & 0xffffffffL);
+        }
+
+        private static int hash(long device, long entry) {
+            long h = (device * 0x9e3779b97f4a7c15L) ^ entry;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+
+        private int slot(long device, long entry) {
+            int mask = values.length - 1;
+            int slot = hash(device, entry) & mask;
+            while (values[slot] != NONE && !(devices[slot] == device && entries[slot] == entry)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        long get(long device, byte tableId, int index) {
+            return values[slot(device, entryKey(tableId, index))];
+        }
+
+        long put(long device, byte tableId, int index, long location) {
+            long entry = entryKey(tableId, index);
+            int slot = slot(device, entry);
+            long old = values[slot];
+            if (old == NONE) {
+                if ((size + 1) * 2 > values.length) {
+                    resize();
+                    slot = slot(device, entry);
+                }
+                devices[slot] = device;
+                entries[slot] = entry;
+                size++;
+            }
+            values[slot] = location;
+            return old;
+        }
+
+        long remove(long device, byte tableId, int index) {
+            int mask = values.length - 1;
+            int hole = slot(device, entryKey(tableId, index));
+            long old = values[hole];
+            if (old == NONE) {
+                return NONE;
+            }
+            values[hole] = NONE;
+            size--;
+            for (int next = (hole + 1) & mask; values[next] != NONE; next = (next + 1) & mask) {
+                int home = hash(devices[next], entries[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    devices[hole] = devices[next];
+                    entries[hole] = entries[next];
+                    values[hole] = values[next];
+                    values[next] = NONE;
+                    hole = next;
+                }
+            }
+            return old;
+        }
+
+        private void resize() {
+            long[] oldDevices = devices;
+            long[] oldEntries = entries;
+            long[] oldValues = values;
+            allocate(oldValues.length * 2);
+            int mask = values.length - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] == NONE) {
+                    continue;
+                }
+                int slot = hash(oldDevices[i], oldEntries[i]) & mask;
+                while (values[slot] != NONE) {
+                    slot = (slot + 1) & mask;
+                }
+                devices[slot] = oldDevices[i];
+                entries[slot] = oldEntries[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
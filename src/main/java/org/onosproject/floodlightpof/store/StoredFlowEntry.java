@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.floodlightpof.store;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.onosproject.floodlightpof.protocol.OFFlowMod;
+import org.onosproject.floodlightpof.protocol.factory.OFInstructionFactory;
+import org.onosproject.floodlightpof.protocol.view.FlowModView;
+
+/**
+ * Flyweight over a flow entry held by a {@link FlowEntryStore}. Getters
+ * read the encoded OFFlowMod directly; nothing is decoded until
+ * {@link #toFlowMod} is called. Instances are reused, see
+ * {@link FlowEntryStore#get(long, byte, int, StoredFlowEntry)}.
+ *
+ */
+public class StoredFlowEntry extends FlowModView {
+    private long deviceId;
+
+    void wrap(ChannelBuffer buffer, int offset, long deviceId) {
+        wrap(buffer, offset);
+        this.deviceId = deviceId;
+    }
+
+    public long getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Get the length of the encoded flow mod.
+     * @return length in bytes
+     */
+    public int getWireLength() {
+        return getLengthU();
+    }
+
+    /**
+     * Decode the full flow mod.
+     * @param factory instruction factory, e.g. a BasicFactory
+     * @return a new OFFlowMod
+     */
+    public OFFlowMod toFlowMod(OFInstructionFactory factory) {
+        setInstructionFactory(factory);
+        return materialize();
+    }
+
+    @Override
+    public String toString() {
+        return "StoredFlowEntry [deviceId=" + deviceId + ", tableId=" + getTableId()
+                + ", index=" + getIndex() + ", priority=" + getPriority()
+                + ", matchFieldNum=" + getMatchFieldNum() + ", length=" + getWireLength() + "]";
+    }
+}
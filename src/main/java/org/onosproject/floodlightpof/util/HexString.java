@@ -30,61 +30,78 @@
  *      public static String NameToHex(String stringVar)
  *      public static String toHex(byte[] byteArray)
  *      public static String toHex(byte[] byteArray, int length)
+ *
+ * Add StringBuilder based append variants, which the String methods and
+ * the toBytesString/appendBytesString dumps of messages are built on.
  */
 
 package org.onosproject.floodlightpof.util;
 
-import java.math.BigInteger;
-
 import org.onosproject.floodlightpof.protocol.OFGlobal;
 
 public final class HexString {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     /**
      * Convert a string of bytes to a ':' separated hex string.
      * @param bytes
      * @return "0f:ca:fe:de:ad:be:ef"
      */
     public static String toHexString(byte[] bytes) {
-        int i;
-        String ret = "";
-        String tmp;
-        for (i = 0; i < bytes.length; i++) {
+        return appendHexString(new StringBuilder(bytes.length * 3), bytes).toString();
+    }
+
+    /**
+     * Append a string of bytes as a ':' separated hex string.
+     * @param sb
+     * @param bytes
+     * @return sb
+     */
+    public static StringBuilder appendHexString(StringBuilder sb, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
             if (i > 0) {
-                ret += ":";
-            }
-            tmp = Integer.toHexString(U8.f(bytes[i]));
-            if (tmp.length() == 1) {
-                ret += "0";
+                sb.append(':');
             }
-            ret += tmp;
+            appendHex(sb, bytes[i]);
         }
-        return ret;
+        return sb;
     }
 
     public static String toHexString(long val, int padTo) {
-        char[] arr = Long.toHexString(val).toCharArray();
-        String ret = "";
-        // prepend the right number of leading zeros
-        int i = 0;
-        for (; i < (padTo * 2 - arr.length); i++) {
-            ret += "0";
-            if ((i % 2) == 1) {
-                ret += ":";
-            }
-        }
-        for (int j = 0; j < arr.length; j++) {
-            ret += arr[j];
-            if ((((i + j) % 2) == 1) && (j < (arr.length - 1))) {
-                ret += ":";
+        return appendHexString(new StringBuilder(padTo * 3), val, padTo).toString();
+    }
+
+    /**
+     * Append a long as a ':' separated hex string of at least padTo bytes.
+     * @param sb
+     * @param val
+     * @param padTo
+     * @return sb
+     */
+    public static StringBuilder appendHexString(StringBuilder sb, long val, int padTo) {
+        int digits = hexDigits(val);
+        int zeros = Math.max(0, padTo * 2 - digits);
+        int total = zeros + digits;
+        for (int i = 0; i < total; i++) {
+            sb.append(i < zeros ? '0' : HEX_DIGITS[(int) (val >>> ((total - 1 - i) * 4)) & 0xf]);
+            if ((i % 2) == 1 && i < total - 1) {
+                sb.append(':');
             }
         }
-        return ret;
+        return sb;
     }
 
     public static String toHexString(long val) {
         return toHexString(val, 8);
     }
 
+    /**
+     * Get the number of hex digits Long.toHexString would print.
+     */
+    private static int hexDigits(long val) {
+        return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(val) + 3) / 4);
+    }
+
 
     /**
      * Convert a string of hex values into a string of bytes.
@@ -106,12 +123,8 @@ public final class HexString {
     }
 
     public static long toLong(String values) throws NumberFormatException {
-        // Long.parseLong() can't handle HexStrings with MSB set. Sigh.
-        BigInteger bi = new BigInteger(values.replaceAll(":", ""), 16);
-        if (bi.bitLength() > 64) {
-            throw new NumberFormatException("Input string too big to fit in long: " + values);
-        }
-        return bi.longValue();
+        // Long.parseLong() can't handle HexStrings with MSB set, parse unsigned
+        return Long.parseUnsignedLong(values.replace(":", ""), 16);
     }
 
     /**
@@ -130,6 +143,19 @@ public final class HexString {
         return zeroNumber == 0 ? "" : "[0*" + zeroNumber + "]";
     }
 
+    /**
+     * Append the {@link #zero(int)} string.
+     * @param sb
+     * @param zeroNumber
+     * @return sb
+     */
+    public static StringBuilder appendZero(StringBuilder sb, int zeroNumber) {
+        if (zeroNumber != 0) {
+            sb.append("[0*").append(zeroNumber).append(']');
+        }
+        return sb;
+    }
+
     /**
      * Get a "0000..." string and the end with blank space ' '.
      * ZeroEnd(3) will get "000 "
@@ -140,6 +166,16 @@ public final class HexString {
         return zero(zeroNumber) + " ";
     }
 
+    /**
+     * Append the {@link #zeroEnd(int)} string.
+     * @param sb
+     * @param zeroNumber
+     * @return sb
+     */
+    public static StringBuilder appendZeroEnd(StringBuilder sb, int zeroNumber) {
+        return appendZero(sb, zeroNumber).append(' ');
+    }
+
     /**
      * Get a "0000..." string, the number of '0' is (2 * byteLength).
      * (a byte 255's hex value is 0xff, so a byte 0's hex value is 00).
@@ -151,6 +187,16 @@ public final class HexString {
         return zero(2 * byteLenTh);
     }
 
+    /**
+     * Append the {@link #byteZero(int)} string.
+     * @param sb
+     * @param byteLength
+     * @return sb
+     */
+    public static StringBuilder appendByteZero(StringBuilder sb, int byteLength) {
+        return appendZero(sb, 2 * byteLength);
+    }
+
     /**
      * Get a "0000... " string, the number of '0' is (2 * byteLength).
      * (a byte 255's hex value is 0xff, so a byte 0's hex value is 00).
@@ -162,6 +208,16 @@ public final class HexString {
         return zero(2 * byteLength) + " ";
     }
 
+    /**
+     * Append the {@link #byteZeroEnd(int)} string.
+     * @param sb
+     * @param byteLength
+     * @return sb
+     */
+    public static StringBuilder appendByteZeroEnd(StringBuilder sb, int byteLength) {
+        return appendZero(sb, 2 * byteLength).append(' ');
+    }
+
     /**
      * Get a byte's hex value string.
      * e.g. toHex((byte)254) will get "fe", toHex((byte)3) will get "03".
@@ -170,7 +226,17 @@ public final class HexString {
      * @return a string of the byte variable's hex value
      */
     public static String toHex(byte byteVar) {
-        return Integer.toHexString((byteVar & 0x000000FF) | 0xFFFFFF00).substring(6);
+        return new String(new char[] {HEX_DIGITS[(byteVar >> 4) & 0xf], HEX_DIGITS[byteVar & 0xf]});
+    }
+
+    /**
+     * Append a byte's hex value, see {@link #toHex(byte)}.
+     * @param sb
+     * @param byteVar
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, byte byteVar) {
+        return sb.append(HEX_DIGITS[(byteVar >> 4) & 0xf]).append(HEX_DIGITS[byteVar & 0xf]);
     }
 
     /**
@@ -181,7 +247,17 @@ public final class HexString {
      * @return a string of the short variable's hex value
      */
     public static String toHex(short shortVar) {
-        return Integer.toHexString((shortVar & 0x0000FFFF) | 0xFFFF0000).substring(4);
+        return appendHex(new StringBuilder(4), shortVar).toString();
+    }
+
+    /**
+     * Append a short's hex value, see {@link #toHex(short)}.
+     * @param sb
+     * @param shortVar
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, short shortVar) {
+        return appendHex(appendHex(sb, (byte) (shortVar >> 8)), (byte) shortVar);
     }
 
     /**
@@ -192,16 +268,23 @@ public final class HexString {
      * @return a string of the int variable's hex value
      */
     public static String toHex(int intVar) {
-        char[] arr = Integer.toHexString(intVar).toCharArray();
-        String ret = "";
-        // prepend the right number of leading zeros
-        ret += zero(8 - arr.length);
-
-        ret += Integer.toHexString(intVar);
-
-        ret += " ";
+        return appendHex(new StringBuilder(16), intVar).toString();
+    }
 
-        return ret;
+    /**
+     * Append a int's hex value and ' ', see {@link #toHex(int)}.
+     * @param sb
+     * @param intVar
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, int intVar) {
+        int digits = hexDigits(intVar & 0xffffffffL);
+        // prepend the right number of leading zeros
+        appendZero(sb, 8 - digits);
+        for (int i = digits - 1; i >= 0; i--) {
+            sb.append(HEX_DIGITS[(intVar >>> (i * 4)) & 0xf]);
+        }
+        return sb.append(' ');
     }
 
     /**
@@ -212,7 +295,17 @@ public final class HexString {
      * @return a string of the long variable's hex value
      */
     public static String toHex(long longVar) {
-        return  toHex((int) (longVar >> 32)) + toHex((int) (longVar & 0xFFFFFFFF));
+        return appendHex(new StringBuilder(32), longVar).toString();
+    }
+
+    /**
+     * Append a long's hex value and ' ', see {@link #toHex(long)}.
+     * @param sb
+     * @param longVar
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, long longVar) {
+        return appendHex(appendHex(sb, (int) (longVar >> 32)), (int) (longVar & 0xFFFFFFFF));
     }
 
     /**
@@ -222,12 +315,21 @@ public final class HexString {
      * @return hex string
      */
     public static String toHex(String stringVar, int maxLength) {
+        return appendHex(new StringBuilder(), stringVar, maxLength).toString();
+    }
+
+    /**
+     * Append a String as hex, see {@link #toHex(String, int)}.
+     * @param sb
+     * @param stringVar
+     * @param maxLength
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, String stringVar, int maxLength) {
         if (null == stringVar) {
-            return "";
+            return sb;
         }
-        byte[] byteArray = ParseString.stringToBytes(stringVar, maxLength);
-
-        return toHex(byteArray);
+        return appendHex(sb, ParseString.stringToBytes(stringVar, maxLength));
     }
 
     /**
@@ -236,10 +338,20 @@ public final class HexString {
      * @return hex string
      */
     public static String nameToHex(String stringVar) {
+        return appendNameHex(new StringBuilder(), stringVar).toString();
+    }
+
+    /**
+     * Append a name string as hex, see {@link #nameToHex(String)}.
+     * @param sb
+     * @param stringVar
+     * @return sb
+     */
+    public static StringBuilder appendNameHex(StringBuilder sb, String stringVar) {
         if (null == stringVar) {
-            return "";
+            return sb;
         }
-        return toHex(stringVar, OFGlobal.OFP_NAME_MAX_LENGTH) + " ";
+        return appendHex(sb, stringVar, OFGlobal.OFP_NAME_MAX_LENGTH).append(' ');
     }
 
     /**
@@ -252,12 +364,20 @@ public final class HexString {
                 || 0 == byteArray.length) {
             return "";
         }
+        return appendHex(new StringBuilder(byteArray.length * 2), byteArray).toString();
+    }
 
-        String ret = "";
-        for (byte b : byteArray) {
-            ret += toHex(b);        //ret += String.format("%02x", b);
+    /**
+     * Append a byte[] array as hex, see {@link #toHex(byte[])}.
+     * @param sb
+     * @param byteArray
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, byte[] byteArray) {
+        if (null == byteArray) {
+            return sb;
         }
-        return ret;
+        return appendHex(sb, byteArray, 0, byteArray.length);
     }
 
     /**
@@ -269,21 +389,31 @@ public final class HexString {
      * @return hex string
      */
     public static String toHex(byte[] byteArray, int start, int length) {
-        int arrayLength = byteArray.length;
+        return appendHex(new StringBuilder(Math.max(0, length) * 2), byteArray, start, length).toString();
+    }
+
+    /**
+     * Append part of a byte[] array as hex, see {@link #toHex(byte[], int, int)}.
+     * @param sb
+     * @param byteArray
+     * @param start
+     *              start index of byteArray
+     * @param length
+     * @return sb
+     */
+    public static StringBuilder appendHex(StringBuilder sb, byte[] byteArray, int start, int length) {
         if (null == byteArray
-                || 0 == arrayLength
+                || 0 == byteArray.length
                 || start < 0
-                || (start + length) > arrayLength) {
-            return "";
+                || (start + length) > byteArray.length) {
+            return sb;
         }
 
-        String ret = "";
-
         for (int i = start; i < (start + length); i++) {
-            ret += toHex(byteArray[i]);
+            appendHex(sb, byteArray[i]);
         }
 
-        return ret;
+        return sb;
     }
 
     private HexString() {
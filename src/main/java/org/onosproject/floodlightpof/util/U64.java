@@ -19,15 +19,100 @@ package org.onosproject.floodlightpof.util;
 
 import java.math.BigInteger;
 
+/**
+ * Helpers for unsigned 64-bit values such as cookies and counters, held in a
+ * long. Only {@link #f(long)} and {@link #t(BigInteger)} allocate.
+ *
+ */
 public final class U64 {
+    private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+
     public static BigInteger f(long i) {
-        return new BigInteger(Long.toBinaryString(i), 2);
+        BigInteger value = BigInteger.valueOf(i);
+        return i >= 0 ? value : value.add(TWO_64);
     }
 
     public static long t(BigInteger l) {
         return l.longValue();
     }
 
+    /**
+     * Compare two unsigned values.
+     * @param a
+     * @param b
+     * @return negative, zero or positive as a is less than, equal to or greater than b
+     */
+    public static int compare(long a, long b) {
+        return Long.compareUnsigned(a, b);
+    }
+
+    /**
+     * Divide two unsigned values.
+     * @param dividend
+     * @param divisor
+     * @return the unsigned quotient
+     */
+    public static long divide(long dividend, long divisor) {
+        return Long.divideUnsigned(dividend, divisor);
+    }
+
+    /**
+     * Get the remainder of the division of two unsigned values.
+     * @param dividend
+     * @param divisor
+     * @return the unsigned remainder
+     */
+    public static long remainder(long dividend, long divisor) {
+        return Long.remainderUnsigned(dividend, divisor);
+    }
+
+    /**
+     * Convert an unsigned value to a double, e.g. to compute rates.
+     * @param i
+     * @return the value as a double
+     */
+    public static double toDouble(long i) {
+        if (i >= 0) {
+            return (double) i;
+        }
+        // halve with the low bit kept sticky so rounding stays correct
+        return (double) ((i >>> 1) | (i & 1)) * 2.0;
+    }
+
+    /**
+     * Get the decimal string of an unsigned value.
+     * @param i
+     * @return e.g. "18446744073709551615" for -1
+     */
+    public static String toString(long i) {
+        return Long.toUnsignedString(i);
+    }
+
+    /**
+     * Append the decimal string of an unsigned value.
+     * @param sb
+     * @param i
+     * @return sb
+     */
+    public static StringBuilder append(StringBuilder sb, long i) {
+        if (i >= 0) {
+            return sb.append(i);
+        }
+        // split off the last digit so the rest fits a signed long
+        long quotient = (i >>> 1) / 5;
+        return sb.append(quotient).append(i - quotient * 10);
+    }
+
+    /**
+     * Parse a decimal unsigned value.
+     * @param s
+     * @return the value held in a long
+     * @throws NumberFormatException if the string is not an unsigned 64-bit value
+     */
+    public static long parse(String s) {
+        return Long.parseUnsignedLong(s);
+    }
+
     private U64() {
         //not called
     }
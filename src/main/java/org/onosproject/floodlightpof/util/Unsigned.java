@@ -20,8 +20,12 @@ package org.onosproject.floodlightpof.util;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
+import org.jboss.netty.buffer.ChannelBuffer;
+
 /**
  * A util library class for dealing with the lack of unsigned datatypes in Java.
+ * The BigInteger based long accessors allocate; the long based ones and the
+ * ChannelBuffer accessors below keep the value in a long, see {@link U64}.
  *
  */
 
@@ -163,11 +167,7 @@ public final class Unsigned {
      * @return an unsigned long contained in a BigInteger
      */
     public static BigInteger getUnsignedLong(ByteBuffer bb) {
-        byte[] v = new byte[8];
-        for (int i = 0; i < 8; ++i) {
-            v[i] = bb.get(i);
-        }
-        return new BigInteger(1, v);
+        return U64.f(bb.getLong());
     }
 
     /**
@@ -178,11 +178,7 @@ public final class Unsigned {
      * @return an unsigned long contained in a BigInteger
      */
     public static BigInteger getUnsignedLong(ByteBuffer bb, int offset) {
-        byte[] v = new byte[8];
-        for (int i = 0; i < 8; ++i) {
-            v[i] = bb.get(offset + i);
-        }
-        return new BigInteger(1, v);
+        return U64.f(bb.getLong(offset));
     }
 
     /**
@@ -208,6 +204,57 @@ public final class Unsigned {
         bb.putLong(offset, v.longValue());
     }
 
+    /**
+     * Get the decimal string of an unsigned long at the specified index of
+     * the ChannelBuffer.
+     *
+     * @param cb ChannelBuffer to get the long from
+     * @param index the index to get the long from
+     * @return the unsigned decimal string
+     */
+    public static String getUnsignedLongString(ChannelBuffer cb, int index) {
+        return U64.toString(cb.getLong(index));
+    }
+
+    /**
+     * Append the decimal string of an unsigned long at the specified index
+     * of the ChannelBuffer.
+     *
+     * @param sb StringBuilder to append to
+     * @param cb ChannelBuffer to get the long from
+     * @param index the index to get the long from
+     * @return sb
+     */
+    public static StringBuilder appendUnsignedLong(StringBuilder sb, ChannelBuffer cb, int index) {
+        return U64.append(sb, cb.getLong(index));
+    }
+
+    /**
+     * Compare the unsigned long at the specified index of the ChannelBuffer
+     * with a value.
+     *
+     * @param cb ChannelBuffer to get the long from
+     * @param index the index to get the long from
+     * @param v the value to compare with, as an unsigned long
+     * @return negative, zero or positive as the stored long is less than,
+     *         equal to or greater than v
+     */
+    public static int compareUnsignedLong(ChannelBuffer cb, int index, long v) {
+        return U64.compare(cb.getLong(index), v);
+    }
+
+    /**
+     * Get the unsigned long at the specified index of the ChannelBuffer as a
+     * double, e.g. to compute rates from counters.
+     *
+     * @param cb ChannelBuffer to get the long from
+     * @param index the index to get the long from
+     * @return the unsigned value as a double
+     */
+    public static double getUnsignedLongAsDouble(ChannelBuffer cb, int index) {
+        return U64.toDouble(cb.getLong(index));
+    }
+
     private Unsigned() {
         //not called
     }